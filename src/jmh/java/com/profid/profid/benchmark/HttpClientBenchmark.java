@@ -0,0 +1,141 @@
+package com.profid.profid.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.profid.profid.config.HttpClientConfig;
+import com.profid.profid.config.HttpClientProperties;
+import com.profid.profid.config.WebClientConfig;
+import com.profid.profid.config.WebClientProperties;
+import com.profid.profid.dto.GeneralResponse;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.utils.HttpClientMetrics;
+import com.profid.profid.utils.WireFormat;
+import com.profid.profid.utils.v1.GenericWebClient;
+import com.profid.profid.utils.v2.GenericHttpClient;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares {@link GenericWebClient} and {@link GenericHttpClient} against the same in-process stub, for the
+ * student payload sizes the sync endpoints see in practice, in each wire format. Both clients are configured for
+ * the format, so GETs ask for it and POST bodies are written in it; the average bytes per request and response,
+ * from the clients' own size metrics, are printed at the end of each trial.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpClientBenchmark {
+
+    private static final int TIMEOUT_SECONDS = 60;
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final Map<String, String> HEADERS = Map.of("Authorization", "Bearer benchmark");
+
+    @Param({"10", "1000", "100000"})
+    private int studentCount;
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    private WireFormat format;
+
+    private StubStudentServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private String studentsUrl;
+    private List<StudentResponseDTO> students;
+
+    private ConnectionProvider connectionProvider;
+    private CloseableHttpClient httpClient;
+    private GenericWebClient genericWebClient;
+    private GenericHttpClient genericHttpClient;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        students = StudentFixtures.students(studentCount);
+        Map<WireFormat, Supplier<byte[]>> payloads = new EnumMap<>(WireFormat.class);
+        byte[] payload = format.getObjectMapper().writeValueAsBytes(students);
+        payloads.put(format, () -> payload);
+        server = new StubStudentServer(payloads);
+        studentsUrl = server.url("/students");
+
+        // Both clients record their request metrics, as they do in the application
+        meterRegistry = new SimpleMeterRegistry();
+        WebClientConfig webClientConfig = new WebClientConfig();
+        WebClientProperties webClientProperties = new WebClientProperties();
+        // 100k students is ~25MB of JSON; the production limit would reject it
+        webClientProperties.setMaxInMemorySize(64 * 1024 * 1024);
+        webClientProperties.setHostFormats(Map.of("localhost", format));
+        connectionProvider = webClientConfig.webClientConnectionProvider(webClientProperties);
+        WebClient webClient = webClientConfig.pooledWebClient(WebClient.builder(), connectionProvider, webClientProperties,
+                meterRegistry);
+        genericWebClient = new GenericWebClient(webClient, webClientProperties, meterRegistry);
+
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        HttpClientProperties httpClientProperties = new HttpClientProperties();
+        httpClientProperties.setHostFormats(Map.of("localhost", format));
+        PoolingHttpClientConnectionManager connectionManager = httpClientConfig.httpClientConnectionManager(httpClientProperties);
+        httpClient = httpClientConfig.pooledHttpClient(connectionManager, httpClientProperties, meterRegistry);
+        genericHttpClient = new GenericHttpClient(httpClient, connectionManager, httpClientProperties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (DistributionSummary summary : meterRegistry.find(HttpClientMetrics.REQUEST_SIZE).summaries()) {
+            printSize("request", summary);
+        }
+        for (DistributionSummary summary : meterRegistry.find(HttpClientMetrics.RESPONSE_SIZE).summaries()) {
+            printSize("response", summary);
+        }
+        httpClient.close();
+        connectionProvider.dispose();
+        server.close();
+    }
+
+    private void printSize(String direction, DistributionSummary summary) {
+        if (summary.count() > 0) {
+            System.out.printf("%s %s %s %s: %.0f bytes%n", format, summary.getId().getTag("client"),
+                    summary.getId().getTag("method"), direction, summary.mean());
+        }
+    }
+
+    @Benchmark
+    public List<StudentResponseDTO> webClientGet() {
+        return genericWebClient.get(studentsUrl, HEADERS, new ParameterizedTypeReference<List<StudentResponseDTO>>() {
+        }, TIMEOUT_SECONDS).block();
+    }
+
+    @Benchmark
+    public List<StudentResponseDTO> httpClientGet() throws IOException {
+        return genericHttpClient.get(studentsUrl, HEADERS, new TypeReference<List<StudentResponseDTO>>() {
+        }, TIMEOUT_SECONDS);
+    }
+
+    @Benchmark
+    public long httpClientGetAsStream(Blackhole blackhole) throws IOException {
+        return genericHttpClient.getAsStream(studentsUrl, HEADERS, StudentResponseDTO.class, STREAM_CHUNK_SIZE,
+                blackhole::consume, TIMEOUT_SECONDS);
+    }
+
+    @Benchmark
+    public GeneralResponse webClientPost() {
+        return genericWebClient.post(studentsUrl, HEADERS, students, GeneralResponse.class, TIMEOUT_SECONDS).block();
+    }
+
+    @Benchmark
+    public GeneralResponse httpClientPost() throws IOException {
+        return genericHttpClient.post(studentsUrl, HEADERS, students, GeneralResponse.class, TIMEOUT_SECONDS);
+    }
+}
@@ -0,0 +1,84 @@
+package com.profid.profid.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.profid.profid.dto.GeneralResponse;
+import com.profid.profid.utils.WireFormat;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * In-process upstream stub: GET /students serves a pre-serialized payload, POST /students drains the body
+ * and acknowledges it, so the benchmarks measure the clients rather than the server. Both answer in the format
+ * the client asks for first in {@code Accept} when a payload exists for it, JSON otherwise.
+ */
+final class StubStudentServer implements AutoCloseable {
+
+    private static final Map<WireFormat, byte[]> POST_RESPONSES = new EnumMap<>(WireFormat.class);
+
+    static {
+        for (WireFormat format : WireFormat.values()) {
+            try {
+                POST_RESPONSES.put(format, format.getObjectMapper().writeValueAsBytes(new GeneralResponse("OK", "SUCCESS")));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private final DisposableServer server;
+
+    StubStudentServer(byte[] studentsJson) {
+        this(() -> studentsJson);
+    }
+
+    // The payload is asked for per GET, so a benchmark can alternate between versions of the feed
+    StubStudentServer(Supplier<byte[]> studentsJson) {
+        this(Map.of(WireFormat.JSON, studentsJson));
+    }
+
+    StubStudentServer(Map<WireFormat, Supplier<byte[]>> students) {
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/students", (request, response) -> {
+                            WireFormat format = preferredFormat(request, students);
+                            return response
+                                    .header(HttpHeaderNames.CONTENT_TYPE, format.getMediaType())
+                                    .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(students.get(format).get())));
+                        })
+                        .post("/students", (request, response) -> {
+                            WireFormat format = preferredFormat(request, POST_RESPONSES);
+                            return request.receive()
+                                    .then(response
+                                            .header(HttpHeaderNames.CONTENT_TYPE, format.getMediaType())
+                                            .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(POST_RESPONSES.get(format))))
+                                            .then());
+                        }))
+                .bindNow();
+    }
+
+    String url(String path) {
+        return "http://localhost:" + server.port() + path;
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private static WireFormat preferredFormat(HttpServerRequest request, Map<WireFormat, ?> available) {
+        String accept = request.requestHeaders().get(HttpHeaderNames.ACCEPT);
+        WireFormat format = WireFormat.fromContentType(accept != null ? accept.split(",")[0] : null);
+        return available.containsKey(format) ? format : WireFormat.JSON;
+    }
+}
@@ -0,0 +1,30 @@
+package com.profid.profid.benchmark;
+
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.dto.response.SubjectResponseDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates student payloads shaped like the upstream API response.
+ */
+final class StudentFixtures {
+
+    private StudentFixtures() {
+    }
+
+    static List<StudentResponseDTO> students(int count) {
+        List<StudentResponseDTO> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<SubjectResponseDTO> subjects = List.of(
+                    new SubjectResponseDTO("Math", 3, "Mathematics " + i),
+                    new SubjectResponseDTO("Science", 4, "Physics " + i),
+                    new SubjectResponseDTO("History", 2, "World history " + i)
+            );
+            students.add(new StudentResponseDTO("Student " + i, "student" + i + "@example.com", 18 + i % 10,
+                    i % 2 == 0 ? "Male" : "Female", "99890" + (1000000 + i), "Street " + i + ", Tashkent", subjects));
+        }
+        return students;
+    }
+}
@@ -0,0 +1,48 @@
+package com.profid.profid.benchmark;
+
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.entity.Student;
+import com.profid.profid.mapper.StudentMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU side of {@code saveStudentsToDatabase}: DTO to entity mapping and the content hash used by upserts,
+ * without any database work.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StudentMappingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int studentCount;
+
+    private List<StudentResponseDTO> students;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        students = StudentFixtures.students(studentCount);
+    }
+
+    @Benchmark
+    public void toEntity(Blackhole blackhole) {
+        for (StudentResponseDTO student : students) {
+            Student entity = StudentMapper.toEntity(student);
+            blackhole.consume(entity);
+        }
+    }
+
+    @Benchmark
+    public void contentHash(Blackhole blackhole) {
+        for (StudentResponseDTO student : students) {
+            blackhole.consume(StudentMapper.contentHash(student));
+        }
+    }
+}
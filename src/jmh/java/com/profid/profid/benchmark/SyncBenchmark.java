@@ -0,0 +1,96 @@
+package com.profid.profid.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.profid.profid.ProfidApplication;
+import com.profid.profid.dto.ExportResponse;
+import com.profid.profid.dto.GeneralResponse;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.service.ReactiveStudentSyncService;
+import com.profid.profid.service.StudentSyncService;
+import com.profid.profid.service.SyncProgress;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Blocking (WebClient + JPA) against reactive (WebClient + R2DBC) sync, on the application context with the
+ * {@code reactive} profile and the same H2 database. The stub alternates between two versions of the feed, so every
+ * fetch updates all students rather than skipping unchanged ones. Run with {@code -t 4} to see how the two hold up
+ * under concurrent syncs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SyncBenchmark {
+
+    @Param({"1000", "10000"})
+    private int studentCount;
+
+    private StubStudentServer server;
+    private ConfigurableApplicationContext context;
+    private StudentSyncService studentSyncService;
+    private ReactiveStudentSyncService reactiveStudentSyncService;
+    private String postUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<StudentResponseDTO> students = StudentFixtures.students(studentCount);
+        byte[] original = objectMapper.writeValueAsBytes(students);
+        students.forEach(student -> student.setAge(student.getAge() + 1));
+        byte[] changed = objectMapper.writeValueAsBytes(students);
+        AtomicInteger requests = new AtomicInteger();
+        server = new StubStudentServer(() -> requests.getAndIncrement() % 2 == 0 ? original : changed);
+        postUrl = server.url("/students");
+
+        context = new SpringApplicationBuilder(ProfidApplication.class)
+                .profiles("local", "reactive")
+                // Arguments rather than default properties, which application.yml would override
+                .run("--server.port=0",
+                        "--fetch.url=" + postUrl,
+                        "--fetch.conditionalRequests=false",
+                        "--webclient.maxInMemorySize=67108864",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        studentSyncService = context.getBean(StudentSyncService.class);
+        reactiveStudentSyncService = context.getBean(ReactiveStudentSyncService.class);
+
+        // Both implementations then measure updates of stored students
+        studentSyncService.fetchAndSaveUsingWebClient();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.close();
+    }
+
+    @Benchmark
+    public GeneralResponse blockingFetch() {
+        return studentSyncService.fetchAndSaveUsingWebClient(new SyncProgress());
+    }
+
+    @Benchmark
+    public GeneralResponse reactiveFetch() {
+        return reactiveStudentSyncService.fetchAndSave().block();
+    }
+
+    @Benchmark
+    public ExportResponse blockingPost() {
+        return studentSyncService.postStudentsUsingWebClient(postUrl, true, new SyncProgress());
+    }
+
+    @Benchmark
+    public ExportResponse reactivePost() {
+        return reactiveStudentSyncService.postStudents(postUrl).block();
+    }
+}
@@ -0,0 +1,58 @@
+package com.profid.profid.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.utils.WireFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU side of the wire formats: writing and reading a student list with the same typed readers and writers
+ * the clients use, without any network. The encoded size of each payload is printed at the start of the trial.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int studentCount;
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    private WireFormat format;
+
+    private List<StudentResponseDTO> students;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        TypeReference<List<StudentResponseDTO>> type = new TypeReference<>() {
+        };
+        students = StudentFixtures.students(studentCount);
+        writer = format.getObjectMapper().writerFor(type);
+        reader = format.getObjectMapper().readerFor(type);
+        encoded = writer.writeValueAsBytes(students);
+        System.out.printf("%s payload of %d students: %d bytes%n", format, studentCount, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(students);
+    }
+
+    @Benchmark
+    public List<StudentResponseDTO> deserialize() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
@@ -0,0 +1,43 @@
+package com.profid.profid.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ExportExecutorConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportExecutorConfig.class);
+
+    /**
+     * Runs concurrent batch posts. On Java 21+ every post gets its own virtual thread; on Java 17 a fixed pool
+     * sized to the in-flight limit is used. Either way the number of posts in flight is bounded by the caller.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService exportExecutor(ExportProperties exportProperties, HttpClientProperties httpClientProperties) {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            LOGGER.info("Export executor uses virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(1, Math.min(exportProperties.getMaxInFlight(), httpClientProperties.getMaxRouteConnections()));
+            LOGGER.info("Virtual threads are not available, export executor uses {} platform threads", threads);
+            return Executors.newFixedThreadPool(threads, namedThreadFactory("export-"));
+        }
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,138 @@
+package com.profid.profid.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Settings for posting stored students to a target URL, bound from the {@code export.*} keys.
+ */
+@ConfigurationProperties(prefix = "export")
+public class ExportProperties {
+
+    // Students read from the database per keyset page; memory use scales with this, not with the table size
+    private int pageSize = 500;
+
+    // Maximum students sent per POST request
+    private int batchSize = 10;
+
+    // Target size of one POST body, estimated from field lengths; a single larger student is sent on its own
+    private long maxBatchBytes = 256 * 1024;
+
+    // Retries per batch after the first attempt, with exponential backoff and jitter
+    private int maxRetries = 3;
+
+    private long initialBackoff = 200;
+
+    private long maxBackoff = 5000;
+
+    // Status codes worth retrying; connection errors and timeouts are always retried
+    private List<Integer> retryableStatuses = List.of(408, 425, 429, 500, 502, 503, 504);
+
+    // How postStudentsUsingHttpClient sends its batches
+    private Mode httpClientMode = Mode.SEQUENTIAL;
+
+    // Concurrent batch posts; also capped by httpclient.maxRouteConnections since all posts share one route
+    private int maxInFlight = 8;
+
+    // Forces one batch at a time for receivers that depend on delivery order
+    private boolean preserveOrder = false;
+
+    // updatedAt is set at flush, not commit; a run only exports students changed this long before it started, so
+    // transactions still open at the start commit below the cutoff before anything beyond it is read. Must exceed
+    // the longest write transaction (a write-behind batch, a job chunk)
+    private long watermarkSafetyLag = 60000;
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    public void setMaxBatchBytes(long maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public void setInitialBackoff(long initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public List<Integer> getRetryableStatuses() {
+        return retryableStatuses;
+    }
+
+    public void setRetryableStatuses(List<Integer> retryableStatuses) {
+        this.retryableStatuses = retryableStatuses;
+    }
+
+    public Mode getHttpClientMode() {
+        return httpClientMode;
+    }
+
+    public void setHttpClientMode(Mode httpClientMode) {
+        this.httpClientMode = httpClientMode;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public boolean isPreserveOrder() {
+        return preserveOrder;
+    }
+
+    public void setPreserveOrder(boolean preserveOrder) {
+        this.preserveOrder = preserveOrder;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public enum Mode {
+        SEQUENTIAL,
+        CONCURRENT
+    }
+
+    public long getWatermarkSafetyLag() {
+        return watermarkSafetyLag;
+    }
+
+    public void setWatermarkSafetyLag(long watermarkSafetyLag) {
+        this.watermarkSafetyLag = watermarkSafetyLag;
+    }
+}
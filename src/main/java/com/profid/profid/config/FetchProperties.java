@@ -0,0 +1,130 @@
+package com.profid.profid.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for reading students from the upstream API, bound from the {@code fetch.*} keys.
+ */
+@ConfigurationProperties(prefix = "fetch")
+public class FetchProperties {
+
+    private String url = "https://example.org/students";
+
+    // Send If-None-Match/If-Modified-Since and skip the sync on 304 Not Modified; only used without pagination
+    private boolean conditionalRequests = true;
+
+    // NONE reads the whole feed in one request; the other styles read it page by page
+    private PaginationStyle paginationStyle = PaginationStyle.NONE;
+
+    // Students requested per page, sent as the limitParam query parameter
+    private int pageSize = 500;
+
+    private String limitParam = "limit";
+
+    private String offsetParam = "offset";
+
+    private String pageParam = "page";
+
+    // Number of the first page for PAGE pagination, usually 0 or 1
+    private int firstPage = 1;
+
+    // Pages fetched ahead while the current page is being persisted; bounds memory to (prefetchPages + 1) pages
+    private int prefetchPages = 2;
+
+    // Milliseconds a successful fetch result is handed to new fetch requests instead of fetching again; 0 disables
+    private long coalesceCooldown = 0;
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public boolean isConditionalRequests() {
+        return conditionalRequests;
+    }
+
+    public void setConditionalRequests(boolean conditionalRequests) {
+        this.conditionalRequests = conditionalRequests;
+    }
+
+    public PaginationStyle getPaginationStyle() {
+        return paginationStyle;
+    }
+
+    public void setPaginationStyle(PaginationStyle paginationStyle) {
+        this.paginationStyle = paginationStyle;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public String getLimitParam() {
+        return limitParam;
+    }
+
+    public void setLimitParam(String limitParam) {
+        this.limitParam = limitParam;
+    }
+
+    public String getOffsetParam() {
+        return offsetParam;
+    }
+
+    public void setOffsetParam(String offsetParam) {
+        this.offsetParam = offsetParam;
+    }
+
+    public String getPageParam() {
+        return pageParam;
+    }
+
+    public void setPageParam(String pageParam) {
+        this.pageParam = pageParam;
+    }
+
+    public int getFirstPage() {
+        return firstPage;
+    }
+
+    public void setFirstPage(int firstPage) {
+        this.firstPage = firstPage;
+    }
+
+    public int getPrefetchPages() {
+        return prefetchPages;
+    }
+
+    public void setPrefetchPages(int prefetchPages) {
+        this.prefetchPages = prefetchPages;
+    }
+
+    public boolean isPaged() {
+        return paginationStyle != PaginationStyle.NONE;
+    }
+
+    public enum PaginationStyle {
+        NONE,
+        // ?offset=0&limit=500, ?offset=500&limit=500, ... until a short page
+        OFFSET,
+        // ?page=1&limit=500, ?page=2&limit=500, ... until a short page
+        PAGE,
+        // Follows the rel="next" URL of the Link response header, as cursor-based APIs do, until there is none
+        NEXT_LINK
+    }
+
+    public long getCoalesceCooldown() {
+        return coalesceCooldown;
+    }
+
+    public void setCoalesceCooldown(long coalesceCooldown) {
+        this.coalesceCooldown = coalesceCooldown;
+    }
+}
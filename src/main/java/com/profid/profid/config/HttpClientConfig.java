@@ -0,0 +1,83 @@
+package com.profid.profid.config;
+
+import com.profid.profid.utils.HttpClientMetrics;
+import com.profid.profid.utils.v2.HttpClientMetricsHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HeaderElement;
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Iterator;
+
+@Configuration
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpClientConnectionManager(HttpClientProperties properties) {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectionTimeout()))
+                .setSocketTimeout(Timeout.ofMilliseconds(properties.getSocketTimeout()))
+                .setTimeToLive(TimeValue.ofSeconds(properties.getConnectionTimeToLive()))
+                .build();
+
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotalConnections())
+                .setMaxConnPerRoute(properties.getMaxRouteConnections())
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+    }
+
+    /**
+     * The pooled client used by {@code GenericHttpClient}. A background evictor closes expired connections
+     * and connections idle for longer than {@code httpclient.idleConnectionWaitTime}.
+     * Requests and the connection pool are reported to {@code meterRegistry}.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient pooledHttpClient(PoolingHttpClientConnectionManager httpClientConnectionManager,
+                                                HttpClientProperties properties, MeterRegistry meterRegistry) {
+        new PoolingHttpClientConnectionManagerMetricsBinder(httpClientConnectionManager, "httpclient").bindTo(meterRegistry);
+
+        RequestConfig defaultRequestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getRequestTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(properties.getSocketTimeout()))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(httpClientConnectionManager)
+                .addExecInterceptorFirst("metrics", new HttpClientMetricsHandler(new HttpClientMetrics(meterRegistry, "httpclient")))
+                .setDefaultRequestConfig(defaultRequestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(properties.getDefaultKeepAliveTime()))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(properties.getIdleConnectionWaitTime()))
+                .build();
+    }
+
+    // Honours the server's Keep-Alive timeout and falls back to the configured default
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(long defaultKeepAliveSeconds) {
+        return (response, context) -> {
+            Iterator<HeaderElement> elements = MessageSupport.iterate(response, "Keep-Alive");
+            while (elements.hasNext()) {
+                HeaderElement element = elements.next();
+                if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return TimeValue.ofSeconds(Long.parseLong(element.getValue()));
+                    } catch (NumberFormatException ignored) {
+                        // fall through to the default
+                    }
+                }
+            }
+            return TimeValue.ofSeconds(defaultKeepAliveSeconds);
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.profid.profid.config;
+
+import com.profid.profid.utils.WireFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Connection pool and timeout settings of the Apache client behind {@code GenericHttpClient},
+ * bound from {@code httpclient.*}. Timeouts are in milliseconds, keep-alive and TTL values in seconds.
+ */
+@ConfigurationProperties(prefix = "httpclient")
+public class HttpClientProperties {
+
+    private int connectionTimeout = 30000;
+
+    // Maximum time to wait for a connection lease from the pool
+    private int requestTimeout = 120000;
+
+    private int socketTimeout = 120000;
+
+    private int maxTotalConnections = 100;
+
+    private int maxRouteConnections = 10;
+
+    // Used when the server does not send a Keep-Alive timeout
+    private long defaultKeepAliveTime = 120;
+
+    // Connections idle for longer than this are closed by the background evictor
+    private long idleConnectionWaitTime = 120;
+
+    // Pooled connections are never reused after this age, regardless of keep-alive
+    private long connectionTimeToLive = 600;
+
+    // Hosts that accept gzip request bodies; a host answering 415 to a compressed body is dropped at runtime
+    private List<String> gzipRequestHosts = new ArrayList<>();
+
+    // Log the start of every POST body at DEBUG, capped at maxLoggedBodyBytes
+    private boolean logRequestBodies = false;
+
+    private int maxLoggedBodyBytes = 2048;
+
+    // Ask hosts for Smile or CBOR before JSON in Accept; responses are decoded by their Content-Type
+    private boolean negotiateBinaryFormats = true;
+
+    // Wire format (JSON, SMILE or CBOR) per host, for request bodies and asked for first in Accept
+    private Map<String, WireFormat> hostFormats = new HashMap<>();
+
+    public int getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(int connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(int requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public int getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    public void setSocketTimeout(int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+    }
+
+    public int getMaxTotalConnections() {
+        return maxTotalConnections;
+    }
+
+    public void setMaxTotalConnections(int maxTotalConnections) {
+        this.maxTotalConnections = maxTotalConnections;
+    }
+
+    public int getMaxRouteConnections() {
+        return maxRouteConnections;
+    }
+
+    public void setMaxRouteConnections(int maxRouteConnections) {
+        this.maxRouteConnections = maxRouteConnections;
+    }
+
+    public long getDefaultKeepAliveTime() {
+        return defaultKeepAliveTime;
+    }
+
+    public void setDefaultKeepAliveTime(long defaultKeepAliveTime) {
+        this.defaultKeepAliveTime = defaultKeepAliveTime;
+    }
+
+    public long getIdleConnectionWaitTime() {
+        return idleConnectionWaitTime;
+    }
+
+    public void setIdleConnectionWaitTime(long idleConnectionWaitTime) {
+        this.idleConnectionWaitTime = idleConnectionWaitTime;
+    }
+
+    public long getConnectionTimeToLive() {
+        return connectionTimeToLive;
+    }
+
+    public void setConnectionTimeToLive(long connectionTimeToLive) {
+        this.connectionTimeToLive = connectionTimeToLive;
+    }
+
+    public List<String> getGzipRequestHosts() {
+        return gzipRequestHosts;
+    }
+
+    public void setGzipRequestHosts(List<String> gzipRequestHosts) {
+        this.gzipRequestHosts = gzipRequestHosts;
+    }
+
+    public boolean isLogRequestBodies() {
+        return logRequestBodies;
+    }
+
+    public void setLogRequestBodies(boolean logRequestBodies) {
+        this.logRequestBodies = logRequestBodies;
+    }
+
+    public int getMaxLoggedBodyBytes() {
+        return maxLoggedBodyBytes;
+    }
+
+    public void setMaxLoggedBodyBytes(int maxLoggedBodyBytes) {
+        this.maxLoggedBodyBytes = maxLoggedBodyBytes;
+    }
+
+    public boolean isNegotiateBinaryFormats() {
+        return negotiateBinaryFormats;
+    }
+
+    public void setNegotiateBinaryFormats(boolean negotiateBinaryFormats) {
+        this.negotiateBinaryFormats = negotiateBinaryFormats;
+    }
+
+    public Map<String, WireFormat> getHostFormats() {
+        return hostFormats;
+    }
+
+    public void setHostFormats(Map<String, WireFormat> hostFormats) {
+        this.hostFormats = hostFormats;
+    }
+}
@@ -0,0 +1,92 @@
+package com.profid.profid.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for persisting fetched students, bound from the {@code ingest.*} keys.
+ */
+@ConfigurationProperties(prefix = "ingest")
+public class IngestProperties {
+
+    // Students persisted per transaction; the persistence context is flushed and cleared after each chunk
+    private int batchSize = 500;
+
+    // INSERT always creates new rows, UPSERT matches existing students by email
+    private Mode mode = Mode.UPSERT;
+
+    // Persist on writer threads behind a bounded queue, so fetching never waits for a commit unless the queue is full
+    private boolean writeBehind = true;
+
+    // Writer threads, each draining its own queue; students are routed by email, so updates of one student stay ordered
+    private int writerThreads = 1;
+
+    // Students queued per writer before producers block, counted in whole chunks of batchSize
+    private int queueCapacity = 5000;
+
+    // Milliseconds a partial batch waits for more students before it is committed
+    private long flushInterval = 200;
+
+    // Milliseconds the writers get on shutdown to commit what is still queued
+    private long shutdownTimeout = 30000;
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    public void setWriterThreads(int writerThreads) {
+        this.writerThreads = writerThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public long getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(long shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public enum Mode {
+        INSERT,
+        UPSERT
+    }
+}
@@ -0,0 +1,29 @@
+package com.profid.profid.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Spring's WebClient observation tags {@code http.client.requests} with the request URI. The sync URLs carry
+     * paging query strings, so every page would become its own time series; the target host stays in
+     * {@code client.name}, and {@code profid.http.client.requests} has the host per client stack.
+     */
+    @Bean
+    public MeterFilter clientUriTagFilter() {
+        return new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                if (!"http.client.requests".equals(id.getName()) || id.getTag("uri") == null) {
+                    return id;
+                }
+                return id.replaceTags(Tags.of(id.getTagsAsIterable()).and("uri", "none"));
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.profid.profid.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.time.Duration;
+
+/**
+ * R2DBC access for the reactive sync, next to the JPA datasource. Spring Boot's R2DBC auto-configuration is
+ * excluded in application.yml and the pool is deliberately not a bean: a {@code ConnectionFactory} bean makes the
+ * datasource auto-configuration back off, and an R2DBC transaction manager bean would replace the JPA one.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveDataConfig {
+
+    private final ConnectionPool connectionPool;
+
+    public ReactiveDataConfig(ReactiveProperties properties) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate()
+                .option(ConnectionFactoryOptions.USER, properties.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("profid-r2dbc")
+                .maxSize(properties.getMaxPoolSize())
+                .maxAcquireTime(Duration.ofMillis(properties.getMaxAcquireTime()))
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient r2dbcDatabaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    public TransactionalOperator r2dbcTransactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+    }
+
+    @PreDestroy
+    public void closeConnectionPool() {
+        connectionPool.dispose();
+    }
+}
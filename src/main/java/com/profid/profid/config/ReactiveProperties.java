@@ -0,0 +1,64 @@
+package com.profid.profid.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * R2DBC connection settings of the reactive sync, bound from the {@code reactive.*} keys. Only used when the
+ * {@code reactive} profile is active.
+ */
+@ConfigurationProperties(prefix = "reactive")
+public class ReactiveProperties {
+
+    // Must point at the database the JPA datasource uses, whose schema Hibernate maintains
+    private String url = "r2dbc:h2:mem:///testdb";
+
+    private String username;
+
+    private String password;
+
+    // Connections of the R2DBC pool; each chunk transaction holds one
+    private int maxPoolSize = 10;
+
+    // Milliseconds to wait for a pooled connection before the chunk fails
+    private long maxAcquireTime = 30000;
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public long getMaxAcquireTime() {
+        return maxAcquireTime;
+    }
+
+    public void setMaxAcquireTime(long maxAcquireTime) {
+        this.maxAcquireTime = maxAcquireTime;
+    }
+}
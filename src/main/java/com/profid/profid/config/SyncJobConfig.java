@@ -0,0 +1,26 @@
+package com.profid.profid.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class SyncJobConfig {
+
+    /**
+     * Bounded executor for sync jobs: {@code jobs.poolSize} workers and a queue of {@code jobs.queueCapacity};
+     * submissions beyond that are rejected instead of piling up.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor syncJobExecutor(SyncJobProperties properties) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(properties.getPoolSize(), properties.getPoolSize(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> new Thread(runnable, "sync-job-" + counter.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,43 @@
+package com.profid.profid.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the asynchronous sync job executor, bound from the {@code jobs.*} keys.
+ */
+@ConfigurationProperties(prefix = "jobs")
+public class SyncJobProperties {
+
+    // Jobs running at the same time
+    private int poolSize = 2;
+
+    // Jobs waiting for a free worker; further submissions are rejected
+    private int queueCapacity = 10;
+
+    // Finished jobs kept for polling before the oldest ones are dropped
+    private int maxRetainedJobs = 100;
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxRetainedJobs() {
+        return maxRetainedJobs;
+    }
+
+    public void setMaxRetainedJobs(int maxRetainedJobs) {
+        this.maxRetainedJobs = maxRetainedJobs;
+    }
+}
@@ -0,0 +1,64 @@
+package com.profid.profid.config;
+
+import com.profid.profid.utils.HttpClientMetrics;
+import com.profid.profid.utils.v1.WebClientMetricsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider webClientConnectionProvider(WebClientProperties properties) {
+        return ConnectionProvider.builder(properties.getPoolName())
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(properties.getPendingAcquireTimeout()))
+                .maxIdleTime(Duration.ofMillis(properties.getMaxIdleTime()))
+                .maxLifeTime(Duration.ofMillis(properties.getMaxLifeTime()))
+                .evictInBackground(Duration.ofMillis(properties.getEvictionInterval()))
+                .metrics(properties.isMetricsEnabled())
+                .build();
+    }
+
+    /**
+     * The single WebClient used by {@code GenericWebClient}; built once so every request shares the pool above.
+     * The pool reports its gauges through Reactor Netty ({@code webclient.metricsEnabled}), requests through
+     * {@link WebClientMetricsFilter}. Smile codecs are among the defaults once the Smile data format is on the
+     * classpath; the CBOR decoder has to be registered, with the same in-memory limit.
+     */
+    @Bean
+    public WebClient pooledWebClient(WebClient.Builder webClientBuilder, ConnectionProvider webClientConnectionProvider,
+                                     WebClientProperties properties, MeterRegistry meterRegistry) {
+        HttpClient httpClient = HttpClient.create(webClientConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectionTimeout())
+                .keepAlive(true)
+                .compress(properties.isCompress());
+
+        if (properties.isHttp2()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(new WebClientMetricsFilter(new HttpClientMetrics(meterRegistry, "webclient")))
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().maxInMemorySize(properties.getMaxInMemorySize());
+                    codecs.customCodecs().registerWithDefaultConfig(new Jackson2CborDecoder());
+                })
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
+}
@@ -0,0 +1,254 @@
+package com.profid.profid.config;
+
+import com.profid.profid.utils.WireFormat;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection pool and codec settings of the shared {@code GenericWebClient} instance, bound from {@code webclient.*}.
+ */
+@ConfigurationProperties(prefix = "webclient")
+public class WebClientProperties {
+
+    private String poolName = "profid-webclient";
+
+    private int maxConnections = 100;
+
+    // Requests allowed to wait for a connection once the pool is exhausted
+    private int pendingAcquireMaxCount = 500;
+
+    private long pendingAcquireTimeout = 45000;
+
+    private long connectionTimeout = 30000;
+
+    private long maxIdleTime = 30000;
+
+    private long maxLifeTime = 300000;
+
+    // How often idle and expired connections are evicted in the background
+    private long evictionInterval = 60000;
+
+    private boolean compress = true;
+
+    // Negotiates HTTP/2 (h2 over TLS, h2c upgrade otherwise) with HTTP/1.1 fallback
+    private boolean http2 = false;
+
+    private int maxInMemorySize = 16 * 1024 * 1024;
+
+    private boolean metricsEnabled = true;
+
+    // Sends a second GET when the first has not answered after the hedge delay; the first answer wins
+    private boolean hedgingEnabled = false;
+
+    // Hedge delay until hedgeMinSamples latencies of the host were observed, or always if hedgePercentile is 0
+    private long hedgeDelay = 1000;
+
+    private double hedgePercentile = 0.95;
+
+    private int hedgeMinSamples = 20;
+
+    // Hedges allowed per request, e.g. 0.1 = at most one hedge per ten requests
+    private double maxHedgeRatio = 0.1;
+
+    private boolean circuitBreakerEnabled = true;
+
+    // Consecutive failures (I/O errors, timeouts, 5xx) of a host that open its circuit
+    private int circuitFailureThreshold = 5;
+
+    private long circuitOpenDuration = 30000;
+
+    // Trial requests let through once the open duration has passed; all must succeed to close the circuit
+    private int circuitHalfOpenRequests = 3;
+
+    // Ask hosts for Smile or CBOR before JSON in Accept; responses are decoded by their Content-Type
+    private boolean negotiateBinaryFormats = true;
+
+    // Wire format (JSON, SMILE or CBOR) per host, for request bodies and asked for first in Accept
+    private Map<String, WireFormat> hostFormats = new HashMap<>();
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public void setPoolName(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getPendingAcquireMaxCount() {
+        return pendingAcquireMaxCount;
+    }
+
+    public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+    }
+
+    public long getPendingAcquireTimeout() {
+        return pendingAcquireTimeout;
+    }
+
+    public void setPendingAcquireTimeout(long pendingAcquireTimeout) {
+        this.pendingAcquireTimeout = pendingAcquireTimeout;
+    }
+
+    public long getConnectionTimeout() {
+        return connectionTimeout;
+    }
+
+    public void setConnectionTimeout(long connectionTimeout) {
+        this.connectionTimeout = connectionTimeout;
+    }
+
+    public long getMaxIdleTime() {
+        return maxIdleTime;
+    }
+
+    public void setMaxIdleTime(long maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+    }
+
+    public long getMaxLifeTime() {
+        return maxLifeTime;
+    }
+
+    public void setMaxLifeTime(long maxLifeTime) {
+        this.maxLifeTime = maxLifeTime;
+    }
+
+    public long getEvictionInterval() {
+        return evictionInterval;
+    }
+
+    public void setEvictionInterval(long evictionInterval) {
+        this.evictionInterval = evictionInterval;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+
+    public int getMaxInMemorySize() {
+        return maxInMemorySize;
+    }
+
+    public void setMaxInMemorySize(int maxInMemorySize) {
+        this.maxInMemorySize = maxInMemorySize;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public void setHedgeDelay(long hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    public void setHedgePercentile(double hedgePercentile) {
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    public int getHedgeMinSamples() {
+        return hedgeMinSamples;
+    }
+
+    public void setHedgeMinSamples(int hedgeMinSamples) {
+        this.hedgeMinSamples = hedgeMinSamples;
+    }
+
+    public double getMaxHedgeRatio() {
+        return maxHedgeRatio;
+    }
+
+    public void setMaxHedgeRatio(double maxHedgeRatio) {
+        this.maxHedgeRatio = maxHedgeRatio;
+    }
+
+    public boolean isCircuitBreakerEnabled() {
+        return circuitBreakerEnabled;
+    }
+
+    public void setCircuitBreakerEnabled(boolean circuitBreakerEnabled) {
+        this.circuitBreakerEnabled = circuitBreakerEnabled;
+    }
+
+    public int getCircuitFailureThreshold() {
+        return circuitFailureThreshold;
+    }
+
+    public void setCircuitFailureThreshold(int circuitFailureThreshold) {
+        this.circuitFailureThreshold = circuitFailureThreshold;
+    }
+
+    public long getCircuitOpenDuration() {
+        return circuitOpenDuration;
+    }
+
+    public void setCircuitOpenDuration(long circuitOpenDuration) {
+        this.circuitOpenDuration = circuitOpenDuration;
+    }
+
+    public int getCircuitHalfOpenRequests() {
+        return circuitHalfOpenRequests;
+    }
+
+    public void setCircuitHalfOpenRequests(int circuitHalfOpenRequests) {
+        this.circuitHalfOpenRequests = circuitHalfOpenRequests;
+    }
+
+    public boolean isNegotiateBinaryFormats() {
+        return negotiateBinaryFormats;
+    }
+
+    public void setNegotiateBinaryFormats(boolean negotiateBinaryFormats) {
+        this.negotiateBinaryFormats = negotiateBinaryFormats;
+    }
+
+    public Map<String, WireFormat> getHostFormats() {
+        return hostFormats;
+    }
+
+    public void setHostFormats(Map<String, WireFormat> hostFormats) {
+        this.hostFormats = hostFormats;
+    }
+}
@@ -0,0 +1,50 @@
+package com.profid.profid.controller;
+
+import com.profid.profid.dto.response.HttpCacheStatsResponseDTO;
+import com.profid.profid.dto.response.PoolStatsResponseDTO;
+import com.profid.profid.service.HttpCacheService;
+import com.profid.profid.utils.v2.GenericHttpClient;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/clients")
+@Tag(name = "HTTP Clients", description = "Runtime statistics of the outbound HTTP clients")
+public class HttpClientStatsController {
+
+    private final GenericHttpClient genericHttpClient;
+    private final HttpCacheService httpCacheService;
+
+    public HttpClientStatsController(GenericHttpClient genericHttpClient, HttpCacheService httpCacheService) {
+        this.genericHttpClient = genericHttpClient;
+        this.httpCacheService = httpCacheService;
+    }
+
+    @Operation(
+            summary = "HttpClient connection pool statistics",
+            description = "Returns leased, available and pending connections for the whole pool (\"total\") and for each route."
+    )
+    @GetMapping("/httpclient/pool")
+    public ResponseEntity<Map<String, PoolStatsResponseDTO>> getHttpClientPoolStats() {
+        Map<String, PoolStatsResponseDTO> stats = new LinkedHashMap<>();
+        stats.put("total", PoolStatsResponseDTO.from(genericHttpClient.getTotalPoolStats()));
+        genericHttpClient.getRoutePoolStats().forEach((route, routeStats) -> stats.put(route, PoolStatsResponseDTO.from(routeStats)));
+        return ResponseEntity.ok(stats);
+    }
+
+    @Operation(
+            summary = "Conditional GET cache statistics",
+            description = "Returns 304 Not Modified hits, full downloads (misses) and the number of URLs with stored validators."
+    )
+    @GetMapping("/cache")
+    public ResponseEntity<HttpCacheStatsResponseDTO> getHttpCacheStats() {
+        return ResponseEntity.ok(httpCacheService.getStats());
+    }
+}
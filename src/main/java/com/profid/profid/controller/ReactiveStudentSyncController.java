@@ -0,0 +1,45 @@
+package com.profid.profid.controller;
+
+import com.profid.profid.dto.ExportResponse;
+import com.profid.profid.dto.GeneralResponse;
+import com.profid.profid.service.ReactiveStudentSyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/reactive/students")
+@Tag(name = "Reactive Student Synchronization", description = "Non-blocking sync endpoints backed by WebClient and R2DBC")
+public class ReactiveStudentSyncController {
+
+    private final ReactiveStudentSyncService reactiveStudentSyncService;
+
+    public ReactiveStudentSyncController(ReactiveStudentSyncService reactiveStudentSyncService) {
+        this.reactiveStudentSyncService = reactiveStudentSyncService;
+    }
+
+    @Operation(
+            summary = "Fetch and save students reactively",
+            description = "Streams student data from the external API and upserts it chunk by chunk through R2DBC. No request thread waits while the sync runs."
+    )
+    @GetMapping("/fetch")
+    public Mono<ResponseEntity<GeneralResponse>> fetchAndSave() {
+        return reactiveStudentSyncService.fetchAndSave().map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "Post all student data reactively",
+            description = "Reads students page by page through R2DBC and posts them to a specified URL in concurrent batches, reporting delivered, retried and failed batches."
+    )
+    @PostMapping("/post")
+    public Mono<ResponseEntity<ExportResponse>> postStudents(
+            @Parameter(description = "The URL where student data will be posted", required = true)
+            @RequestParam String postUrl) {
+        return reactiveStudentSyncService.postStudents(postUrl).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,97 @@
+package com.profid.profid.controller;
+
+import com.profid.profid.dto.ImportResponse;
+import com.profid.profid.dto.response.StudentPageResponseDTO;
+import com.profid.profid.service.ImportFormat;
+import com.profid.profid.service.StudentImportService;
+import com.profid.profid.service.StudentQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/students")
+@Tag(name = "Students", description = "Read access to the stored students, bulk imports and exports")
+public class StudentController {
+
+    private final StudentQueryService studentQueryService;
+    private final StudentImportService studentImportService;
+
+    public StudentController(StudentQueryService studentQueryService, StudentImportService studentImportService) {
+        this.studentQueryService = studentQueryService;
+        this.studentImportService = studentImportService;
+    }
+
+    @Operation(
+            summary = "List students",
+            description = "Returns students ordered by id, one keyset page at a time: pass the returned next_after_id as after_id to read the next page. Filters by exact email or by name prefix."
+    )
+    @GetMapping
+    public ResponseEntity<StudentPageResponseDTO> findStudents(
+            @Parameter(description = "Only students with a greater id; 0 starts from the first one")
+            @RequestParam(name = "after_id", defaultValue = "0") Long afterId,
+            @Parameter(description = "Page size, at most 1000")
+            @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Only students whose name starts with this prefix (case-sensitive)")
+            @RequestParam(required = false) String name,
+            @Parameter(description = "Only the student with exactly this email")
+            @RequestParam(required = false) String email,
+            @Parameter(description = "Include each student's subjects, loaded with one query per page")
+            @RequestParam(name = "include_subjects", defaultValue = "false") boolean includeSubjects) {
+        return ResponseEntity.ok(studentQueryService.findStudents(afterId, limit, name, email, includeSubjects));
+    }
+
+    @Operation(
+            summary = "Export all students as NDJSON",
+            description = "Streams every student with their subjects, one JSON object per line, ordered by id, straight from a database cursor. With gzip=true the stream is gzip-encoded."
+    )
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public void exportStudents(
+            @Parameter(description = "Gzip-encode the stream (Content-Encoding: gzip)")
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+        // Written on the request thread, not as a StreamingResponseBody, so spring.mvc.async.request-timeout cannot
+        // cut a long export short. A failure after the first bytes propagates to the container, which then closes the
+        // connection instead of ending the stream as if it were complete
+        response.setContentType("application/x-ndjson");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            // syncFlush, so every chunk flushed by the service also leaves the compressor
+            GZIPOutputStream gzipOutput = new GZIPOutputStream(response.getOutputStream(), 8192, true);
+            studentQueryService.writeNdjson(gzipOutput);
+            // Only a complete export gets the gzip trailer
+            gzipOutput.close();
+        } else {
+            studentQueryService.writeNdjson(response.getOutputStream());
+        }
+    }
+
+    @Operation(
+            summary = "Import students from a file",
+            description = "Streams a CSV (header with name, email, age, gender, phone_number, address, subjects as name|credits|description;...) or NDJSON upload into the database in ingest.batchSize chunks. Invalid lines are skipped and reported by line number."
+    )
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportResponse> importStudents(
+            @Parameter(description = "The CSV or NDJSON file", required = true)
+            @RequestParam MultipartFile file,
+            @Parameter(description = "File format; detected from the file extension or content type when omitted")
+            @RequestParam(required = false) ImportFormat format) throws IOException {
+        ImportFormat resolved = format != null ? format : ImportFormat.detect(file.getOriginalFilename(), file.getContentType());
+        if (resolved == null) {
+            throw new IllegalArgumentException("Cannot tell the format of " + file.getOriginalFilename() + ", pass format=CSV or NDJSON");
+        }
+        try (InputStream input = file.getInputStream()) {
+            return ResponseEntity.ok(studentImportService.importStudents(input, resolved));
+        }
+    }
+}
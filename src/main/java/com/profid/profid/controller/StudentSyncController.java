@@ -1,7 +1,9 @@
 package com.profid.profid.controller;
 
+import com.profid.profid.dto.ExportResponse;
 import com.profid.profid.dto.GeneralResponse;
 import com.profid.profid.service.StudentSyncService;
+import com.profid.profid.service.SyncProgress;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api/students")
@@ -23,17 +26,16 @@ public class StudentSyncController {
 
     @Operation(
             summary = "Fetch and save students using WebClient",
-            description = "Fetches student data from an external API using WebClient and saves it into the database."
+            description = "Fetches student data from an external API using WebClient and saves it into the database. A request arriving while a fetch of the same feed runs waits for and returns that fetch's result."
     )
     @GetMapping("/fetch/webclient")
-    public ResponseEntity<GeneralResponse> fetchAndSaveUsingWebClient() {
-        GeneralResponse response = studentSyncService.fetchAndSaveUsingWebClient();
-        return ResponseEntity.ok(response);
+    public Mono<ResponseEntity<GeneralResponse>> fetchAndSaveUsingWebClient() {
+        return studentSyncService.fetchAndSaveUsingWebClientAsync().map(ResponseEntity::ok);
     }
 
     @Operation(
             summary = "Fetch and save students using HttpClient",
-            description = "Fetches student data from an external API using HttpClient and saves it into the database."
+            description = "Fetches student data from an external API using HttpClient and saves it into the database. A request arriving while a fetch of the same feed runs waits for and returns that fetch's result."
     )
     @GetMapping("/fetch/httpclient")
     public ResponseEntity<GeneralResponse> fetchAndSaveUsingHttpClient() {
@@ -43,25 +45,29 @@ public class StudentSyncController {
 
     @Operation(
             summary = "Post student data using WebClient",
-            description = "Posts student data from the database to a specified URL using WebClient."
+            description = "Posts students changed since the last acknowledged export (or all of them with fullResend) to a specified URL using WebClient and reports delivered, retried and failed batches."
     )
     @PostMapping("/post/webclient")
-    public ResponseEntity<GeneralResponse> postStudentsUsingWebClient(
+    public ResponseEntity<ExportResponse> postStudentsUsingWebClient(
             @Parameter(description = "The URL where student data will be posted", required = true)
-            @RequestParam String postUrl) {
-        GeneralResponse response = studentSyncService.postStudentsUsingWebClient(postUrl);
+            @RequestParam String postUrl,
+            @Parameter(description = "Post every student instead of only those changed since the last acknowledged export")
+            @RequestParam(defaultValue = "false") boolean fullResend) {
+        ExportResponse response = studentSyncService.postStudentsUsingWebClient(postUrl, fullResend, new SyncProgress());
         return ResponseEntity.ok(response);
     }
 
     @Operation(
             summary = "Post student data using HttpClient",
-            description = "Posts student data from the database to a specified URL using HttpClient."
+            description = "Posts students changed since the last acknowledged export (or all of them with fullResend) to a specified URL using HttpClient and reports delivered, retried and failed batches."
     )
     @PostMapping("/post/httpclient")
-    public ResponseEntity<GeneralResponse> postStudentsUsingHttpClient(
+    public ResponseEntity<ExportResponse> postStudentsUsingHttpClient(
             @Parameter(description = "The URL where student data will be posted", required = true)
-            @RequestParam String postUrl) {
-        GeneralResponse response = studentSyncService.postStudentsUsingHttpClient(postUrl);
+            @RequestParam String postUrl,
+            @Parameter(description = "Post every student instead of only those changed since the last acknowledged export")
+            @RequestParam(defaultValue = "false") boolean fullResend) {
+        ExportResponse response = studentSyncService.postStudentsUsingHttpClient(postUrl, fullResend, new SyncProgress());
         return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
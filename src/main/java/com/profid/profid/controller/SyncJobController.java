@@ -0,0 +1,55 @@
+package com.profid.profid.controller;
+
+import com.profid.profid.dto.response.SyncJobResponseDTO;
+import com.profid.profid.service.SyncJobService;
+import com.profid.profid.service.SyncJobType;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/students/jobs")
+@Tag(name = "Student Sync Jobs", description = "Asynchronous fetch and post runs with progress polling")
+public class SyncJobController {
+
+    private final SyncJobService syncJobService;
+
+    public SyncJobController(SyncJobService syncJobService) {
+        this.syncJobService = syncJobService;
+    }
+
+    @Operation(
+            summary = "Start a sync job",
+            description = "Queues a fetch or post run and returns its job id immediately. Poll the job for progress."
+    )
+    @PostMapping
+    public ResponseEntity<SyncJobResponseDTO> submit(
+            @Parameter(description = "Which sync to run", required = true)
+            @RequestParam SyncJobType type,
+            @Parameter(description = "The URL where student data will be posted, required for POST_* jobs")
+            @RequestParam(required = false) String postUrl,
+            @Parameter(description = "For POST_* jobs, post every student instead of only those changed since the last export")
+            @RequestParam(defaultValue = "false") boolean fullResend) {
+        return ResponseEntity.accepted().body(SyncJobResponseDTO.from(syncJobService.submit(type, postUrl, fullResend)));
+    }
+
+    @Operation(
+            summary = "Get a sync job",
+            description = "Returns status, records fetched, persisted and posted, throughput and errors of a job."
+    )
+    @GetMapping("/{id}")
+    public ResponseEntity<SyncJobResponseDTO> get(@PathVariable String id) {
+        return ResponseEntity.of(syncJobService.findById(id).map(SyncJobResponseDTO::from));
+    }
+
+    @Operation(
+            summary = "Cancel a sync job",
+            description = "Cancels a queued job, or stops a running one after its current chunk or batch."
+    )
+    @DeleteMapping("/{id}")
+    public ResponseEntity<SyncJobResponseDTO> cancel(@PathVariable String id) {
+        return ResponseEntity.of(syncJobService.cancel(id).map(SyncJobResponseDTO::from));
+    }
+}
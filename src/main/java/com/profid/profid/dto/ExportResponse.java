@@ -0,0 +1,164 @@
+package com.profid.profid.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Result of posting students to a target URL: overall status plus per-batch delivery counts.
+ * Status is SUCCESS when every batch was delivered, PARTIAL when some failed and FAILURE when none were delivered.
+ */
+public class ExportResponse extends GeneralResponse {
+
+    @JsonProperty("batches_succeeded")
+    private long batchesSucceeded;
+
+    @JsonProperty("batches_retried")
+    private long batchesRetried;
+
+    @JsonProperty("batches_failed")
+    private long batchesFailed;
+
+    @JsonProperty("records_succeeded")
+    private long recordsSucceeded;
+
+    @JsonProperty("records_failed")
+    private long recordsFailed;
+
+    @JsonProperty("duration_ms")
+    private long durationMillis;
+
+    @JsonProperty("records_per_second")
+    private double recordsPerSecond;
+
+    @JsonProperty("failed_batches")
+    private List<FailedBatch> failedBatches = List.of();
+
+    public ExportResponse() {
+    }
+
+    public ExportResponse(String message, String status) {
+        super(message, status);
+    }
+
+    public long getBatchesSucceeded() {
+        return batchesSucceeded;
+    }
+
+    public void setBatchesSucceeded(long batchesSucceeded) {
+        this.batchesSucceeded = batchesSucceeded;
+    }
+
+    public long getBatchesRetried() {
+        return batchesRetried;
+    }
+
+    public void setBatchesRetried(long batchesRetried) {
+        this.batchesRetried = batchesRetried;
+    }
+
+    public long getBatchesFailed() {
+        return batchesFailed;
+    }
+
+    public void setBatchesFailed(long batchesFailed) {
+        this.batchesFailed = batchesFailed;
+    }
+
+    public long getRecordsSucceeded() {
+        return recordsSucceeded;
+    }
+
+    public void setRecordsSucceeded(long recordsSucceeded) {
+        this.recordsSucceeded = recordsSucceeded;
+    }
+
+    public long getRecordsFailed() {
+        return recordsFailed;
+    }
+
+    public void setRecordsFailed(long recordsFailed) {
+        this.recordsFailed = recordsFailed;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+
+    public void setRecordsPerSecond(double recordsPerSecond) {
+        this.recordsPerSecond = recordsPerSecond;
+    }
+
+    public List<FailedBatch> getFailedBatches() {
+        return failedBatches;
+    }
+
+    public void setFailedBatches(List<FailedBatch> failedBatches) {
+        this.failedBatches = failedBatches;
+    }
+
+    public static class FailedBatch {
+
+        @JsonProperty("first_id")
+        private Long firstId;
+
+        @JsonProperty("last_id")
+        private Long lastId;
+
+        @JsonProperty("size")
+        private int size;
+
+        @JsonProperty("error")
+        private String error;
+
+        public FailedBatch() {
+        }
+
+        public FailedBatch(Long firstId, Long lastId, int size, String error) {
+            this.firstId = firstId;
+            this.lastId = lastId;
+            this.size = size;
+            this.error = error;
+        }
+
+        public Long getFirstId() {
+            return firstId;
+        }
+
+        public void setFirstId(Long firstId) {
+            this.firstId = firstId;
+        }
+
+        public Long getLastId() {
+            return lastId;
+        }
+
+        public void setLastId(Long lastId) {
+            this.lastId = lastId;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
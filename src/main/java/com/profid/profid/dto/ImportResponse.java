@@ -0,0 +1,119 @@
+package com.profid.profid.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Result of a bulk import: how many records were read, stored and rejected, and why each rejected line was.
+ * Status is SUCCESS when every record was stored, PARTIAL when some were rejected and FAILURE when none were stored.
+ */
+public class ImportResponse extends GeneralResponse {
+
+    @JsonProperty("records_read")
+    private long recordsRead;
+
+    @JsonProperty("records_imported")
+    private long recordsImported;
+
+    @JsonProperty("records_rejected")
+    private long recordsRejected;
+
+    @JsonProperty("duration_ms")
+    private long durationMillis;
+
+    @JsonProperty("records_per_second")
+    private double recordsPerSecond;
+
+    // Capped; records_rejected has the full count
+    @JsonProperty("rejected_lines")
+    private List<RejectedLine> rejectedLines = List.of();
+
+    public ImportResponse() {
+    }
+
+    public ImportResponse(String message, String status) {
+        super(message, status);
+    }
+
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    public void setRecordsRead(long recordsRead) {
+        this.recordsRead = recordsRead;
+    }
+
+    public long getRecordsImported() {
+        return recordsImported;
+    }
+
+    public void setRecordsImported(long recordsImported) {
+        this.recordsImported = recordsImported;
+    }
+
+    public long getRecordsRejected() {
+        return recordsRejected;
+    }
+
+    public void setRecordsRejected(long recordsRejected) {
+        this.recordsRejected = recordsRejected;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+
+    public void setRecordsPerSecond(double recordsPerSecond) {
+        this.recordsPerSecond = recordsPerSecond;
+    }
+
+    public List<RejectedLine> getRejectedLines() {
+        return rejectedLines;
+    }
+
+    public void setRejectedLines(List<RejectedLine> rejectedLines) {
+        this.rejectedLines = rejectedLines;
+    }
+
+    public static class RejectedLine {
+
+        @JsonProperty("line")
+        private long line;
+
+        @JsonProperty("error")
+        private String error;
+
+        public RejectedLine() {
+        }
+
+        public RejectedLine(long line, String error) {
+            this.line = line;
+            this.error = error;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public void setLine(long line) {
+            this.line = line;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.profid.profid.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class HttpCacheStatsResponseDTO {
+
+    @JsonProperty("hits")
+    private long hits;
+
+    @JsonProperty("misses")
+    private long misses;
+
+    @JsonProperty("entries")
+    private int entries;
+
+    public HttpCacheStatsResponseDTO() {
+    }
+
+    public HttpCacheStatsResponseDTO(long hits, long misses, int entries) {
+        this.hits = hits;
+        this.misses = misses;
+        this.entries = entries;
+    }
+
+    @JsonProperty("hit_ratio")
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public void setEntries(int entries) {
+        this.entries = entries;
+    }
+}
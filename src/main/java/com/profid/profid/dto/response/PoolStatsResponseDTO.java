@@ -0,0 +1,65 @@
+package com.profid.profid.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.apache.hc.core5.pool.PoolStats;
+
+public class PoolStatsResponseDTO {
+
+    @JsonProperty("leased")
+    private int leased;
+
+    @JsonProperty("available")
+    private int available;
+
+    @JsonProperty("pending")
+    private int pending;
+
+    @JsonProperty("max")
+    private int max;
+
+    public PoolStatsResponseDTO() {
+    }
+
+    public PoolStatsResponseDTO(int leased, int available, int pending, int max) {
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.max = max;
+    }
+
+    public static PoolStatsResponseDTO from(PoolStats stats) {
+        return new PoolStatsResponseDTO(stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+
+    public int getLeased() {
+        return leased;
+    }
+
+    public void setLeased(int leased) {
+        this.leased = leased;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(int available) {
+        this.available = available;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public void setMax(int max) {
+        this.max = max;
+    }
+}
@@ -0,0 +1,40 @@
+package com.profid.profid.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.profid.profid.repository.projection.StudentView;
+
+import java.util.List;
+
+public class StudentPageResponseDTO {
+
+    @JsonProperty("students")
+    private List<StudentView> students;
+
+    // Pass as after_id to read the next page; null on the last page
+    @JsonProperty("next_after_id")
+    private Long nextAfterId;
+
+    public StudentPageResponseDTO() {
+    }
+
+    public StudentPageResponseDTO(List<StudentView> students, Long nextAfterId) {
+        this.students = students;
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<StudentView> getStudents() {
+        return students;
+    }
+
+    public void setStudents(List<StudentView> students) {
+        this.students = students;
+    }
+
+    public Long getNextAfterId() {
+        return nextAfterId;
+    }
+
+    public void setNextAfterId(Long nextAfterId) {
+        this.nextAfterId = nextAfterId;
+    }
+}
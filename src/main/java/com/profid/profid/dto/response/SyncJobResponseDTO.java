@@ -0,0 +1,141 @@
+package com.profid.profid.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.profid.profid.dto.GeneralResponse;
+import com.profid.profid.service.SyncJob;
+import com.profid.profid.service.SyncProgress;
+
+import java.time.Instant;
+import java.util.List;
+
+public class SyncJobResponseDTO {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("type")
+    private String type;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("created_at")
+    private Instant createdAt;
+
+    @JsonProperty("started_at")
+    private Instant startedAt;
+
+    @JsonProperty("finished_at")
+    private Instant finishedAt;
+
+    @JsonProperty("records_fetched")
+    private long recordsFetched;
+
+    @JsonProperty("records_persisted")
+    private long recordsPersisted;
+
+    @JsonProperty("records_posted")
+    private long recordsPosted;
+
+    @JsonProperty("records_per_second")
+    private double recordsPerSecond;
+
+    @JsonProperty("network_millis")
+    private long networkMillis;
+
+    @JsonProperty("parse_millis")
+    private long parseMillis;
+
+    @JsonProperty("persist_millis")
+    private long persistMillis;
+
+    @JsonProperty("errors")
+    private List<String> errors;
+
+    @JsonProperty("result")
+    private GeneralResponse result;
+
+    public SyncJobResponseDTO() {
+    }
+
+    public static SyncJobResponseDTO from(SyncJob job) {
+        SyncProgress progress = job.getProgress();
+        SyncJobResponseDTO dto = new SyncJobResponseDTO();
+        dto.id = job.getId();
+        dto.type = job.getType().name();
+        dto.status = job.getStatus().name();
+        dto.createdAt = job.getCreatedAt();
+        dto.startedAt = job.getStartedAt();
+        dto.finishedAt = job.getFinishedAt();
+        dto.recordsFetched = progress.getRecordsFetched();
+        dto.recordsPersisted = progress.getRecordsPersisted();
+        dto.recordsPosted = progress.getRecordsPosted();
+        dto.recordsPerSecond = dto.startedAt != null ? progress.getRecordsPerSecond() : 0;
+        dto.networkMillis = progress.getNetworkMillis();
+        dto.parseMillis = progress.getParseMillis();
+        dto.persistMillis = progress.getPersistMillis();
+        dto.errors = progress.getErrors();
+        dto.result = job.getResult();
+        return dto;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getRecordsFetched() {
+        return recordsFetched;
+    }
+
+    public long getRecordsPersisted() {
+        return recordsPersisted;
+    }
+
+    public long getRecordsPosted() {
+        return recordsPosted;
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+
+    public long getNetworkMillis() {
+        return networkMillis;
+    }
+
+    public long getParseMillis() {
+        return parseMillis;
+    }
+
+    public long getPersistMillis() {
+        return persistMillis;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public GeneralResponse getResult() {
+        return result;
+    }
+}
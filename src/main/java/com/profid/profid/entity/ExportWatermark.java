@@ -0,0 +1,69 @@
+package com.profid.profid.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Position of the last acknowledged student per export target: every student at or before
+ * (updatedAt, studentId) in export order has been delivered to {@code targetUrl}.
+ */
+@Entity
+@Table(name = "export_watermarks")
+public class ExportWatermark {
+
+    @Id
+    @Column(length = 2048)
+    private String targetUrl;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private Instant acknowledgedAt;
+
+    public ExportWatermark() {
+    }
+
+    public ExportWatermark(String targetUrl, Instant updatedAt, Long studentId, Instant acknowledgedAt) {
+        this.targetUrl = targetUrl;
+        this.updatedAt = updatedAt;
+        this.studentId = studentId;
+        this.acknowledgedAt = acknowledgedAt;
+    }
+
+    public String getTargetUrl() {
+        return targetUrl;
+    }
+
+    public void setTargetUrl(String targetUrl) {
+        this.targetUrl = targetUrl;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Instant getAcknowledgedAt() {
+        return acknowledgedAt;
+    }
+
+    public void setAcknowledgedAt(Instant acknowledgedAt) {
+        this.acknowledgedAt = acknowledgedAt;
+    }
+}
@@ -0,0 +1,69 @@
+package com.profid.profid.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Validators of the last upstream response that was fully persisted, per URL, so conditional requests
+ * survive restarts.
+ */
+@Entity
+@Table(name = "http_cache_entries")
+public class HttpCacheEntry {
+
+    @Id
+    @Column(length = 2048)
+    private String url;
+
+    @Column(length = 512)
+    private String etag;
+
+    @Column(length = 64)
+    private String lastModified;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    public HttpCacheEntry() {
+    }
+
+    public HttpCacheEntry(String url, String etag, String lastModified, Instant updatedAt) {
+        this.url = url;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,18 +1,24 @@
 package com.profid.profid.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
-import java.util.List;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Entity
 @Table(name = "students", indexes = {
         @Index(name = "idx_student_name", columnList = "name"),
-        @Index(name = "idx_student_email", columnList = "email", unique = true)
+        @Index(name = "idx_student_email", columnList = "email", unique = true),
+        @Index(name = "idx_student_updated_at", columnList = "updatedAt, id")
 })
 public class Student {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "student_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -30,13 +36,32 @@ public class Student {
 
     private String address;
 
-    @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<Subject> subjects;
+    // SHA-256 of the synced content, used to skip rows that did not change since the previous sync
+    @Column(length = 64)
+    private String contentHash;
+
+    // Set on every insert and update, at flush rather than commit time; the delta export walks students in
+    // (updatedAt, id) order from a watermark, holding back the last export.watermarkSafetyLag for late commits
+    @JsonIgnore
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    @JsonIgnore
+    @Version
+    private Long version;
+
+    // Links into the shared subject catalog; a Set so changes are written as single link row inserts and deletes
+    @ManyToMany
+    @JoinTable(name = "student_subjects",
+            joinColumns = @JoinColumn(name = "student_id"),
+            inverseJoinColumns = @JoinColumn(name = "subject_id"),
+            indexes = @Index(name = "idx_student_subjects_subject", columnList = "subject_id"))
+    private Set<Subject> subjects = new LinkedHashSet<>();
 
     public Student() {
     }
 
-    public Student(Long id, String name, String email, Integer age, String gender, String phoneNumber, String address, List<Subject> subjects) {
+    public Student(Long id, String name, String email, Integer age, String gender, String phoneNumber, String address, Set<Subject> subjects) {
         this.id = id;
         this.name = name;
         this.email = email;
@@ -47,7 +72,7 @@ public class Student {
         this.subjects = subjects;
     }
 
-    public Student(String name, String mail, int age, String gender, String number, String address, List<Subject> subjects) {
+    public Student(String name, String mail, int age, String gender, String number, String address, Set<Subject> subjects) {
         this.name = name;
         this.email = mail;
         this.age = age;
@@ -113,11 +138,42 @@ public class Student {
         this.address = address;
     }
 
-    public List<Subject> getSubjects() {
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    // Microseconds match the TIMESTAMP precision of the column, so a stored watermark compares equal to the row
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public Set<Subject> getSubjects() {
         return subjects;
     }
 
-    public void setSubjects(List<Subject> subjects) {
+    public void setSubjects(Set<Subject> subjects) {
         this.subjects = subjects;
     }
 }
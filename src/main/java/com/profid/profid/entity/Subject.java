@@ -1,18 +1,27 @@
 package com.profid.profid.entity;
 
 import jakarta.persistence.*;
-import lombok.Data;
 
+/**
+ * One entry of the subject catalog. Entries are shared by every student taking the subject and never change:
+ * different credits or description make a different entry, identified by its catalog key.
+ */
 @Entity
-@Table(name = "subjects", indexes = {
-        @Index(name = "idx_subject_name", columnList = "name")
+@Table(name = "subject_catalog", indexes = {
+        @Index(name = "idx_subject_catalog_key", columnList = "catalogKey", unique = true),
+        @Index(name = "idx_subject_catalog_name", columnList = "name")
 })
 public class Subject {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subject_catalog_seq")
+    @SequenceGenerator(name = "subject_catalog_seq", sequenceName = "subject_catalog_seq", allocationSize = 50)
     private Long id;
 
+    // SHA-256 of name, credits and description, see StudentMapper.subjectKey
+    @Column(nullable = false, unique = true, length = 64)
+    private String catalogKey;
+
     @Column(nullable = false)
     private String name;
 
@@ -21,10 +30,6 @@ public class Subject {
 
     private String description;
 
-    @ManyToOne
-    @JoinColumn(name = "student_id", nullable = false)
-    private Student student;
-
     public Long getId() {
         return id;
     }
@@ -33,6 +38,14 @@ public class Subject {
         this.id = id;
     }
 
+    public String getCatalogKey() {
+        return catalogKey;
+    }
+
+    public void setCatalogKey(String catalogKey) {
+        this.catalogKey = catalogKey;
+    }
+
     public String getName() {
         return name;
     }
@@ -56,12 +69,4 @@ public class Subject {
     public void setDescription(String description) {
         this.description = description;
     }
-
-    public Student getStudent() {
-        return student;
-    }
-
-    public void setStudent(Student student) {
-        this.student = student;
-    }
 }
@@ -0,0 +1,18 @@
+package com.profid.profid.exception;
+
+/**
+ * Thrown by {@code GenericWebClient} instead of sending a request while the circuit of the target host is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final String host;
+
+    public CircuitOpenException(String host) {
+        super("Circuit breaker is open for host " + host);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
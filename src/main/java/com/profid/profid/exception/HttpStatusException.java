@@ -0,0 +1,20 @@
+package com.profid.profid.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown by {@code GenericHttpClient} when the remote server answers with a non-2xx status code.
+ */
+public class HttpStatusException extends IOException {
+
+    private final int statusCode;
+
+    public HttpStatusException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
@@ -0,0 +1,93 @@
+package com.profid.profid.mapper;
+
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.dto.response.SubjectResponseDTO;
+import com.profid.profid.entity.Student;
+import com.profid.profid.entity.Subject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Maps fetched student DTOs to entities and subject catalog entries.
+ */
+public final class StudentMapper {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private StudentMapper() {
+    }
+
+    public static Student toEntity(StudentResponseDTO studentDTO) {
+        Student student = new Student();
+        student.setName(studentDTO.getName());
+        student.setEmail(studentDTO.getEmail());
+        student.setAge(studentDTO.getAge());
+        student.setGender(studentDTO.getGender());
+        student.setPhoneNumber(studentDTO.getPhoneNumber());
+        student.setAddress(studentDTO.getAddress());
+        student.setContentHash(contentHash(studentDTO));
+        // Subjects are links into the catalog, attached by the caller once their catalog ids are resolved
+        return student;
+    }
+
+    public static Subject toCatalogEntry(SubjectResponseDTO subjectDTO) {
+        Subject subject = new Subject();
+        subject.setCatalogKey(subjectKey(subjectDTO.getName(), subjectDTO.getCredits(), subjectDTO.getDescription()));
+        subject.setName(subjectDTO.getName());
+        subject.setCredits(subjectDTO.getCredits());
+        subject.setDescription(subjectDTO.getDescription());
+        return subject;
+    }
+
+    public static List<SubjectResponseDTO> subjectsOf(StudentResponseDTO studentDTO) {
+        return studentDTO.getSubjects() != null ? studentDTO.getSubjects() : List.of();
+    }
+
+    // SHA-256 over every synced field, used by the upsert path to skip students that did not change
+    public static String contentHash(StudentResponseDTO studentDTO) {
+        MessageDigest digest = sha256();
+        update(digest, studentDTO.getName());
+        update(digest, studentDTO.getEmail());
+        update(digest, studentDTO.getAge());
+        update(digest, studentDTO.getGender());
+        update(digest, studentDTO.getPhoneNumber());
+        update(digest, studentDTO.getAddress());
+        for (SubjectResponseDTO subjectDTO : subjectsOf(studentDTO)) {
+            update(digest, subjectDTO.getName());
+            update(digest, subjectDTO.getCredits());
+            update(digest, subjectDTO.getDescription());
+        }
+        return HEX.formatHex(digest.digest());
+    }
+
+    // Stored identity of a subject catalog entry: students taking the same name, credits and description share one entry
+    public static String subjectKey(String name, Integer credits, String description) {
+        MessageDigest digest = sha256();
+        update(digest, name);
+        update(digest, credits);
+        update(digest, description);
+        return HEX.formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Object value) {
+        // Field separator and null marker keep ("ab", "c") and ("a", "bc") from hashing the same
+        if (value != null) {
+            digest.update(value.toString().getBytes(StandardCharsets.UTF_8));
+        } else {
+            digest.update((byte) 0);
+        }
+        digest.update((byte) 0x1f);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
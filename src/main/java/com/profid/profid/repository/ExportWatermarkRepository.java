@@ -0,0 +1,22 @@
+package com.profid.profid.repository;
+
+import com.profid.profid.entity.ExportWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface ExportWatermarkRepository extends JpaRepository<ExportWatermark, String> {
+
+    // Compare and set in one statement, so concurrent exports never move the watermark back in (updatedAt, studentId) order
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ExportWatermark w set w.updatedAt = :updatedAt, w.studentId = :studentId, w.acknowledgedAt = :acknowledgedAt " +
+            "where w.targetUrl = :targetUrl " +
+            "and (w.updatedAt < :updatedAt or (w.updatedAt = :updatedAt and w.studentId < :studentId))")
+    int advanceIfLater(@Param("targetUrl") String targetUrl, @Param("updatedAt") Instant updatedAt,
+                       @Param("studentId") Long studentId, @Param("acknowledgedAt") Instant acknowledgedAt);
+}
@@ -0,0 +1,9 @@
+package com.profid.profid.repository;
+
+import com.profid.profid.entity.HttpCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface HttpCacheEntryRepository extends JpaRepository<HttpCacheEntry, String> {
+}
@@ -0,0 +1,380 @@
+package com.profid.profid.repository;
+
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.dto.response.SubjectResponseDTO;
+import com.profid.profid.mapper.StudentMapper;
+import com.profid.profid.repository.projection.StudentExportRow;
+import com.profid.profid.repository.projection.SubjectExportRow;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * R2DBC counterpart of the JPA upsert and export reads, for the reactive sync. Works on the tables Hibernate
+ * maintains, so both implementations can run against the same database: ids are taken from the same pooled
+ * sequences, in the same blocks of {@link #ID_BLOCK_SIZE}, and updates bump the optimistic lock version.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveStudentRepository {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveStudentRepository.class);
+
+    // allocationSize of student_seq and subject_catalog_seq; with the pooled-lo optimizer (application-local.yml)
+    // a sequence value v owns the ids v..v+49, the initial value included
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_STUDENT = "insert into students (id, name, email, age, gender, phone_number, "
+            + "address, content_hash, updated_at, version) values ($1, $2, $3, $4, $5, $6, $7, $8, $9, 0)";
+    private static final String UPDATE_STUDENT = "update students set name = $1, age = $2, gender = $3, "
+            + "phone_number = $4, address = $5, content_hash = $6, updated_at = $7, version = version + 1 where id = $8";
+    private static final String INSERT_LINK = "insert into student_subjects (student_id, subject_id) values ($1, $2)";
+    private static final String DELETE_LINK = "delete from student_subjects where student_id = $1 and subject_id = $2";
+    private static final String INSERT_SUBJECT = "insert into subject_catalog (id, catalog_key, name, credits, description) "
+            + "values ($1, $2, $3, $4, $5)";
+
+    // Column types of the statements above, for binding nulls
+    private static final Class<?>[] STUDENT_TYPES = {Long.class, String.class, String.class, Integer.class,
+            String.class, String.class, String.class, String.class, OffsetDateTime.class};
+    private static final Class<?>[] UPDATE_TYPES = {String.class, Integer.class, String.class, String.class,
+            String.class, String.class, OffsetDateTime.class, Long.class};
+    private static final Class<?>[] LINK_TYPES = {Long.class, Long.class};
+    private static final Class<?>[] SUBJECT_TYPES = {Long.class, String.class, String.class, Integer.class, String.class};
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    // Catalog ids by catalog key, filled as subjects show up; entries are never deleted. The H2 driver binds every
+    // String as a CLOB, so a catalog_key IN lookup scans the table rather than the unique index
+    private final Map<String, Long> catalogIds = new ConcurrentHashMap<>();
+
+    public ReactiveStudentRepository(DatabaseClient r2dbcDatabaseClient, TransactionalOperator r2dbcTransactionalOperator) {
+        this.databaseClient = r2dbcDatabaseClient;
+        this.transactionalOperator = r2dbcTransactionalOperator;
+    }
+
+    /**
+     * Upserts one chunk keyed on email, like the JPA path: new students are inserted, changed ones (by content
+     * hash) updated with their subject links diffed, unchanged ones skipped. Catalog entries are committed
+     * first in their own transaction, the students of the chunk in one transaction with batched statements.
+     */
+    public Mono<Integer> saveChunk(List<StudentResponseDTO> students) {
+        // Last occurrence wins when the same email appears twice in one chunk
+        Map<String, StudentResponseDTO> byEmail = new LinkedHashMap<>();
+        for (StudentResponseDTO studentDTO : students) {
+            if (studentDTO.getEmail() == null) {
+                LOGGER.warn("Skipping student without email: {}", studentDTO.getName());
+                continue;
+            }
+            byEmail.put(studentDTO.getEmail(), studentDTO);
+        }
+        if (byEmail.isEmpty()) {
+            return Mono.just(students.size());
+        }
+
+        return resolveSubjects(byEmail.values())
+                .flatMap(subjectIds -> upsert(byEmail, subjectIds).as(transactionalOperator::transactional))
+                .thenReturn(students.size());
+    }
+
+    private Mono<Void> upsert(Map<String, StudentResponseDTO> byEmail, Map<String, Long> subjectIds) {
+        return databaseClient.sql("select id, email, content_hash from students where email in (:emails)")
+                .bind("emails", byEmail.keySet())
+                .map(row -> new Fingerprint(row.get("id", Long.class), row.get("email", String.class),
+                        row.get("content_hash", String.class)))
+                .all()
+                .collectMap(Fingerprint::email)
+                .flatMap(existing -> {
+                    OffsetDateTime now = Instant.now().truncatedTo(ChronoUnit.MICROS).atOffset(ZoneOffset.UTC);
+                    List<StudentResponseDTO> inserted = new ArrayList<>();
+                    List<String> insertedHashes = new ArrayList<>();
+                    Map<Long, StudentResponseDTO> changed = new LinkedHashMap<>();
+                    Map<Long, String> changedHashes = new HashMap<>();
+                    for (StudentResponseDTO studentDTO : byEmail.values()) {
+                        String hash = StudentMapper.contentHash(studentDTO);
+                        Fingerprint fingerprint = existing.get(studentDTO.getEmail());
+                        if (fingerprint == null) {
+                            inserted.add(studentDTO);
+                            insertedHashes.add(hash);
+                        } else if (!hash.equals(fingerprint.contentHash())) {
+                            changed.put(fingerprint.id(), studentDTO);
+                            changedHashes.put(fingerprint.id(), hash);
+                        }
+                    }
+                    LOGGER.debug("Upserting chunk: {} inserted, {} updated, {} unchanged", inserted.size(),
+                            changed.size(), byEmail.size() - inserted.size() - changed.size());
+
+                    return insertStudents(inserted, insertedHashes, now, subjectIds)
+                            .then(updateStudents(changed, changedHashes, now, subjectIds));
+                });
+    }
+
+    private Mono<Void> insertStudents(List<StudentResponseDTO> students, List<String> hashes, OffsetDateTime now,
+                                      Map<String, Long> subjectIds) {
+        if (students.isEmpty()) {
+            return Mono.empty();
+        }
+        return allocateIds("student_seq", students.size()).flatMap(ids -> {
+            List<Object[]> rows = new ArrayList<>();
+            Map<Long, StudentResponseDTO> byId = new LinkedHashMap<>();
+            for (int i = 0; i < students.size(); i++) {
+                StudentResponseDTO studentDTO = students.get(i);
+                rows.add(new Object[]{ids.get(i), studentDTO.getName(), studentDTO.getEmail(), studentDTO.getAge(),
+                        studentDTO.getGender(), studentDTO.getPhoneNumber(), studentDTO.getAddress(), hashes.get(i), now});
+                byId.put(ids.get(i), studentDTO);
+            }
+            return executeBatch(INSERT_STUDENT, STUDENT_TYPES, rows)
+                    .then(insertLinks(byId, subjectIds));
+        });
+    }
+
+    private Mono<Void> updateStudents(Map<Long, StudentResponseDTO> changed, Map<Long, String> hashes, OffsetDateTime now,
+                                      Map<String, Long> subjectIds) {
+        if (changed.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Object[]> rows = new ArrayList<>();
+        changed.forEach((id, studentDTO) -> rows.add(new Object[]{studentDTO.getName(), studentDTO.getAge(),
+                studentDTO.getGender(), studentDTO.getPhoneNumber(), studentDTO.getAddress(), hashes.get(id), now, id}));
+        return executeBatch(UPDATE_STUDENT, UPDATE_TYPES, rows)
+                .then(relinkSubjects(changed, subjectIds));
+    }
+
+    // Diffs the links by catalog id, like the JPA path, so untouched links are neither deleted nor reinserted
+    private Mono<Void> relinkSubjects(Map<Long, StudentResponseDTO> students, Map<String, Long> subjectIds) {
+        return databaseClient.sql("select student_id, subject_id from student_subjects where student_id in (:ids)")
+                .bind("ids", students.keySet())
+                .map(row -> new Link(row.get("student_id", Long.class), row.get("subject_id", Long.class)))
+                .all()
+                .collect(Collectors.toSet())
+                .flatMap(existing -> {
+                    Set<Link> wanted = linksOf(students, subjectIds);
+                    List<Object[]> deleted = new ArrayList<>();
+                    for (Link link : existing) {
+                        if (!wanted.contains(link)) {
+                            deleted.add(link.toRow());
+                        }
+                    }
+                    List<Object[]> inserted = new ArrayList<>();
+                    for (Link link : wanted) {
+                        if (!existing.contains(link)) {
+                            inserted.add(link.toRow());
+                        }
+                    }
+                    return executeBatch(DELETE_LINK, LINK_TYPES, deleted)
+                            .then(executeBatch(INSERT_LINK, LINK_TYPES, inserted));
+                });
+    }
+
+    private Mono<Void> insertLinks(Map<Long, StudentResponseDTO> students, Map<String, Long> subjectIds) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Link link : linksOf(students, subjectIds)) {
+            rows.add(link.toRow());
+        }
+        return executeBatch(INSERT_LINK, LINK_TYPES, rows);
+    }
+
+    private static Set<Link> linksOf(Map<Long, StudentResponseDTO> students, Map<String, Long> subjectIds) {
+        Set<Link> links = new LinkedHashSet<>();
+        students.forEach((id, studentDTO) -> {
+            for (SubjectResponseDTO subjectDTO : StudentMapper.subjectsOf(studentDTO)) {
+                links.add(new Link(id, subjectIds.get(catalogKeyOf(subjectDTO))));
+            }
+        });
+        return links;
+    }
+
+    /**
+     * Looks the subjects of the chunk up by catalog key and inserts the missing ones in their own transaction.
+     * When another writer inserted one of them first, the unique catalog key rejects the insert and the lookup
+     * is repeated.
+     */
+    private Mono<Map<String, Long>> resolveSubjects(Collection<StudentResponseDTO> students) {
+        Map<String, SubjectResponseDTO> byKey = new LinkedHashMap<>();
+        for (StudentResponseDTO studentDTO : students) {
+            for (SubjectResponseDTO subjectDTO : StudentMapper.subjectsOf(studentDTO)) {
+                byKey.putIfAbsent(catalogKeyOf(subjectDTO), subjectDTO);
+            }
+        }
+        if (byKey.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        Map<String, Long> resolved = new HashMap<>();
+        Map<String, SubjectResponseDTO> unknown = new LinkedHashMap<>();
+        byKey.forEach((key, subjectDTO) -> {
+            Long id = catalogIds.get(key);
+            if (id != null) {
+                resolved.put(key, id);
+            } else {
+                unknown.put(key, subjectDTO);
+            }
+        });
+        if (unknown.isEmpty()) {
+            return Mono.just(resolved);
+        }
+
+        return findSubjectIds(unknown.keySet()).flatMap(found -> {
+            List<SubjectResponseDTO> missing = new ArrayList<>();
+            unknown.forEach((key, subjectDTO) -> {
+                if (!found.containsKey(key)) {
+                    missing.add(subjectDTO);
+                }
+            });
+            if (missing.isEmpty()) {
+                return Mono.just(found);
+            }
+            return insertSubjects(missing)
+                    .as(transactionalOperator::transactional)
+                    .then(findSubjectIds(unknown.keySet()))
+                    .onErrorResume(DataIntegrityViolationException.class, e -> {
+                        LOGGER.debug("Subjects were added to the catalog concurrently, reading them back");
+                        return findSubjectIds(unknown.keySet());
+                    });
+        }).map(found -> {
+            catalogIds.putAll(found);
+            resolved.putAll(found);
+            return resolved;
+        });
+    }
+
+    private Mono<Map<String, Long>> findSubjectIds(Collection<String> catalogKeys) {
+        return databaseClient.sql("select id, catalog_key from subject_catalog where catalog_key in (:keys)")
+                .bind("keys", catalogKeys)
+                .map(row -> Map.entry(row.get("catalog_key", String.class), row.get("id", Long.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    private Mono<Void> insertSubjects(List<SubjectResponseDTO> subjects) {
+        return allocateIds("subject_catalog_seq", subjects.size()).flatMap(ids -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < subjects.size(); i++) {
+                SubjectResponseDTO subjectDTO = subjects.get(i);
+                rows.add(new Object[]{ids.get(i), catalogKeyOf(subjectDTO), subjectDTO.getName(), subjectDTO.getCredits(),
+                        subjectDTO.getDescription()});
+            }
+            LOGGER.debug("Adding {} subjects to the catalog", subjects.size());
+            return executeBatch(INSERT_SUBJECT, SUBJECT_TYPES, rows);
+        });
+    }
+
+    /**
+     * Next keyset page of export rows after {@code afterId}, with their subjects attached from one more query.
+     */
+    public Mono<List<StudentExportRow>> findPageAfter(long afterId, int pageSize) {
+        return databaseClient.sql("select id, name, email, age, gender, phone_number, address, updated_at from students "
+                        + "where id > :afterId order by id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", pageSize)
+                .map(row -> new StudentExportRow(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("email", String.class), row.get("age", Integer.class), row.get("gender", String.class),
+                        row.get("phone_number", String.class), row.get("address", String.class), instantOf(row)))
+                .all()
+                .collectList()
+                .flatMap(this::withSubjects);
+    }
+
+    private Mono<List<StudentExportRow>> withSubjects(List<StudentExportRow> students) {
+        if (students.isEmpty()) {
+            return Mono.just(students);
+        }
+        Map<Long, StudentExportRow> byId = new HashMap<>();
+        for (StudentExportRow student : students) {
+            byId.put(student.id(), student);
+        }
+        return databaseClient.sql("select l.student_id, c.id, c.name, c.credits, c.description from student_subjects l "
+                        + "join subject_catalog c on c.id = l.subject_id where l.student_id in (:ids) order by c.id")
+                .bind("ids", byId.keySet())
+                .map(row -> new SubjectExportRow(row.get("student_id", Long.class), row.get("id", Long.class),
+                        row.get("name", String.class), row.get("credits", Integer.class),
+                        row.get("description", String.class)))
+                .all()
+                .doOnNext(subject -> byId.get(subject.studentId()).subjects().add(subject))
+                .then(Mono.just(students));
+    }
+
+    /**
+     * Takes one sequence value per block of {@link #ID_BLOCK_SIZE} ids, as Hibernate's pooled-lo optimizer does, so
+     * ids never collide with the ones the JPA path hands out. The unused rest of the last block is skipped.
+     */
+    private Mono<List<Long>> allocateIds(String sequence, int count) {
+        return Mono.defer(() -> {
+            List<Long> ids = new ArrayList<>(count);
+            return databaseClient.sql("select next value for " + sequence)
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .doOnNext(value -> {
+                        for (long id = value; id < value + ID_BLOCK_SIZE && ids.size() < count; id++) {
+                            ids.add(id);
+                        }
+                    })
+                    .repeat(() -> ids.size() < count)
+                    .then(Mono.fromSupplier(() -> ids));
+        });
+    }
+
+    /**
+     * One statement executed for all rows as a batch of bindings. Nulls are bound with the column type, which
+     * the driver needs to pick the SQL type.
+     */
+    private Mono<Void> executeBatch(String sql, Class<?>[] types, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(sql);
+                    for (int i = 0; i < rows.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        Object[] row = rows.get(i);
+                        for (int column = 0; column < row.length; column++) {
+                            if (row[column] != null) {
+                                statement.bind(column, row[column]);
+                            } else {
+                                statement.bindNull(column, types[column]);
+                            }
+                        }
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .then();
+    }
+
+    private static String catalogKeyOf(SubjectResponseDTO subjectDTO) {
+        return StudentMapper.subjectKey(subjectDTO.getName(), subjectDTO.getCredits(), subjectDTO.getDescription());
+    }
+
+    private static Instant instantOf(Readable row) {
+        OffsetDateTime updatedAt = row.get("updated_at", OffsetDateTime.class);
+        return updatedAt != null ? updatedAt.toInstant() : null;
+    }
+
+    private record Fingerprint(Long id, String email, String contentHash) {
+    }
+
+    private record Link(Long studentId, Long subjectId) {
+
+        Object[] toRow() {
+            return new Object[]{studentId, subjectId};
+        }
+    }
+}
@@ -1,8 +1,64 @@
 package com.profid.profid.repository;
 
 import com.profid.profid.entity.Student;
+import com.profid.profid.repository.projection.StudentExportRow;
+import com.profid.profid.repository.projection.StudentFingerprint;
+import com.profid.profid.repository.projection.StudentView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Long> {}
+public interface StudentRepository extends JpaRepository<Student, Long> {
+
+    @Query("select s.id as id, s.email as email, s.contentHash as contentHash from Student s where s.email in :emails")
+    List<StudentFingerprint> findFingerprintsByEmailIn(@Param("emails") Collection<String> emails);
+
+    @Query("select distinct s from Student s left join fetch s.subjects where s.id in :ids order by s.id")
+    List<Student> findAllWithSubjectsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.profid.profid.repository.projection.StudentExportRow(s.id, s.name, s.email, s.age, s.gender, " +
+            "s.phoneNumber, s.address, s.updatedAt) from Student s where s.id > :afterId order by s.id")
+    List<StudentExportRow> findExportRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("select new com.profid.profid.repository.projection.StudentExportRow(s.id, s.name, s.email, s.age, s.gender, " +
+            "s.phoneNumber, s.address, s.updatedAt) from Student s " +
+            "where (s.updatedAt > :updatedAt or (s.updatedAt = :updatedAt and s.id > :afterId)) and s.updatedAt <= :cutoff " +
+            "order by s.updatedAt, s.id")
+    List<StudentExportRow> findExportRowsChangedAfter(@Param("updatedAt") Instant updatedAt, @Param("afterId") Long afterId,
+                                                      @Param("cutoff") Instant cutoff, Limit limit);
+
+    // Read API queries: keyset pages by id, optionally narrowed by idx_student_name or idx_student_email
+
+    @Query("select new com.profid.profid.repository.projection.StudentView(s.id, s.name, s.email, s.age, s.gender, " +
+            "s.phoneNumber, s.address, s.updatedAt) from Student s where s.id > :afterId order by s.id")
+    List<StudentView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // namePattern is an escaped prefix followed by %, so the predicate stays an index range scan
+    @Query("select new com.profid.profid.repository.projection.StudentView(s.id, s.name, s.email, s.age, s.gender, " +
+            "s.phoneNumber, s.address, s.updatedAt) from Student s " +
+            "where s.name like :namePattern escape '\\' and s.id > :afterId order by s.id")
+    List<StudentView> findViewsByNameLikeAfter(@Param("namePattern") String namePattern, @Param("afterId") Long afterId,
+                                               Limit limit);
+
+    @Query("select new com.profid.profid.repository.projection.StudentView(s.id, s.name, s.email, s.age, s.gender, " +
+            "s.phoneNumber, s.address, s.updatedAt) from Student s where s.email = :email")
+    Optional<StudentView> findViewByEmail(@Param("email") String email);
+
+    // Server-side cursor for the streaming export; the caller must consume and close it inside a transaction
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.profid.profid.repository.projection.StudentView(s.id, s.name, s.email, s.age, s.gender, " +
+            "s.phoneNumber, s.address, s.updatedAt) from Student s order by s.id")
+    Stream<StudentView> streamAllViews();
+}
@@ -1,8 +1,27 @@
 package com.profid.profid.repository;
 
 import com.profid.profid.entity.Subject;
+import com.profid.profid.repository.projection.SubjectCatalogIdentity;
+import com.profid.profid.repository.projection.SubjectExportRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface SubjectRepository extends JpaRepository<Subject, Long> {}
+public interface SubjectRepository extends JpaRepository<Subject, Long> {
+
+    @Query("select s.id as id, s.name as name, s.credits as credits, s.description as description from Subject s")
+    List<SubjectCatalogIdentity> findAllCatalogIdentities();
+
+    @Query("select s.id as id, s.name as name, s.credits as credits, s.description as description from Subject s " +
+            "where s.catalogKey in :catalogKeys")
+    List<SubjectCatalogIdentity> findCatalogIdentitiesByCatalogKeyIn(@Param("catalogKeys") Collection<String> catalogKeys);
+
+    @Query("select new com.profid.profid.repository.projection.SubjectExportRow(s.id, sub.id, sub.name, sub.credits, " +
+            "sub.description) from Student s join s.subjects sub where s.id in :studentIds order by sub.id")
+    List<SubjectExportRow> findExportRowsByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+}
@@ -0,0 +1,30 @@
+package com.profid.profid.repository.projection;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only export shape of a student, filled by a JPQL constructor expression and serialized as is.
+ * Keeps the field names the export targets already receive.
+ */
+public record StudentExportRow(
+        Long id,
+        String name,
+        String email,
+        Integer age,
+        String gender,
+        String phoneNumber,
+        String address,
+        // Only needed to resume a delta export from its watermark
+        @JsonIgnore Instant updatedAt,
+        List<SubjectExportRow> subjects) {
+
+    // Used by the query; subjects are attached afterwards from a second set-based query
+    public StudentExportRow(Long id, String name, String email, Integer age, String gender, String phoneNumber,
+                            String address, Instant updatedAt) {
+        this(id, name, email, age, gender, phoneNumber, address, updatedAt, new ArrayList<>());
+    }
+}
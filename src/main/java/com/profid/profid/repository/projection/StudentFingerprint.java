@@ -0,0 +1,10 @@
+package com.profid.profid.repository.projection;
+
+public interface StudentFingerprint {
+
+    Long getId();
+
+    String getEmail();
+
+    String getContentHash();
+}
@@ -0,0 +1,33 @@
+package com.profid.profid.repository.projection;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Read-only API shape of a student, filled by a JPQL constructor expression. {@code subjects} stays null (and is
+ * left out of the JSON) unless they were requested and attached from a second set-based query.
+ */
+public record StudentView(
+        @JsonProperty("id") Long id,
+        @JsonProperty("name") String name,
+        @JsonProperty("email") String email,
+        @JsonProperty("age") Integer age,
+        @JsonProperty("gender") String gender,
+        @JsonProperty("phone_number") String phoneNumber,
+        @JsonProperty("address") String address,
+        @JsonProperty("updated_at") Instant updatedAt,
+        @JsonProperty("subjects") @JsonInclude(JsonInclude.Include.NON_NULL) List<SubjectExportRow> subjects) {
+
+    // Used by the queries
+    public StudentView(Long id, String name, String email, Integer age, String gender, String phoneNumber,
+                       String address, Instant updatedAt) {
+        this(id, name, email, age, gender, phoneNumber, address, updatedAt, null);
+    }
+
+    public StudentView withSubjects(List<SubjectExportRow> subjects) {
+        return new StudentView(id, name, email, age, gender, phoneNumber, address, updatedAt, subjects);
+    }
+}
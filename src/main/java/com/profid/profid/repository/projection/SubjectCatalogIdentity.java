@@ -0,0 +1,12 @@
+package com.profid.profid.repository.projection;
+
+public interface SubjectCatalogIdentity {
+
+    Long getId();
+
+    String getName();
+
+    Integer getCredits();
+
+    String getDescription();
+}
@@ -0,0 +1,14 @@
+package com.profid.profid.repository.projection;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Read-only export shape of a subject, grouped under its student by {@code studentId}.
+ */
+public record SubjectExportRow(
+        @JsonIgnore Long studentId,
+        Long id,
+        String name,
+        Integer credits,
+        String description) {
+}
@@ -0,0 +1,62 @@
+package com.profid.profid.service;
+
+import com.profid.profid.repository.projection.StudentExportRow;
+import com.profid.profid.repository.projection.SubjectExportRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a page of students into POST batches bounded by record count and by estimated JSON size.
+ */
+final class ExportBatcher {
+
+    // Field names, quotes and separators of one serialized student / subject
+    private static final int STUDENT_OVERHEAD_BYTES = 120;
+    private static final int SUBJECT_OVERHEAD_BYTES = 60;
+
+    private ExportBatcher() {
+    }
+
+    static List<List<StudentExportRow>> partition(List<StudentExportRow> students, int maxRecords, long maxBytes) {
+        List<List<StudentExportRow>> batches = new ArrayList<>();
+        List<StudentExportRow> batch = new ArrayList<>();
+        long batchBytes = 0;
+
+        for (StudentExportRow student : students) {
+            long size = estimateJsonBytes(student);
+            if (!batch.isEmpty() && (batch.size() >= maxRecords || batchBytes + size > maxBytes)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(student);
+            batchBytes += size;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    // A cheap upper-bound estimate from field lengths, so batches are sized without serializing twice
+    static long estimateJsonBytes(StudentExportRow student) {
+        long size = STUDENT_OVERHEAD_BYTES
+                + length(student.name())
+                + length(student.email())
+                + length(student.gender())
+                + length(student.phoneNumber())
+                + length(student.address());
+
+        if (student.subjects() != null) {
+            for (SubjectExportRow subject : student.subjects()) {
+                size += SUBJECT_OVERHEAD_BYTES + length(subject.name()) + length(subject.description());
+            }
+        }
+        return size;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,107 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.ExportResponse;
+import com.profid.profid.repository.projection.StudentExportRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects per-batch delivery outcomes of one export run. Safe to update from concurrent batch posts.
+ */
+class ExportTracker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportTracker.class);
+
+    // Keep the response bounded even when a whole export fails
+    private static final int MAX_REPORTED_FAILURES = 100;
+
+    private final String clientName;
+    private final SyncProgress progress;
+    // Resumed from a watermark, where finding nothing to send means the target is up to date
+    private final boolean incremental;
+    private final SyncMetrics syncMetrics;
+    private final long startedNanos = System.nanoTime();
+
+    private final AtomicLong batchesSucceeded = new AtomicLong();
+    private final AtomicLong batchesRetried = new AtomicLong();
+    private final AtomicLong batchesFailed = new AtomicLong();
+    private final AtomicLong recordsSucceeded = new AtomicLong();
+    private final AtomicLong recordsFailed = new AtomicLong();
+    private final List<ExportResponse.FailedBatch> failedBatches = new ArrayList<>();
+
+    ExportTracker(String clientName, SyncProgress progress, boolean incremental, SyncMetrics syncMetrics) {
+        this.clientName = clientName;
+        this.progress = progress;
+        this.incremental = incremental;
+        this.syncMetrics = syncMetrics;
+    }
+
+    void succeeded(List<StudentExportRow> batch, int retries) {
+        batchesSucceeded.incrementAndGet();
+        recordsSucceeded.addAndGet(batch.size());
+        progress.addPosted(batch.size());
+        if (retries > 0) {
+            batchesRetried.incrementAndGet();
+        }
+    }
+
+    void failed(List<StudentExportRow> batch, int retries, Throwable error) {
+        batchesFailed.incrementAndGet();
+        recordsFailed.addAndGet(batch.size());
+        if (retries > 0) {
+            batchesRetried.incrementAndGet();
+        }
+        progress.addError("Batch " + batch.get(0).id() + ".." + batch.get(batch.size() - 1).id()
+                + " failed: " + error.getMessage());
+        synchronized (failedBatches) {
+            if (failedBatches.size() < MAX_REPORTED_FAILURES) {
+                failedBatches.add(new ExportResponse.FailedBatch(batch.get(0).id(), batch.get(batch.size() - 1).id(),
+                        batch.size(), error.getMessage()));
+            }
+        }
+    }
+
+    long batches() {
+        return batchesSucceeded.get() + batchesFailed.get();
+    }
+
+    ExportResponse toResponse() {
+        ExportResponse response;
+        if (batches() == 0 && incremental) {
+            response = new ExportResponse("No students changed since the last export", "SUCCESS");
+        } else if (batches() == 0) {
+            response = new ExportResponse("No students found in the database", "FAILURE");
+        } else if (batchesFailed.get() == 0) {
+            response = new ExportResponse("Data successfully posted using " + clientName, "SUCCESS");
+        } else if (batchesSucceeded.get() > 0) {
+            response = new ExportResponse("Data partially posted using " + clientName + ": "
+                    + batchesFailed.get() + " of " + batches() + " batches failed", "PARTIAL");
+        } else {
+            response = new ExportResponse("Error posting data using " + clientName + ": all "
+                    + batchesFailed.get() + " batches failed", "FAILURE");
+        }
+
+        response.setBatchesSucceeded(batchesSucceeded.get());
+        response.setBatchesRetried(batchesRetried.get());
+        response.setBatchesFailed(batchesFailed.get());
+        response.setRecordsSucceeded(recordsSucceeded.get());
+        response.setRecordsFailed(recordsFailed.get());
+        synchronized (failedBatches) {
+            response.setFailedBatches(List.copyOf(failedBatches));
+        }
+
+        long elapsedNanos = Math.max(System.nanoTime() - startedNanos, 1);
+        response.setDurationMillis(elapsedNanos / 1_000_000);
+        response.setRecordsPerSecond(recordsSucceeded.get() * 1_000_000_000d / elapsedNanos);
+
+        syncMetrics.recordRun("post", clientName, response.getStatus(), recordsSucceeded.get());
+        LOGGER.info("Posted {} students in {} batches using {} in {} ms ({} records/sec), {} batches failed",
+                recordsSucceeded.get(), batches(), clientName, response.getDurationMillis(),
+                String.format("%.1f", response.getRecordsPerSecond()), batchesFailed.get());
+        return response;
+    }
+}
@@ -0,0 +1,13 @@
+package com.profid.profid.service;
+
+import com.profid.profid.entity.ExportWatermark;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface ExportWatermarkService {
+    Optional<ExportWatermark> findByTargetUrl(String targetUrl);
+
+    // Record that every student up to (updatedAt, studentId) in export order was acknowledged by the target
+    void advance(String targetUrl, Instant updatedAt, Long studentId);
+}
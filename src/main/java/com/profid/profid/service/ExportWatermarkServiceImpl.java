@@ -0,0 +1,46 @@
+package com.profid.profid.service;
+
+import com.profid.profid.entity.ExportWatermark;
+import com.profid.profid.repository.ExportWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Service
+public class ExportWatermarkServiceImpl implements ExportWatermarkService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExportWatermarkServiceImpl.class);
+
+    private final ExportWatermarkRepository exportWatermarkRepository;
+
+    public ExportWatermarkServiceImpl(ExportWatermarkRepository exportWatermarkRepository) {
+        this.exportWatermarkRepository = exportWatermarkRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ExportWatermark> findByTargetUrl(String targetUrl) {
+        return exportWatermarkRepository.findById(targetUrl);
+    }
+
+    @Override
+    @Transactional
+    public void advance(String targetUrl, Instant updatedAt, Long studentId) {
+        // Exports to one target may finish out of order; an older position than the stored one is ignored
+        if (exportWatermarkRepository.advanceIfLater(targetUrl, updatedAt, studentId, Instant.now()) > 0) {
+            LOGGER.debug("Export watermark for {} advanced to ({}, {})", targetUrl, updatedAt, studentId);
+            return;
+        }
+        if (exportWatermarkRepository.existsById(targetUrl)) {
+            LOGGER.debug("Export watermark for {} is already past ({}, {})", targetUrl, updatedAt, studentId);
+            return;
+        }
+        // A concurrent first export inserting the same target fails here, which leaves only this position unrecorded
+        exportWatermarkRepository.save(new ExportWatermark(targetUrl, updatedAt, studentId, Instant.now()));
+        LOGGER.debug("Export watermark for {} started at ({}, {})", targetUrl, updatedAt, studentId);
+    }
+}
@@ -0,0 +1,62 @@
+package com.profid.profid.service;
+
+import com.profid.profid.config.FetchProperties;
+import com.profid.profid.dto.GeneralResponse;
+import com.profid.profid.utils.SingleFlight;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Coalesces fetches of {@code fetch.url} across both sync implementations: a fetch started by the blocking or the
+ * reactive service is joined by every fetch request that arrives while it runs, whichever service it came through.
+ * Each fetch counts into a {@link SharedSyncProgress}; see there for how its callers cancel and get their counts.
+ */
+@Component
+public class FetchCoalescer {
+
+    // Keyed by upstream URL, so concurrent fetches of one feed run once, whichever client they asked for
+    private final SingleFlight<String, SharedSyncProgress, GeneralResponse> flights = new SingleFlight<>(
+            SharedSyncProgress::new, SharedSyncProgress::attach, response -> "SUCCESS".equals(response.getStatus()));
+
+    private final FetchProperties fetchProperties;
+
+    public FetchCoalescer(FetchProperties fetchProperties) {
+        this.fetchProperties = fetchProperties;
+    }
+
+    /**
+     * Blocks until the fetch has finished or the caller's progress is cancelled; the blocking fetch itself runs on a
+     * worker thread.
+     */
+    public GeneralResponse fetch(SyncProgress progress, Function<SyncProgress, GeneralResponse> fetch) {
+        SingleFlight.Flight<SharedSyncProgress, GeneralResponse> flight = flights.join(fetchProperties.getUrl(),
+                coalesceCooldown(), shared -> fetch.apply(shared.getProgress()), Schedulers.boundedElastic());
+        return flight.getState().await(progress, flight.getResult());
+    }
+
+    // The caller only subscribes; cancelling the subscription leaves the fetch
+    public Mono<GeneralResponse> fetchAsync(Function<SyncProgress, GeneralResponse> fetch) {
+        return Mono.defer(() -> {
+            SingleFlight.Flight<SharedSyncProgress, GeneralResponse> flight = flights.join(fetchProperties.getUrl(),
+                    coalesceCooldown(), shared -> fetch.apply(shared.getProgress()), Schedulers.boundedElastic());
+            return flight.getState().awaitAsync(new SyncProgress(), flight.getResult());
+        });
+    }
+
+    // A non-blocking fetch, subscribed once for all of its callers
+    public Mono<GeneralResponse> fetchReactive(Function<SyncProgress, Mono<GeneralResponse>> fetch) {
+        return Mono.defer(() -> {
+            SingleFlight.Flight<SharedSyncProgress, GeneralResponse> flight = flights.joinReactive(fetchProperties.getUrl(),
+                    coalesceCooldown(), shared -> fetch.apply(shared.getProgress()));
+            return flight.getState().awaitAsync(new SyncProgress(), flight.getResult());
+        });
+    }
+
+    private Duration coalesceCooldown() {
+        return Duration.ofMillis(fetchProperties.getCoalesceCooldown());
+    }
+}
@@ -0,0 +1,17 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.response.HttpCacheStatsResponseDTO;
+import com.profid.profid.utils.ConditionalRequest;
+
+public interface HttpCacheService {
+    // Conditional request carrying the validators of the last response for this URL whose data was persisted
+    ConditionalRequest prepare(String url);
+
+    // Count the request as a hit (304 Not Modified) or a miss
+    void recordOutcome(ConditionalRequest conditional);
+
+    // Remember the validators of a response; only called once its data is persisted, so a failed sync is retried in full
+    void commit(String url, ConditionalRequest conditional);
+
+    HttpCacheStatsResponseDTO getStats();
+}
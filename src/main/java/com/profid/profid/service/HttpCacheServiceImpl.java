@@ -0,0 +1,85 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.response.HttpCacheStatsResponseDTO;
+import com.profid.profid.entity.HttpCacheEntry;
+import com.profid.profid.repository.HttpCacheEntryRepository;
+import com.profid.profid.utils.ConditionalRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class HttpCacheServiceImpl implements HttpCacheService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpCacheServiceImpl.class);
+
+    private final HttpCacheEntryRepository httpCacheEntryRepository;
+
+    // Read-through copy of the table; entries are detached and replaced, never mutated
+    private final Map<String, HttpCacheEntry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public HttpCacheServiceImpl(HttpCacheEntryRepository httpCacheEntryRepository) {
+        this.httpCacheEntryRepository = httpCacheEntryRepository;
+    }
+
+    @Override
+    public ConditionalRequest prepare(String url) {
+        HttpCacheEntry entry = entries.get(url);
+        if (entry == null) {
+            Optional<HttpCacheEntry> stored = httpCacheEntryRepository.findById(url);
+            if (stored.isEmpty()) {
+                return new ConditionalRequest(null, null);
+            }
+            entry = stored.get();
+            entries.put(url, entry);
+        }
+        return new ConditionalRequest(entry.getEtag(), entry.getLastModified());
+    }
+
+    @Override
+    public void recordOutcome(ConditionalRequest conditional) {
+        if (conditional.isNotModified()) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+    }
+
+    @Override
+    @Transactional
+    public void commit(String url, ConditionalRequest conditional) {
+        if (conditional.isNotModified()) {
+            return;
+        }
+
+        String etag = conditional.getResponseEtag();
+        String lastModified = conditional.getResponseLastModified();
+        if (etag == null && lastModified == null) {
+            // The upstream stopped sending validators, so the old ones must not be sent again
+            if (entries.remove(url) != null || httpCacheEntryRepository.existsById(url)) {
+                httpCacheEntryRepository.deleteById(url);
+            }
+            return;
+        }
+
+        HttpCacheEntry entry = new HttpCacheEntry(url, etag, lastModified, Instant.now());
+        httpCacheEntryRepository.save(entry);
+        entries.put(url, entry);
+        LOGGER.info("Stored validators for URL: {} (ETag: {}, Last-Modified: {})", url, etag, lastModified);
+    }
+
+    @Override
+    public HttpCacheStatsResponseDTO getStats() {
+        return new HttpCacheStatsResponseDTO(hits.get(), misses.get(), entries.size());
+    }
+}
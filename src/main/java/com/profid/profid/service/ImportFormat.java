@@ -0,0 +1,23 @@
+package com.profid.profid.service;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    // Header line with name, email and age (required), gender, phone_number, address and subjects columns
+    CSV,
+    // One JSON student object per line, in the upstream feed's shape
+    NDJSON;
+
+    // From the file extension, then the content type; null if neither tells
+    public static ImportFormat detect(String filename, String contentType) {
+        String name = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+        String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".csv") || type.startsWith("text/csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || type.startsWith("application/x-ndjson")) {
+            return NDJSON;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.ExportResponse;
+import com.profid.profid.dto.GeneralResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link StudentSyncService}, available with the {@code reactive} profile: WebClient
+ * for the upstream and the export target, R2DBC for the database. Nothing happens until the result is subscribed.
+ */
+public interface ReactiveStudentSyncService {
+
+    Mono<GeneralResponse> fetchAndSave();
+
+    // Posts every student; delta exports from a watermark are only offered by the blocking implementation
+    Mono<ExportResponse> postStudents(String postUrl);
+}
@@ -0,0 +1,226 @@
+package com.profid.profid.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.profid.profid.config.ExportProperties;
+import com.profid.profid.config.FetchProperties;
+import com.profid.profid.config.IngestProperties;
+import com.profid.profid.dto.ExportResponse;
+import com.profid.profid.dto.GeneralResponse;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.repository.ReactiveStudentRepository;
+import com.profid.profid.repository.projection.StudentExportRow;
+import com.profid.profid.utils.RawResponse;
+import com.profid.profid.utils.WireFormat;
+import com.profid.profid.utils.v1.GenericWebClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches, stores and posts students as one reactive pipeline. Chunks are written sequentially, each in its own
+ * R2DBC transaction, while the next students are already being decoded; the backpressure of that pipeline bounds
+ * memory instead of a queue and a parked thread. Fetches are coalesced with those of the blocking implementation
+ * through {@link FetchCoalescer}; conditional requests and the INSERT ingest mode are left to it.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveStudentSyncServiceImpl implements ReactiveStudentSyncService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveStudentSyncServiceImpl.class);
+
+    private static final String CLIENT_NAME = "Reactive";
+
+    // Pages come back in whichever format the upstream negotiated
+    private static final Map<WireFormat, ObjectReader> STUDENT_LIST_READERS = WireFormat.readersFor(
+            new TypeReference<List<StudentResponseDTO>>() {
+            });
+
+    private final GenericWebClient genericWebClient;
+    private final ReactiveStudentRepository reactiveStudentRepository;
+    private final FetchCoalescer fetchCoalescer;
+    private final FetchProperties fetchProperties;
+    private final IngestProperties ingestProperties;
+    private final ExportProperties exportProperties;
+    private final SyncMetrics syncMetrics;
+
+    public ReactiveStudentSyncServiceImpl(GenericWebClient genericWebClient, ReactiveStudentRepository reactiveStudentRepository,
+                                          FetchCoalescer fetchCoalescer, FetchProperties fetchProperties, IngestProperties ingestProperties,
+                                          ExportProperties exportProperties, SyncMetrics syncMetrics) {
+        this.genericWebClient = genericWebClient;
+        this.reactiveStudentRepository = reactiveStudentRepository;
+        this.fetchCoalescer = fetchCoalescer;
+        this.fetchProperties = fetchProperties;
+        this.ingestProperties = ingestProperties;
+        this.exportProperties = exportProperties;
+        this.syncMetrics = syncMetrics;
+    }
+
+    @Override
+    public Mono<GeneralResponse> fetchAndSave() {
+        return fetchCoalescer.fetchReactive(this::fetchAndSave);
+    }
+
+    private Mono<GeneralResponse> fetchAndSave(SyncProgress progress) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return fetchStudents(progress)
+                    .buffer(Math.max(1, ingestProperties.getBatchSize()))
+                    .concatMap(chunk -> saveChunk(chunk, progress))
+                    .then(Mono.fromSupplier(() -> {
+                        long elapsedNanos = Math.max(System.nanoTime() - started, 1);
+                        LOGGER.info("Fetched and persisted {} students reactively in {} ms ({} rows/sec), persist {} ms",
+                                progress.getRecordsPersisted(), elapsedNanos / 1_000_000,
+                                String.format("%.1f", progress.getRecordsPersisted() * 1_000_000_000d / elapsedNanos),
+                                progress.getPersistMillis());
+                        return new GeneralResponse("Data fetched and saved using the reactive pipeline", "SUCCESS");
+                    }))
+                    .onErrorResume(e -> {
+                        LOGGER.error("Error fetching data reactively: {}", e.getMessage(), e);
+                        return Mono.just(new GeneralResponse("Error fetching data reactively: " + e.getMessage(), "FAILURE"));
+                    })
+                    .doOnNext(response -> syncMetrics.recordRun("fetch", CLIENT_NAME, response.getStatus(),
+                            progress.getRecordsFetched()));
+        });
+    }
+
+    // An unpaged feed is decoded element by element as it arrives; a paged one page by page, one page ahead
+    private Flux<StudentResponseDTO> fetchStudents(SyncProgress progress) {
+        if (!fetchProperties.isPaged()) {
+            return genericWebClient.getFlux(fetchProperties.getUrl(), getAuthHeadersAsMap(), StudentResponseDTO.class, 10)
+                    .doOnNext(student -> progress.addFetched(1));
+        }
+
+        UpstreamPager pager = new UpstreamPager(fetchProperties);
+        return fetchPage(pager, pager.firstPageUrl(), 0, progress)
+                .expand(page -> page.getNextUrl() == null
+                        ? Mono.empty()
+                        : fetchPage(pager, page.getNextUrl(), page.getIndex() + 1, progress))
+                .concatMapIterable(UpstreamPager.Page::getStudents, Math.max(1, fetchProperties.getPrefetchPages()));
+    }
+
+    private Mono<UpstreamPager.Page> fetchPage(UpstreamPager pager, String url, int index, SyncProgress progress) {
+        return Mono.defer(() -> {
+            progress.checkCancelled();
+            long started = System.nanoTime();
+            return genericWebClient.getRaw(url, getAuthHeadersAsMap(), 10)
+                    .doOnNext(response -> {
+                        progress.addNetworkNanos(System.nanoTime() - started);
+                        syncMetrics.recordPhase(SyncMetrics.Phase.FETCH, System.nanoTime() - started);
+                    })
+                    .flatMap(response -> Mono.fromCallable(() -> parsePage(pager, url, index, response, progress)));
+        });
+    }
+
+    private UpstreamPager.Page parsePage(UpstreamPager pager, String url, int index, RawResponse response,
+                                        SyncProgress progress) throws IOException {
+        long started = System.nanoTime();
+        List<StudentResponseDTO> students = response.getBody().length == 0
+                ? List.of()
+                : STUDENT_LIST_READERS.get(WireFormat.fromContentType(response.getHeader("Content-Type")))
+                        .readValue(response.getBody());
+        long parseNanos = System.nanoTime() - started;
+        progress.addParseNanos(parseNanos);
+        syncMetrics.recordPhase(SyncMetrics.Phase.PARSE, parseNanos);
+        progress.addFetched(students.size());
+        return new UpstreamPager.Page(index, students, pager.nextPageUrl(url, index, response, students.size()));
+    }
+
+    // A fetch every caller has cancelled stops before its next chunk
+    private Mono<Integer> saveChunk(List<StudentResponseDTO> chunk, SyncProgress progress) {
+        return Mono.defer(() -> {
+            progress.checkCancelled();
+            long started = System.nanoTime();
+            return reactiveStudentRepository.saveChunk(chunk)
+                    .doOnNext(persisted -> {
+                        long persistNanos = System.nanoTime() - started;
+                        progress.addPersistNanos(persistNanos);
+                        syncMetrics.recordPhase(SyncMetrics.Phase.PERSIST, persistNanos);
+                        progress.addPersisted(persisted);
+                    });
+        });
+    }
+
+    /**
+     * Keyset pages are read one at a time as the posts drain them; batches are posted with up to
+     * {@code export.maxInFlight} requests in flight, or one at a time with {@code export.preserveOrder}.
+     */
+    @Override
+    public Mono<ExportResponse> postStudents(String postUrl) {
+        if (postUrl == null || postUrl.isEmpty()) {
+            return Mono.just(new ExportResponse("Post URL is null or empty", "FAILURE"));
+        }
+
+        return Mono.defer(() -> {
+            int pageSize = exportProperties.getPageSize();
+            ExportTracker tracker = new ExportTracker(CLIENT_NAME, new SyncProgress(), false, syncMetrics);
+            int inFlight = exportProperties.isPreserveOrder() ? 1 : Math.max(1, exportProperties.getMaxInFlight());
+
+            return reactiveStudentRepository.findPageAfter(0L, pageSize)
+                    .expand(page -> page.size() < pageSize
+                            ? Mono.empty()
+                            : reactiveStudentRepository.findPageAfter(page.get(page.size() - 1).id(), pageSize))
+                    .concatMapIterable(page -> ExportBatcher.partition(page, exportProperties.getBatchSize(),
+                            exportProperties.getMaxBatchBytes()))
+                    .flatMap(batch -> postBatch(postUrl, batch, tracker), inFlight)
+                    .then(Mono.fromSupplier(tracker::toResponse));
+        }).onErrorResume(e -> {
+            LOGGER.error("Error posting data reactively: {}", e.getMessage(), e);
+            return Mono.just(new ExportResponse("Error posting data reactively: " + e.getMessage(), "FAILURE"));
+        });
+    }
+
+    // Emits whether the batch was delivered; failures are recorded in the tracker instead of failing the export
+    private Mono<Boolean> postBatch(String postUrl, List<StudentExportRow> batch, ExportTracker tracker) {
+        AtomicInteger retries = new AtomicInteger();
+        AtomicLong started = new AtomicLong();
+        return genericWebClient.post(postUrl, getAuthHeadersAsMap(), batch, GeneralResponse.class, 10)
+                .retryWhen(Retry.backoff(exportProperties.getMaxRetries(), Duration.ofMillis(exportProperties.getInitialBackoff()))
+                        .maxBackoff(Duration.ofMillis(exportProperties.getMaxBackoff()))
+                        .jitter(0.5)
+                        .filter(this::isRetryable)
+                        .doBeforeRetry(signal -> retries.incrementAndGet())
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnSuccess(response -> tracker.succeeded(batch, retries.get()))
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    LOGGER.error("Batch of {} students failed after {} retries: {}", batch.size(), retries.get(), e.getMessage());
+                    tracker.failed(batch, retries.get(), e);
+                    return Mono.just(false);
+                })
+                .doOnSubscribe(subscription -> started.set(System.nanoTime()))
+                .doOnNext(delivered -> syncMetrics.recordPhase(SyncMetrics.Phase.POST, System.nanoTime() - started.get()));
+    }
+
+    private boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return exportProperties.getRetryableStatuses().contains(responseException.getStatusCode().value());
+        }
+        // Connection failures and timeouts
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+
+    private Map<String, String> getAuthHeadersAsMap() {
+        String auth = "admin:pass1234";
+        String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Authorization", "Basic " + encodedAuth);
+        return headers;
+    }
+}
@@ -0,0 +1,91 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.GeneralResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The progress of one coalesced sync, which every caller that joined it waits on. The sync counts into its own
+ * {@link SyncProgress}, so no caller's cancellation reaches it directly: a caller that cancels leaves, and the sync
+ * is cancelled only once every caller has left. Each caller's progress follows the shared one from the moment it
+ * joins, so it shows the sync's counts while it runs and, however it ends, once it has finished; a caller that
+ * leaves keeps the counts up to then.
+ */
+class SharedSyncProgress {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedSyncProgress.class);
+
+    private final SyncProgress progress = new SyncProgress();
+
+    // Guarded by this
+    private int callers;
+    private boolean abandoned;
+
+    SyncProgress getProgress() {
+        return progress;
+    }
+
+    // False once every caller has left, so a new caller starts a fresh sync instead of joining a cancelled one
+    synchronized boolean attach() {
+        if (abandoned) {
+            return false;
+        }
+        callers++;
+        return true;
+    }
+
+    /**
+     * Blocks until the sync has finished or the caller's progress is cancelled, whichever comes first; a cancelled
+     * caller leaves and gets a {@link CancellationException}.
+     */
+    GeneralResponse await(SyncProgress caller, CompletableFuture<GeneralResponse> result) {
+        caller.follow(progress);
+        CompletableFuture<Void> cancelled = new CompletableFuture<>();
+        Runnable onCancel = () -> cancelled.complete(null);
+        caller.onCancel(onCancel);
+        try {
+            CompletableFuture.anyOf(result, cancelled).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The sync failed, rethrown below
+        } finally {
+            caller.removeCancelListener(onCancel);
+        }
+
+        if (!result.isDone()) {
+            leave(caller, result);
+            throw new CancellationException("Sync was cancelled");
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException | ExecutionException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw cause instanceof RuntimeException runtimeException ? runtimeException : new IllegalStateException(cause);
+        }
+    }
+
+    // Non-blocking variant: cancelling the subscription leaves the sync
+    Mono<GeneralResponse> awaitAsync(SyncProgress caller, CompletableFuture<GeneralResponse> result) {
+        return Mono.fromFuture(result, true)
+                .doOnSubscribe(subscription -> caller.follow(progress))
+                .doOnCancel(() -> leave(caller, result));
+    }
+
+    private void leave(SyncProgress caller, CompletableFuture<GeneralResponse> result) {
+        caller.unfollow();
+        synchronized (this) {
+            if (result.isDone() || --callers > 0) {
+                return;
+            }
+            abandoned = true;
+        }
+        LOGGER.info("Every caller of a shared sync has cancelled, cancelling the sync");
+        progress.cancel();
+    }
+}
@@ -0,0 +1,11 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.ImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface StudentImportService {
+    // Reads the input line by line and stores valid records in ingest.batchSize chunks; invalid lines are reported
+    ImportResponse importStudents(InputStream input, ImportFormat format) throws IOException;
+}
@@ -0,0 +1,298 @@
+package com.profid.profid.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.profid.profid.config.IngestProperties;
+import com.profid.profid.dto.ImportResponse;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.dto.response.SubjectResponseDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Imports partner dumps through the same chunked persistence path as the upstream sync. Only one line and one
+ * chunk of records are held at a time; a line that does not parse or validate is rejected with its number and
+ * the import goes on. Records are one per line: CSV fields cannot contain line breaks.
+ */
+@Service
+public class StudentImportServiceImpl implements StudentImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentImportServiceImpl.class);
+
+    private static final int MAX_REPORTED_LINES = 1000;
+
+    private static final ObjectReader STUDENT_READER = new ObjectMapper().readerFor(StudentResponseDTO.class);
+
+    private final StudentPersistenceService studentPersistenceService;
+    private final IngestProperties ingestProperties;
+    private final SyncMetrics syncMetrics;
+
+    public StudentImportServiceImpl(StudentPersistenceService studentPersistenceService, IngestProperties ingestProperties,
+                                    SyncMetrics syncMetrics) {
+        this.studentPersistenceService = studentPersistenceService;
+        this.ingestProperties = ingestProperties;
+        this.syncMetrics = syncMetrics;
+    }
+
+    @Override
+    public ImportResponse importStudents(InputStream input, ImportFormat format) throws IOException {
+        long started = System.nanoTime();
+        ImportRun run = new ImportRun(Math.max(1, ingestProperties.getBatchSize()));
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Map<String, Integer> csvColumns = null;
+            long lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == ImportFormat.CSV && csvColumns == null) {
+                    csvColumns = csvHeader(line);
+                    continue;
+                }
+
+                run.recordsRead++;
+                try {
+                    StudentResponseDTO student = format == ImportFormat.CSV
+                            ? fromCsv(splitCsvLine(line), csvColumns)
+                            : STUDENT_READER.readValue(line);
+                    validate(student);
+                    run.add(lineNumber, student);
+                } catch (JsonProcessingException e) {
+                    run.reject(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                } catch (IllegalArgumentException e) {
+                    run.reject(lineNumber, e.getMessage());
+                }
+            }
+        }
+        run.flush();
+
+        return toResponse(run, format, started);
+    }
+
+    /**
+     * Stores records in chunks of ingest.batchSize. A repeated email inside a chunk replaces the earlier record,
+     * as a later sync would; a chunk the database refuses rejects its lines instead of failing the import.
+     */
+    private final class ImportRun {
+
+        private final int batchSize;
+        private final Map<String, StudentResponseDTO> chunk = new LinkedHashMap<>();
+        private final Map<String, Long> chunkLines = new HashMap<>();
+        private final List<Long> supersededLines = new ArrayList<>();
+        private final List<ImportResponse.RejectedLine> rejectedLines = new ArrayList<>();
+        private long recordsRead;
+        private long recordsImported;
+        private long recordsRejected;
+
+        private ImportRun(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        private void add(long lineNumber, StudentResponseDTO student) {
+            String email = student.getEmail();
+            chunk.remove(email);
+            chunk.put(email, student);
+            Long replaced = chunkLines.put(email, lineNumber);
+            if (replaced != null) {
+                supersededLines.add(replaced);
+            }
+            if (chunk.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                long started = System.nanoTime();
+                // A superseded line counts as imported: its student was stored, with the later line's values
+                recordsImported += studentPersistenceService.saveChunk(new ArrayList<>(chunk.values()))
+                        + supersededLines.size();
+                syncMetrics.recordPhase(SyncMetrics.Phase.PERSIST, System.nanoTime() - started);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not store an import chunk of {} records: {}", chunk.size(), e.getMessage());
+                List<Long> lines = new ArrayList<>(chunkLines.values());
+                lines.addAll(supersededLines);
+                lines.stream().sorted().forEach(line -> reject(line, "Could not be stored: " + e.getMessage()));
+            }
+            chunk.clear();
+            chunkLines.clear();
+            supersededLines.clear();
+        }
+
+        private void reject(long lineNumber, String error) {
+            recordsRejected++;
+            if (rejectedLines.size() < MAX_REPORTED_LINES) {
+                rejectedLines.add(new ImportResponse.RejectedLine(lineNumber, error));
+            }
+        }
+    }
+
+    private ImportResponse toResponse(ImportRun run, ImportFormat format, long startedNanos) {
+        long elapsedNanos = Math.max(System.nanoTime() - startedNanos, 1);
+        String status = run.recordsRejected == 0 ? "SUCCESS" : run.recordsImported > 0 ? "PARTIAL" : "FAILURE";
+
+        ImportResponse response = new ImportResponse(String.format("Imported %d of %d %s records",
+                run.recordsImported, run.recordsRead, format), status);
+        response.setRecordsRead(run.recordsRead);
+        response.setRecordsImported(run.recordsImported);
+        response.setRecordsRejected(run.recordsRejected);
+        response.setDurationMillis(elapsedNanos / 1_000_000);
+        response.setRecordsPerSecond(run.recordsImported * 1_000_000_000d / elapsedNanos);
+        response.setRejectedLines(run.rejectedLines);
+
+        syncMetrics.recordRun("import", format.name(), status, run.recordsImported);
+        LOGGER.info("Imported {} of {} {} records in {} ms ({} rows/sec), {} rejected", run.recordsImported,
+                run.recordsRead, format, response.getDurationMillis(),
+                String.format("%.1f", response.getRecordsPerSecond()), run.recordsRejected);
+        return response;
+    }
+
+    private static Map<String, Integer> csvHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsvLine(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "email", "age")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header has no " + required + " column");
+            }
+        }
+        return columns;
+    }
+
+    private static StudentResponseDTO fromCsv(List<String> fields, Map<String, Integer> columns) {
+        StudentResponseDTO student = new StudentResponseDTO();
+        student.setName(field(fields, columns, "name"));
+        student.setEmail(field(fields, columns, "email"));
+        student.setAge(integer(field(fields, columns, "age"), "age"));
+        student.setGender(field(fields, columns, "gender"));
+        student.setPhoneNumber(field(fields, columns, "phone_number"));
+        student.setAddress(field(fields, columns, "address"));
+        student.setSubjects(subjects(field(fields, columns, "subjects")));
+        return student;
+    }
+
+    // subjects column: name|credits|description entries separated by ';'
+    private static List<SubjectResponseDTO> subjects(String value) {
+        List<SubjectResponseDTO> subjects = new ArrayList<>();
+        if (value == null) {
+            return subjects;
+        }
+        for (String entry : value.split(";")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("\\|", 3);
+            subjects.add(new SubjectResponseDTO(parts[0].trim(),
+                    parts.length > 1 ? integer(parts[1].trim(), "subject credits") : null,
+                    parts.length > 2 ? parts[2].trim() : null));
+        }
+        return subjects;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer integer(String value, String column) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    // Mirrors the students and subject catalog constraints, so a bad record is rejected alone instead of failing its chunk
+    private static void validate(StudentResponseDTO student) {
+        // A JSON line of just null
+        if (student == null) {
+            throw new IllegalArgumentException("record is empty");
+        }
+        if (student.getName() == null || student.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (student.getEmail() == null || !student.getEmail().contains("@")) {
+            throw new IllegalArgumentException("email is missing or invalid");
+        }
+        if (student.getAge() == null || student.getAge() < 0) {
+            throw new IllegalArgumentException("age is missing or negative");
+        }
+        if (student.getSubjects() != null) {
+            for (SubjectResponseDTO subject : student.getSubjects()) {
+                if (subject == null) {
+                    throw new IllegalArgumentException("subject is empty");
+                }
+                if (subject.getName() == null || subject.getName().isBlank()) {
+                    throw new IllegalArgumentException("subject name is required");
+                }
+                // subject_catalog.credits is NOT NULL, so "Math" or "Math|" alone would fail the whole chunk
+                if (subject.getCredits() == null) {
+                    throw new IllegalArgumentException("credits of subject " + subject.getName() + " are required");
+                }
+            }
+        }
+    }
+
+    // RFC 4180 fields of a single line: commas separate, double quotes enclose, "" is an escaped quote
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
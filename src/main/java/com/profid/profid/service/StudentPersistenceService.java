@@ -0,0 +1,18 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.repository.projection.StudentExportRow;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StudentPersistenceService {
+    // Persist one chunk of students in a single transaction, returns the number of students written
+    int saveChunk(List<StudentResponseDTO> students);
+
+    // Read the next keyset page of students (ordered by id) with their subjects as read-only export rows
+    List<StudentExportRow> findPageAfter(Long afterId, int pageSize);
+
+    // Read the next page of students changed after (updatedAt, afterId), ordered by updatedAt then id
+    List<StudentExportRow> findChangedPageAfter(Instant updatedAt, Long afterId, Instant cutoff, int pageSize);
+}
@@ -0,0 +1,209 @@
+package com.profid.profid.service;
+
+import com.profid.profid.config.IngestProperties;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.dto.response.SubjectResponseDTO;
+import com.profid.profid.entity.Student;
+import com.profid.profid.entity.Subject;
+import com.profid.profid.mapper.StudentMapper;
+import com.profid.profid.repository.StudentRepository;
+import com.profid.profid.repository.SubjectRepository;
+import com.profid.profid.repository.projection.StudentExportRow;
+import com.profid.profid.repository.projection.StudentFingerprint;
+import com.profid.profid.repository.projection.SubjectExportRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.*;
+
+@Service
+public class StudentPersistenceServiceImpl implements StudentPersistenceService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentPersistenceServiceImpl.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
+    private final SubjectCatalogService subjectCatalogService;
+    private final IngestProperties ingestProperties;
+    private final SyncMetrics syncMetrics;
+
+    public StudentPersistenceServiceImpl(StudentRepository studentRepository, SubjectRepository subjectRepository,
+                                         SubjectCatalogService subjectCatalogService, IngestProperties ingestProperties,
+                                         SyncMetrics syncMetrics) {
+        this.studentRepository = studentRepository;
+        this.subjectRepository = subjectRepository;
+        this.subjectCatalogService = subjectCatalogService;
+        this.ingestProperties = ingestProperties;
+        this.syncMetrics = syncMetrics;
+    }
+
+    /**
+     * Inserts are grouped into JDBC batches by Hibernate ({@code hibernate.jdbc.batch_size} with ordered inserts),
+     * which only works because ids come from a pooled sequence rather than IDENTITY columns.
+     * Flushing and clearing at the end keeps the persistence context from growing across chunks.
+     */
+    @Override
+    @Transactional
+    public int saveChunk(List<StudentResponseDTO> students) {
+        long started = System.nanoTime();
+        Map<SubjectKey, Long> subjectIds = resolveSubjects(students);
+        long mapNanos = System.nanoTime() - started;
+        if (ingestProperties.getMode() == IngestProperties.Mode.UPSERT) {
+            mapNanos += upsert(students, subjectIds);
+        } else {
+            // persist only queues the insert until the flush, so this is in-memory work
+            long mapped = System.nanoTime();
+            for (StudentResponseDTO studentDTO : students) {
+                Student student = StudentMapper.toEntity(studentDTO);
+                linkSubjects(student, studentDTO, subjectIds);
+                entityManager.persist(student);
+            }
+            mapNanos += System.nanoTime() - mapped;
+        }
+        syncMetrics.recordPhase(SyncMetrics.Phase.MAP, mapNanos);
+        entityManager.flush();
+        entityManager.clear();
+        return students.size();
+    }
+
+    /**
+     * Two set-based queries per page: the next students after {@code afterId} as export rows, then all their
+     * subjects. Both are constructor projections, so nothing is loaded into the persistence context.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<StudentExportRow> findPageAfter(Long afterId, int pageSize) {
+        return withSubjects(studentRepository.findExportRowsAfter(afterId, Limit.of(pageSize)));
+    }
+
+    /**
+     * Same two-query shape as {@link #findPageAfter}, keyed on (updatedAt, id) so a delta export can resume
+     * from its watermark. Students changed after {@code cutoff} are left for a later run.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<StudentExportRow> findChangedPageAfter(Instant updatedAt, Long afterId, Instant cutoff, int pageSize) {
+        return withSubjects(studentRepository.findExportRowsChangedAfter(updatedAt, afterId, cutoff, Limit.of(pageSize)));
+    }
+
+    private List<StudentExportRow> withSubjects(List<StudentExportRow> students) {
+        if (students.isEmpty()) {
+            return students;
+        }
+        Map<Long, StudentExportRow> byId = new HashMap<>();
+        for (StudentExportRow student : students) {
+            byId.put(student.id(), student);
+        }
+        for (SubjectExportRow subject : subjectRepository.findExportRowsByStudentIdIn(byId.keySet())) {
+            byId.get(subject.studentId()).subjects().add(subject);
+        }
+        return students;
+    }
+
+    /**
+     * Upserts the chunk keyed on email with a fixed number of statements: one lookup of the existing
+     * fingerprints, one fetch of the students that changed, then batched inserts and updates.
+     * Students whose content hash matches the stored one are skipped without any write.
+     */
+    // Returns the time spent mapping, i.e. without the two queries
+    private long upsert(List<StudentResponseDTO> students, Map<SubjectKey, Long> subjectIds) {
+        // Last occurrence wins when the same email appears twice in one chunk
+        Map<String, StudentResponseDTO> byEmail = new LinkedHashMap<>();
+        for (StudentResponseDTO studentDTO : students) {
+            if (studentDTO.getEmail() == null) {
+                LOGGER.warn("Skipping student without email: {}", studentDTO.getName());
+                continue;
+            }
+            byEmail.put(studentDTO.getEmail(), studentDTO);
+        }
+        if (byEmail.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, StudentFingerprint> existing = new HashMap<>();
+        for (StudentFingerprint fingerprint : studentRepository.findFingerprintsByEmailIn(byEmail.keySet())) {
+            existing.put(fingerprint.getEmail(), fingerprint);
+        }
+
+        Map<Long, StudentResponseDTO> changed = new HashMap<>();
+        Map<Long, String> changedHashes = new HashMap<>();
+        int inserted = 0;
+        int unchanged = 0;
+        long started = System.nanoTime();
+        for (StudentResponseDTO studentDTO : byEmail.values()) {
+            String hash = StudentMapper.contentHash(studentDTO);
+            StudentFingerprint fingerprint = existing.get(studentDTO.getEmail());
+            if (fingerprint == null) {
+                Student student = StudentMapper.toEntity(studentDTO);
+                student.setContentHash(hash);
+                linkSubjects(student, studentDTO, subjectIds);
+                entityManager.persist(student);
+                inserted++;
+            } else if (hash.equals(fingerprint.getContentHash())) {
+                unchanged++;
+            } else {
+                changed.put(fingerprint.getId(), studentDTO);
+                changedHashes.put(fingerprint.getId(), hash);
+            }
+        }
+
+        long mapNanos = System.nanoTime() - started;
+
+        if (!changed.isEmpty()) {
+            List<Student> changedStudents = studentRepository.findAllWithSubjectsByIdIn(changed.keySet());
+            started = System.nanoTime();
+            for (Student student : changedStudents) {
+                applyChanges(student, changed.get(student.getId()), subjectIds);
+                student.setContentHash(changedHashes.get(student.getId()));
+            }
+            mapNanos += System.nanoTime() - started;
+        }
+
+        LOGGER.debug("Upserted chunk: {} inserted, {} updated, {} unchanged", inserted, changed.size(), unchanged);
+        return mapNanos;
+    }
+
+    private void applyChanges(Student student, StudentResponseDTO studentDTO, Map<SubjectKey, Long> subjectIds) {
+        student.setName(studentDTO.getName());
+        student.setAge(studentDTO.getAge());
+        student.setGender(studentDTO.getGender());
+        student.setPhoneNumber(studentDTO.getPhoneNumber());
+        student.setAddress(studentDTO.getAddress());
+        linkSubjects(student, studentDTO, subjectIds);
+    }
+
+    // One catalog lookup per distinct subject of the chunk instead of one subject row per student
+    private Map<SubjectKey, Long> resolveSubjects(List<StudentResponseDTO> students) {
+        List<SubjectResponseDTO> subjects = new ArrayList<>();
+        for (StudentResponseDTO studentDTO : students) {
+            subjects.addAll(StudentMapper.subjectsOf(studentDTO));
+        }
+        return subjectCatalogService.resolve(subjects);
+    }
+
+    // Diffs the links by catalog id, so untouched links are neither deleted nor reinserted
+    private void linkSubjects(Student student, StudentResponseDTO studentDTO, Map<SubjectKey, Long> subjectIds) {
+        Set<Long> wanted = new LinkedHashSet<>();
+        for (SubjectResponseDTO subjectDTO : StudentMapper.subjectsOf(studentDTO)) {
+            wanted.add(subjectIds.get(SubjectKey.of(subjectDTO)));
+        }
+
+        student.getSubjects().removeIf(subject -> !wanted.contains(subject.getId()));
+        for (Subject subject : student.getSubjects()) {
+            wanted.remove(subject.getId());
+        }
+        // References only: the catalog rows are neither loaded nor written
+        for (Long subjectId : wanted) {
+            student.getSubjects().add(entityManager.getReference(Subject.class, subjectId));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.response.StudentPageResponseDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface StudentQueryService {
+    // Next keyset page of students with id > afterId, ordered by id; namePrefix and email are optional filters
+    StudentPageResponseDTO findStudents(Long afterId, int limit, String namePrefix, String email, boolean includeSubjects);
+
+    // Writes every student with subjects as one JSON object per line, flushing per chunk; returns the number written
+    long writeNdjson(OutputStream output) throws IOException;
+}
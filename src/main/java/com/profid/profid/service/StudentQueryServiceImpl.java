@@ -0,0 +1,130 @@
+package com.profid.profid.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.profid.profid.config.ExportProperties;
+import com.profid.profid.dto.response.StudentPageResponseDTO;
+import com.profid.profid.repository.StudentRepository;
+import com.profid.profid.repository.SubjectRepository;
+import com.profid.profid.repository.projection.StudentView;
+import com.profid.profid.repository.projection.SubjectExportRow;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Serves the read API from JPQL projections only: a page is one index-backed query for the students and, when
+ * subjects are included, one more for the subjects of the whole page. No entity is hydrated, also not by the
+ * streaming export.
+ */
+@Service
+public class StudentQueryServiceImpl implements StudentQueryService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
+    private final ExportProperties exportProperties;
+    private final ObjectWriter studentWriter;
+
+    public StudentQueryServiceImpl(StudentRepository studentRepository, SubjectRepository subjectRepository,
+                                   ExportProperties exportProperties, ObjectMapper objectMapper) {
+        this.studentRepository = studentRepository;
+        this.subjectRepository = subjectRepository;
+        this.exportProperties = exportProperties;
+        // Flushing is done per chunk, not per student
+        this.studentWriter = objectMapper.writerFor(StudentView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StudentPageResponseDTO findStudents(Long afterId, int limit, String namePrefix, String email, boolean includeSubjects) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long after = afterId != null ? afterId : 0L;
+
+        List<StudentView> students;
+        if (email != null && !email.isBlank()) {
+            students = studentRepository.findViewByEmail(email.trim())
+                    .filter(student -> student.id() > after)
+                    .filter(student -> namePrefix == null || student.name().startsWith(namePrefix))
+                    .map(List::of)
+                    .orElse(List.of());
+        } else if (namePrefix != null && !namePrefix.isEmpty()) {
+            // One row more than asked tells whether another page follows without an extra round trip
+            students = studentRepository.findViewsByNameLikeAfter(likePrefix(namePrefix), after, Limit.of(limit + 1));
+        } else {
+            students = studentRepository.findViewsAfter(after, Limit.of(limit + 1));
+        }
+
+        Long nextAfterId = null;
+        if (students.size() > limit) {
+            students = students.subList(0, limit);
+            nextAfterId = students.get(limit - 1).id();
+        }
+        return new StudentPageResponseDTO(includeSubjects ? withSubjects(students) : students, nextAfterId);
+    }
+
+    /**
+     * Reads students from a database cursor and writes them in chunks of export.pageSize: one subject query per
+     * chunk, then a flush, so the first lines leave before the cursor is exhausted and memory stays at one chunk.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long writeNdjson(OutputStream output) throws IOException {
+        int chunkSize = Math.max(1, exportProperties.getPageSize());
+        long written = 0;
+        try (Stream<StudentView> students = studentRepository.streamAllViews();
+             JsonGenerator generator = studentWriter.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<StudentView> iterator = students.iterator();
+            List<StudentView> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    for (StudentView student : withSubjects(chunk)) {
+                        studentWriter.writeValue(generator, student);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                    written += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        return written;
+    }
+
+    private List<StudentView> withSubjects(List<StudentView> students) {
+        if (students.isEmpty()) {
+            return students;
+        }
+        Map<Long, List<SubjectExportRow>> subjectsByStudent = new HashMap<>();
+        for (SubjectExportRow subject : subjectRepository.findExportRowsByStudentIdIn(
+                students.stream().map(StudentView::id).collect(Collectors.toList()))) {
+            subjectsByStudent.computeIfAbsent(subject.studentId(), id -> new ArrayList<>()).add(subject);
+        }
+        return students.stream()
+                .map(student -> student.withSubjects(subjectsByStudent.getOrDefault(student.id(), List.of())))
+                .toList();
+    }
+
+    // Escapes LIKE wildcards so the prefix matches literally; '\' is the escape character of the query
+    static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
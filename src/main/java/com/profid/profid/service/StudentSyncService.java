@@ -1,17 +1,41 @@
 package com.profid.profid.service;
 
+import com.profid.profid.dto.ExportResponse;
 import com.profid.profid.dto.GeneralResponse;
+import reactor.core.publisher.Mono;
 
+/**
+ * Fetches of the same upstream URL are coalesced: callers arriving while one runs share its result, and a
+ * successful result is reused for {@code fetch.coalesceCooldown} milliseconds. The shared fetch runs on a worker
+ * thread with progress of its own, which is added to each caller's progress when it finishes; a caller whose progress
+ * is cancelled stops waiting, and the fetch itself stops once every caller has.
+ */
 public interface StudentSyncService {
     // Fetch using GenericWebClient
     GeneralResponse fetchAndSaveUsingWebClient();
 
+    GeneralResponse fetchAndSaveUsingWebClient(SyncProgress progress);
+
+    // Runs on a worker thread; the caller only subscribes, also when it joins a fetch already in flight
+    Mono<GeneralResponse> fetchAndSaveUsingWebClientAsync();
+
     // Fetch using GenericHttpClient
     GeneralResponse fetchAndSaveUsingHttpClient();
 
+    GeneralResponse fetchAndSaveUsingHttpClient(SyncProgress progress);
+
     // Post using GenericWebClient
-    GeneralResponse postStudentsUsingWebClient(String postUrl);
+    ExportResponse postStudentsUsingWebClient(String postUrl);
+
+    ExportResponse postStudentsUsingWebClient(String postUrl, SyncProgress progress);
+
+    // Without fullResend only students changed since the last batch the target acknowledged are posted
+    ExportResponse postStudentsUsingWebClient(String postUrl, boolean fullResend, SyncProgress progress);
 
     // Post using GenericHttpClient
-    GeneralResponse postStudentsUsingHttpClient(String postUrl);
+    ExportResponse postStudentsUsingHttpClient(String postUrl);
+
+    ExportResponse postStudentsUsingHttpClient(String postUrl, SyncProgress progress);
+
+    ExportResponse postStudentsUsingHttpClient(String postUrl, boolean fullResend, SyncProgress progress);
 }
@@ -1,156 +1,591 @@
 package com.profid.profid.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.profid.profid.config.ExportProperties;
+import com.profid.profid.config.FetchProperties;
+import com.profid.profid.config.HttpClientProperties;
+import com.profid.profid.config.IngestProperties;
+import com.profid.profid.dto.ExportResponse;
 import com.profid.profid.dto.GeneralResponse;
 import com.profid.profid.dto.response.StudentResponseDTO;
-import com.profid.profid.entity.Student;
-import com.profid.profid.entity.Subject;
-import com.profid.profid.repository.StudentRepository;
+import com.profid.profid.entity.ExportWatermark;
+import com.profid.profid.repository.projection.StudentExportRow;
+import com.profid.profid.exception.HttpStatusException;
+import com.profid.profid.utils.ConditionalRequest;
+import com.profid.profid.utils.RawResponse;
+import com.profid.profid.utils.WireFormat;
 import com.profid.profid.utils.v1.GenericWebClient;
 import com.profid.profid.utils.v2.GenericHttpClient;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
-import reactor.core.publisher.Flux;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class StudentSyncServiceImpl implements StudentSyncService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StudentSyncServiceImpl.class);
 
-    private final StudentRepository studentRepository;
+    private static final String NOT_MODIFIED_MESSAGE = "Upstream data not modified since the last sync";
+
+    // Pages come back in whichever format the upstream negotiated
+    private static final Map<WireFormat, ObjectReader> STUDENT_LIST_READERS = WireFormat.readersFor(
+            new TypeReference<List<StudentResponseDTO>>() {
+            });
+
     private final GenericWebClient genericWebClient;
     private final GenericHttpClient genericHttpClient;
+    private final StudentPersistenceService studentPersistenceService;
+    private final StudentWriteBehind studentWriteBehind;
+    private final FetchCoalescer fetchCoalescer;
+    private final HttpCacheService httpCacheService;
+    private final ExportWatermarkService exportWatermarkService;
+    private final FetchProperties fetchProperties;
+    private final IngestProperties ingestProperties;
+    private final ExportProperties exportProperties;
+    private final HttpClientProperties httpClientProperties;
+    private final ExecutorService exportExecutor;
+    private final SyncMetrics syncMetrics;
 
-    public StudentSyncServiceImpl(StudentRepository studentRepository, GenericWebClient genericWebClient, GenericHttpClient genericHttpClient) {
-        this.studentRepository = studentRepository;
+    public StudentSyncServiceImpl(GenericWebClient genericWebClient, GenericHttpClient genericHttpClient,
+                                  StudentPersistenceService studentPersistenceService, StudentWriteBehind studentWriteBehind,
+                                  FetchCoalescer fetchCoalescer, HttpCacheService httpCacheService,
+                                  ExportWatermarkService exportWatermarkService, FetchProperties fetchProperties, IngestProperties ingestProperties,
+                                  ExportProperties exportProperties, HttpClientProperties httpClientProperties,
+                                  ExecutorService exportExecutor, SyncMetrics syncMetrics) {
         this.genericWebClient = genericWebClient;
         this.genericHttpClient = genericHttpClient;
+        this.studentPersistenceService = studentPersistenceService;
+        this.studentWriteBehind = studentWriteBehind;
+        this.fetchCoalescer = fetchCoalescer;
+        this.httpCacheService = httpCacheService;
+        this.exportWatermarkService = exportWatermarkService;
+        this.fetchProperties = fetchProperties;
+        this.ingestProperties = ingestProperties;
+        this.exportProperties = exportProperties;
+        this.httpClientProperties = httpClientProperties;
+        this.exportExecutor = exportExecutor;
+        this.syncMetrics = syncMetrics;
     }
 
     // Fetch using GenericWebClient
     @Override
     public GeneralResponse fetchAndSaveUsingWebClient() {
-        String url = "https://example.org/students";
+        return fetchAndSaveUsingWebClient(new SyncProgress());
+    }
+
+    @Override
+    public GeneralResponse fetchAndSaveUsingWebClient(SyncProgress progress) {
+        return fetchCoalescer.fetch(progress, this::fetchUsingWebClient);
+    }
+
+    @Override
+    public Mono<GeneralResponse> fetchAndSaveUsingWebClientAsync() {
+        return fetchCoalescer.fetchAsync(this::fetchUsingWebClient);
+    }
+
+    private GeneralResponse fetchUsingWebClient(SyncProgress progress) {
+        String url = fetchProperties.getUrl();
         try {
-            List<StudentResponseDTO> students = genericWebClient
-                    .get(url, getAuthHeadersAsMap(), new ParameterizedTypeReference<List<StudentResponseDTO>>() {
-                    }, 10)
-                    .block();
+            if (fetchProperties.isPaged()) {
+                fetchPagesUsingWebClient(progress);
+            } else {
+                ConditionalRequest conditional = prepareConditional(url);
+                long started = System.nanoTime();
+                List<StudentResponseDTO> students = genericWebClient
+                        .get(url, getAuthHeadersAsMap(), new ParameterizedTypeReference<List<StudentResponseDTO>>() {
+                        }, 10, conditional)
+                        .block();
+                // The body is decoded as it arrives, so parse time is part of the network time here
+                addNetworkNanos(progress, System.nanoTime() - started);
+                if (isNotModified(url, conditional)) {
+                    return finishFetch("WebClient", progress, new GeneralResponse(NOT_MODIFIED_MESSAGE, "SUCCESS"));
+                }
 
-            if (students != null) {
-                saveStudentsToDatabase(students);
+                if (students != null) {
+                    progress.addFetched(students.size());
+                    saveStudentsToDatabase(students, progress);
+                }
+                commitConditional(url, conditional);
             }
+            logFetchPhases("WebClient", progress);
 
-            return new GeneralResponse("Data fetched and saved using WebClient", "SUCCESS");
+            return finishFetch("WebClient", progress, new GeneralResponse("Data fetched and saved using WebClient", "SUCCESS"));
         } catch (Exception e) {
-            return new GeneralResponse("Error fetching data using WebClient: " + e.getMessage(), "FAILURE");
+            return finishFetch("WebClient", progress,
+                    new GeneralResponse("Error fetching data using WebClient: " + e.getMessage(), "FAILURE"));
         }
     }
 
+    // Page N+1 is requested while page N is queued for the writers; publishOn lets at most prefetchPages pages queue up
+    private void fetchPagesUsingWebClient(SyncProgress progress) {
+        UpstreamPager pager = new UpstreamPager(fetchProperties);
+        long started = System.nanoTime();
+
+        try (StudentWriteBehind.Ingestion ingestion = studentWriteBehind.open(progress)) {
+            fetchPageUsingWebClient(pager, pager.firstPageUrl(), 0, progress)
+                    .expand(page -> page.getNextUrl() == null
+                            ? Mono.empty()
+                            : fetchPageUsingWebClient(pager, page.getNextUrl(), page.getIndex() + 1, progress))
+                    .publishOn(Schedulers.boundedElastic(), Math.max(1, fetchProperties.getPrefetchPages()))
+                    .doOnNext(page -> savePageToDatabase(page, ingestion, progress))
+                    .blockLast();
+            ingestion.finish();
+        }
+
+        logIngestThroughput(progress.getRecordsPersisted(), started);
+    }
+
+    private Mono<UpstreamPager.Page> fetchPageUsingWebClient(UpstreamPager pager, String url, int index, SyncProgress progress) {
+        return Mono.defer(() -> {
+            progress.checkCancelled();
+            long started = System.nanoTime();
+            return genericWebClient.getRaw(url, getAuthHeadersAsMap(), 10)
+                    .doOnNext(response -> addNetworkNanos(progress, System.nanoTime() - started))
+                    .flatMap(response -> Mono.fromCallable(() -> parsePage(pager, url, index, response, progress)));
+        });
+    }
+
 
     // Fetch using GenericHttpClient
     @Override
     public GeneralResponse fetchAndSaveUsingHttpClient() {
-        String url = "https://example.org/students";
+        return fetchAndSaveUsingHttpClient(new SyncProgress());
+    }
+
+    @Override
+    public GeneralResponse fetchAndSaveUsingHttpClient(SyncProgress progress) {
+        return fetchCoalescer.fetch(progress, this::fetchUsingHttpClient);
+    }
+
+    private GeneralResponse fetchUsingHttpClient(SyncProgress progress) {
+        String url = fetchProperties.getUrl();
         try {
-            List<StudentResponseDTO> students = genericHttpClient
-                    .get(url, getAuthHeadersAsMap(), new TypeReference<>() {
-                    }, 10);
+            if (fetchProperties.isPaged()) {
+                fetchPagesUsingHttpClient(progress);
+            } else {
+                ConditionalRequest conditional = prepareConditional(url);
+                long started = System.nanoTime();
+                try (StudentWriteBehind.Ingestion ingestion = studentWriteBehind.open(progress)) {
+                    genericHttpClient.getAsStream(url, getAuthHeadersAsMap(), StudentResponseDTO.class,
+                            ingestProperties.getBatchSize(), chunk -> {
+                                progress.checkCancelled();
+                                progress.addFetched(chunk.size());
+                                ingestion.submit(chunk);
+                            }, 10, conditional);
+                    // Reading and parsing are interleaved by the stream, so whatever was not waiting on the writers counts as network
+                    addNetworkNanos(progress, Math.max(System.nanoTime() - started - ingestion.getBlockedNanos(), 0));
+                    ingestion.finish();
+                }
+                if (isNotModified(url, conditional)) {
+                    return finishFetch("HttpClient", progress, new GeneralResponse(NOT_MODIFIED_MESSAGE, "SUCCESS"));
+                }
+                logIngestThroughput(progress.getRecordsPersisted(), started);
+                commitConditional(url, conditional);
+            }
+            logFetchPhases("HttpClient", progress);
 
-            if (students != null) {
-                saveStudentsToDatabase(students);
+            return finishFetch("HttpClient", progress, new GeneralResponse("Data fetched and saved using HttpClient", "SUCCESS"));
+        } catch (IOException | RuntimeException e) {
+            // RuntimeException covers failed writers and cancellation, reported like the WebClient path does
+            return finishFetch("HttpClient", progress,
+                    new GeneralResponse("Error fetching data using HttpClient: " + e.getMessage(), "FAILURE"));
+        }
+    }
+
+    /**
+     * A prefetch thread downloads and parses pages into a queue of prefetchPages while the calling thread
+     * hands them to the writers, so the network and the database work at the same time. The full queue blocks
+     * the prefetcher, which bounds memory to a few pages.
+     */
+    private void fetchPagesUsingHttpClient(SyncProgress progress) throws IOException {
+        UpstreamPager pager = new UpstreamPager(fetchProperties);
+        BlockingQueue<UpstreamPager.Page> pages = new ArrayBlockingQueue<>(Math.max(1, fetchProperties.getPrefetchPages()));
+        AtomicReference<Exception> fetchFailure = new AtomicReference<>();
+        long started = System.nanoTime();
+
+        Thread prefetcher = new Thread(() -> {
+            try {
+                try {
+                    String url = pager.firstPageUrl();
+                    for (int index = 0; url != null; index++) {
+                        progress.checkCancelled();
+                        long requested = System.nanoTime();
+                        RawResponse response = genericHttpClient.getRaw(url, getAuthHeadersAsMap(), 10);
+                        addNetworkNanos(progress, System.nanoTime() - requested);
+
+                        UpstreamPager.Page page = parsePage(pager, url, index, response, progress);
+                        pages.put(page);
+                        url = page.getNextUrl();
+                    }
+                } catch (IOException | RuntimeException e) {
+                    fetchFailure.set(e);
+                }
+                pages.put(UpstreamPager.Page.END);
+            } catch (InterruptedException e) {
+                // The persisting side has stopped and no longer reads the queue
+                Thread.currentThread().interrupt();
+            }
+        }, "student-prefetch");
+        prefetcher.setDaemon(true);
+        prefetcher.start();
+
+        try (StudentWriteBehind.Ingestion ingestion = studentWriteBehind.open(progress)) {
+            try {
+                for (UpstreamPager.Page page = pages.take(); page != UpstreamPager.Page.END; page = pages.take()) {
+                    savePageToDatabase(page, ingestion, progress);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Sync was interrupted");
+            } finally {
+                prefetcher.interrupt();
             }
 
-            return new GeneralResponse("Data fetched and saved using HttpClient", "SUCCESS");
-        } catch (IOException e) {
-            return new GeneralResponse("Error fetching data using HttpClient: " + e.getMessage(), "FAILURE");
+            Exception failure = fetchFailure.get();
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            ingestion.finish();
+        }
+        logIngestThroughput(progress.getRecordsPersisted(), started);
+    }
+
+    private UpstreamPager.Page parsePage(UpstreamPager pager, String url, int index, RawResponse response,
+                                        SyncProgress progress) throws IOException {
+        long started = System.nanoTime();
+        List<StudentResponseDTO> students = response.getBody().length == 0
+                ? List.of()
+                : STUDENT_LIST_READERS.get(WireFormat.fromContentType(response.getHeader("Content-Type")))
+                        .readValue(response.getBody());
+        long parseNanos = System.nanoTime() - started;
+        progress.addParseNanos(parseNanos);
+        syncMetrics.recordPhase(SyncMetrics.Phase.PARSE, parseNanos);
+        progress.addFetched(students.size());
+        return new UpstreamPager.Page(index, students, pager.nextPageUrl(url, index, response, students.size()));
+    }
+
+    // Null when conditional requests are disabled
+    private ConditionalRequest prepareConditional(String url) {
+        return fetchProperties.isConditionalRequests() ? httpCacheService.prepare(url) : null;
+    }
+
+    // A 304 means our last persisted copy is current, so there is nothing to parse or save
+    private boolean isNotModified(String url, ConditionalRequest conditional) {
+        if (conditional == null) {
+            return false;
+        }
+        httpCacheService.recordOutcome(conditional);
+        if (conditional.isNotModified()) {
+            LOGGER.info("Upstream data at {} was not modified since the last sync, nothing to save", url);
+            return true;
+        }
+        return false;
+    }
+
+    private void commitConditional(String url, ConditionalRequest conditional) {
+        if (conditional != null) {
+            httpCacheService.commit(url, conditional);
         }
     }
 
+    private void logFetchPhases(String client, SyncProgress progress) {
+        LOGGER.info("Fetched {} students using {}: network {} ms, parse {} ms, persist {} ms", progress.getRecordsFetched(),
+                client, progress.getNetworkMillis(), progress.getParseMillis(), progress.getPersistMillis());
+    }
+
+    private GeneralResponse finishFetch(String client, SyncProgress progress, GeneralResponse response) {
+        syncMetrics.recordRun("fetch", client, response.getStatus(), progress.getRecordsFetched());
+        return response;
+    }
+
+    private void addNetworkNanos(SyncProgress progress, long nanos) {
+        progress.addNetworkNanos(nanos);
+        syncMetrics.recordPhase(SyncMetrics.Phase.FETCH, nanos);
+    }
+
 
     // Post using GenericWebClient
     @Override
-    public GeneralResponse postStudentsUsingWebClient(String postUrl) {
+    public ExportResponse postStudentsUsingWebClient(String postUrl) {
+        return postStudentsUsingWebClient(postUrl, new SyncProgress());
+    }
+
+    @Override
+    public ExportResponse postStudentsUsingWebClient(String postUrl, SyncProgress progress) {
+        return postStudentsUsingWebClient(postUrl, false, progress);
+    }
+
+    @Override
+    public ExportResponse postStudentsUsingWebClient(String postUrl, boolean fullResend, SyncProgress progress) {
         if (postUrl == null || postUrl.isEmpty()) {
-            return new GeneralResponse("Post URL is null or empty", "FAILURE");
+            return new ExportResponse("Post URL is null or empty", "FAILURE");
         }
 
         try {
-            List<Student> students = studentRepository.findAll();
+            ExportWatermark start = fullResend ? null : exportWatermarkService.findByTargetUrl(postUrl).orElse(null);
+            ExportTracker tracker = new ExportTracker("WebClient", progress, start != null, syncMetrics);
+            Instant cutoff = exportCutoff();
+            WatermarkTracker watermark = new WatermarkTracker(postUrl, fullResend, cutoff, exportWatermarkService);
 
-            if (students.isEmpty()) {
-                return new GeneralResponse("No students found in the database", "FAILURE");
-            }
-
-            Flux.fromIterable(students)
-                    .buffer(10)
-                    .flatMap(batch -> genericWebClient.post(postUrl, getAuthHeadersAsMap(), batch, GeneralResponse.class, 10))
+            // Pages are read on demand, so the first batch is posted while later pages are still unread
+            Mono.fromCallable(() -> firstExportPage(start, fullResend, cutoff))
+                    .expand(page -> page.size() < exportProperties.getPageSize()
+                            ? Mono.empty()
+                            : Mono.fromCallable(() -> nextExportPage(page, fullResend, cutoff)))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMapIterable(this::partitionForExport)
+                    .doOnNext(batch -> progress.checkCancelled())
+                    .flatMap(batch -> {
+                        long sequence = watermark.register();
+                        // The watermark is written to the database, so not on the event loop
+                        return postBatchUsingWebClient(postUrl, batch, tracker)
+                                .publishOn(Schedulers.boundedElastic())
+                                .doOnNext(delivered -> recordDelivery(watermark, sequence, batch, delivered));
+                    })
                     .blockLast();
 
-            return new GeneralResponse("Data successfully posted using WebClient", "SUCCESS");
+            watermark.completed();
+            return tracker.toResponse();
         } catch (Exception e) {
             LOGGER.error("Error posting data using WebClient: {}", e.getMessage(), e);
-            return new GeneralResponse("Error posting data using WebClient: " + e.getMessage(), "FAILURE");
+            return new ExportResponse("Error posting data using WebClient: " + e.getMessage(), "FAILURE");
         }
     }
 
     // Post using GenericHttpClient
     @Override
-    public GeneralResponse postStudentsUsingHttpClient(String postUrl) {
+    public ExportResponse postStudentsUsingHttpClient(String postUrl) {
+        return postStudentsUsingHttpClient(postUrl, new SyncProgress());
+    }
+
+    @Override
+    public ExportResponse postStudentsUsingHttpClient(String postUrl, SyncProgress progress) {
+        return postStudentsUsingHttpClient(postUrl, false, progress);
+    }
+
+    @Override
+    public ExportResponse postStudentsUsingHttpClient(String postUrl, boolean fullResend, SyncProgress progress) {
         if (postUrl == null || postUrl.isEmpty()) {
-            return new GeneralResponse("Post URL is null or empty", "FAILURE");
+            return new ExportResponse("Post URL is null or empty", "FAILURE");
         }
 
+        ExportWatermark start = fullResend ? null : exportWatermarkService.findByTargetUrl(postUrl).orElse(null);
+        ExportTracker tracker = new ExportTracker("HttpClient", progress, start != null, syncMetrics);
+        Instant cutoff = exportCutoff();
+        WatermarkTracker watermark = new WatermarkTracker(postUrl, fullResend, cutoff, exportWatermarkService);
+        int inFlight = httpClientInFlightLimit();
+        Semaphore permits = new Semaphore(inFlight);
         try {
-            List<Student> students = studentRepository.findAll();
+            List<StudentExportRow> page = firstExportPage(start, fullResend, cutoff);
 
-            if (students.isEmpty()) {
-                return new GeneralResponse("No students found in the database", "FAILURE");
+            while (!page.isEmpty()) {
+                for (List<StudentExportRow> batch : partitionForExport(page)) {
+                    progress.checkCancelled();
+                    long sequence = watermark.register();
+                    if (inFlight == 1) {
+                        recordDelivery(watermark, sequence, batch, postBatchUsingHttpClient(postUrl, batch, tracker));
+                    } else {
+                        // Blocks page reading once inFlight posts are outstanding
+                        permits.acquire();
+                        exportExecutor.execute(() -> {
+                            try {
+                                recordDelivery(watermark, sequence, batch, postBatchUsingHttpClient(postUrl, batch, tracker));
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                tracker.failed(batch, 0, e);
+                                watermark.failed();
+                            } catch (RuntimeException e) {
+                                tracker.failed(batch, 0, e);
+                                watermark.failed();
+                            } finally {
+                                permits.release();
+                            }
+                        });
+                    }
+                }
+                page = nextExportPage(page, fullResend, cutoff);
             }
 
-            List<List<Student>> batches = partitionList(students, 10);
-            for (List<Student> batch : batches) {
+            // Wait for the outstanding posts
+            permits.acquire(inFlight);
+            watermark.completed();
+            return tracker.toResponse();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Posting data using HttpClient was interrupted after {} batches", tracker.batches());
+            return tracker.toResponse();
+        } catch (CancellationException e) {
+            LOGGER.warn("Posting data using HttpClient was cancelled after {} batches", tracker.batches());
+            return tracker.toResponse();
+        }
+    }
+
+    // Rows flushed before this instant belong to transactions that have committed by the time the run reads them
+    private Instant exportCutoff() {
+        return Instant.now().minusMillis(exportProperties.getWatermarkSafetyLag()).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    // A full resend walks the id keyset from the start; a delta walks (updatedAt, id) from the watermark up to the cutoff
+    private List<StudentExportRow> firstExportPage(ExportWatermark start, boolean fullResend, Instant cutoff) {
+        int pageSize = exportProperties.getPageSize();
+        if (fullResend) {
+            return studentPersistenceService.findPageAfter(0L, pageSize);
+        }
+        return start == null
+                ? studentPersistenceService.findChangedPageAfter(Instant.EPOCH, 0L, cutoff, pageSize)
+                : studentPersistenceService.findChangedPageAfter(start.getUpdatedAt(), start.getStudentId(), cutoff, pageSize);
+    }
+
+    private List<StudentExportRow> nextExportPage(List<StudentExportRow> page, boolean fullResend, Instant cutoff) {
+        int pageSize = exportProperties.getPageSize();
+        if (page.size() < pageSize) {
+            return List.of();
+        }
+        StudentExportRow last = page.get(page.size() - 1);
+        return fullResend
+                ? studentPersistenceService.findPageAfter(last.id(), pageSize)
+                : studentPersistenceService.findChangedPageAfter(last.updatedAt(), last.id(), cutoff, pageSize);
+    }
+
+    private static void recordDelivery(WatermarkTracker watermark, long sequence, List<StudentExportRow> batch, boolean delivered) {
+        if (delivered) {
+            watermark.acknowledged(sequence, batch);
+        } else {
+            watermark.failed();
+        }
+    }
+
+    private int httpClientInFlightLimit() {
+        if (exportProperties.getHttpClientMode() != ExportProperties.Mode.CONCURRENT || exportProperties.isPreserveOrder()) {
+            return 1;
+        }
+        // Every post goes to the same route, so more in-flight requests than route connections would only queue in the pool
+        return Math.max(1, Math.min(exportProperties.getMaxInFlight(), httpClientProperties.getMaxRouteConnections()));
+    }
+
+    // Emits whether the batch was delivered; failures are recorded in the tracker instead of failing the export
+    private Mono<Boolean> postBatchUsingWebClient(String postUrl, List<StudentExportRow> batch, ExportTracker tracker) {
+        AtomicInteger retries = new AtomicInteger();
+        AtomicLong started = new AtomicLong();
+        return genericWebClient.post(postUrl, getAuthHeadersAsMap(), batch, GeneralResponse.class, 10)
+                .retryWhen(Retry.backoff(exportProperties.getMaxRetries(), Duration.ofMillis(exportProperties.getInitialBackoff()))
+                        .maxBackoff(Duration.ofMillis(exportProperties.getMaxBackoff()))
+                        .jitter(0.5)
+                        .filter(this::isRetryable)
+                        .doBeforeRetry(signal -> retries.incrementAndGet())
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnSuccess(response -> tracker.succeeded(batch, retries.get()))
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    LOGGER.error("Batch of {} students failed after {} retries: {}", batch.size(), retries.get(), e.getMessage());
+                    tracker.failed(batch, retries.get(), e);
+                    return Mono.just(false);
+                })
+                .doOnSubscribe(subscription -> started.set(System.nanoTime()))
+                .doOnNext(delivered -> syncMetrics.recordPhase(SyncMetrics.Phase.POST, System.nanoTime() - started.get()));
+    }
+
+    // Returns whether the batch was delivered
+    private boolean postBatchUsingHttpClient(String postUrl, List<StudentExportRow> batch, ExportTracker tracker) throws InterruptedException {
+        long started = System.nanoTime();
+        try {
+            return postBatchWithRetries(postUrl, batch, tracker);
+        } finally {
+            syncMetrics.recordPhase(SyncMetrics.Phase.POST, System.nanoTime() - started);
+        }
+    }
+
+    private boolean postBatchWithRetries(String postUrl, List<StudentExportRow> batch, ExportTracker tracker) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
                 genericHttpClient.post(postUrl, getAuthHeadersAsMap(), batch, GeneralResponse.class, 10);
+                tracker.succeeded(batch, attempt);
+                return true;
+            } catch (IOException e) {
+                if (attempt >= exportProperties.getMaxRetries() || !isRetryable(e)) {
+                    LOGGER.error("Batch of {} students failed after {} retries: {}", batch.size(), attempt, e.getMessage());
+                    tracker.failed(batch, attempt, e);
+                    return false;
+                }
+                Thread.sleep(backoffMillis(attempt));
             }
+        }
+    }
 
-            return new GeneralResponse("Data successfully posted using HttpClient", "SUCCESS");
-        } catch (IOException e) {
-            LOGGER.error("Error posting data using HttpClient: {}", e.getMessage(), e);
-            return new GeneralResponse("Error posting data using HttpClient: " + e.getMessage(), "FAILURE");
+    private List<List<StudentExportRow>> partitionForExport(List<StudentExportRow> page) {
+        return ExportBatcher.partition(page, exportProperties.getBatchSize(), exportProperties.getMaxBatchBytes());
+    }
+
+    private boolean isRetryable(Throwable e) {
+        if (e instanceof HttpStatusException statusException) {
+            return exportProperties.getRetryableStatuses().contains(statusException.getStatusCode());
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            return exportProperties.getRetryableStatuses().contains(responseException.getStatusCode().value());
         }
+        // Connection failures and timeouts
+        return e instanceof IOException || e instanceof WebClientRequestException || e instanceof TimeoutException;
     }
 
+    // Exponential backoff with "equal jitter": half of the delay is fixed, the other half random
+    private long backoffMillis(int attempt) {
+        long delay = Math.min(exportProperties.getMaxBackoff(), exportProperties.getInitialBackoff() << Math.min(attempt, 20));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
 
-    private void saveStudentsToDatabase(List<StudentResponseDTO> students) {
-        for (StudentResponseDTO studentDTO : students) {
-            Student student = new Student();
-            student.setName(studentDTO.getName());
-            student.setEmail(studentDTO.getEmail());
-            student.setAge(studentDTO.getAge());
-            student.setGender(studentDTO.getGender());
-            student.setPhoneNumber(studentDTO.getPhoneNumber());
-            student.setAddress(studentDTO.getAddress());
 
-            List<Subject> subjects = studentDTO.getSubjects().stream().map(subjectDTO -> {
-                Subject subject = new Subject();
-                subject.setName(subjectDTO.getName());
-                subject.setCredits(subjectDTO.getCredits());
-                subject.setDescription(subjectDTO.getDescription());
-                subject.setStudent(student);
-                return subject;
-            }).toList();
+    private void saveStudentsToDatabase(List<StudentResponseDTO> students, SyncProgress progress) {
+        long started = System.nanoTime();
+        try (StudentWriteBehind.Ingestion ingestion = studentWriteBehind.open(progress)) {
+            for (List<StudentResponseDTO> chunk : partitionList(students, ingestProperties.getBatchSize())) {
+                progress.checkCancelled();
+                ingestion.submit(chunk);
+            }
+            ingestion.finish();
+        }
+        logIngestThroughput(progress.getRecordsPersisted(), started);
+    }
 
-            student.setSubjects(subjects);
-            studentRepository.save(student);
+    private void savePageToDatabase(UpstreamPager.Page page, StudentWriteBehind.Ingestion ingestion, SyncProgress progress) {
+        for (List<StudentResponseDTO> chunk : partitionList(page.getStudents(), ingestProperties.getBatchSize())) {
+            progress.checkCancelled();
+            ingestion.submit(chunk);
         }
     }
 
+    private void logIngestThroughput(long rows, long startedNanos) {
+        long elapsedNanos = Math.max(System.nanoTime() - startedNanos, 1);
+        double rowsPerSecond = rows * 1_000_000_000d / elapsedNanos;
+        LOGGER.info("Persisted {} students in {} ms ({} rows/sec, batch size {})",
+                rows, elapsedNanos / 1_000_000, String.format("%.1f", rowsPerSecond), ingestProperties.getBatchSize());
+    }
+
     private Map<String, String> getAuthHeadersAsMap() {
         String auth = "admin:pass1234";
         String encodedAuth = Base64.getEncoder().encodeToString(auth.getBytes());
@@ -0,0 +1,388 @@
+package com.profid.profid.service;
+
+import com.profid.profid.config.IngestProperties;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind stage between fetching and the database. Fetches submit chunks of students into bounded queues,
+ * and writer threads commit them in batches of {@code ingest.batchSize}, or whatever arrived within
+ * {@code ingest.flushInterval}, one transaction per batch and sync. A full queue blocks the submitting fetch, so
+ * a slow database still throttles the upstream download, but only once {@code ingest.queueCapacity} students are
+ * waiting. Queue entries are chunks rather than single students, which keeps the hand-off to one lock and wake-up
+ * per chunk. With {@code ingest.writeBehind} off, students are persisted on the submitting thread as before.
+ */
+@Component
+public class StudentWriteBehind {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StudentWriteBehind.class);
+
+    // How often a blocked submit or an idle writer looks at the shutdown flag
+    private static final long POLL_MILLIS = 100;
+
+    private final StudentPersistenceService studentPersistenceService;
+    private final IngestProperties ingestProperties;
+    private final SyncMetrics syncMetrics;
+
+    private final List<BlockingQueue<Queued>> queues = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public StudentWriteBehind(StudentPersistenceService studentPersistenceService, IngestProperties ingestProperties,
+                              SyncMetrics syncMetrics) {
+        this.studentPersistenceService = studentPersistenceService;
+        this.ingestProperties = ingestProperties;
+        this.syncMetrics = syncMetrics;
+        if (ingestProperties.isWriteBehind()) {
+            // The capacity is counted in chunks of batchSize students
+            int capacity = Math.max(1, ingestProperties.getQueueCapacity() / Math.max(1, ingestProperties.getBatchSize()));
+            for (int i = 0; i < Math.max(1, ingestProperties.getWriterThreads()); i++) {
+                BlockingQueue<Queued> queue = new ArrayBlockingQueue<>(capacity);
+                Thread writer = new Thread(() -> drain(queue), "student-writer-" + i);
+                writer.setDaemon(true);
+                queues.add(queue);
+                writers.add(writer);
+            }
+            writers.forEach(Thread::start);
+        }
+        syncMetrics.gaugeQueueDepth(this::queuedStudents);
+    }
+
+    // One per sync run; collects what its students cost and whether any of them failed
+    public Ingestion open(SyncProgress progress) {
+        return new Ingestion(progress);
+    }
+
+    /**
+     * Stops accepting students and gives the writers {@code ingest.shutdownTimeout} to commit what is queued.
+     * Whatever is left after that fails its sync instead of being dropped silently.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ingestProperties.getShutdownTimeout());
+        try {
+            for (Thread writer : writers) {
+                writer.join(Math.max(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()), 1));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        writers.forEach(Thread::interrupt);
+        for (BlockingQueue<Queued> queue : queues) {
+            List<Queued> left = new ArrayList<>();
+            queue.drainTo(left);
+            abandon(left);
+        }
+    }
+
+    private void abandon(List<Queued> left) {
+        int abandoned = 0;
+        IllegalStateException failure = new IllegalStateException("Write-behind queue was shut down before the students were saved");
+        for (Queued queued : left) {
+            if (queued.students() != null) {
+                queued.ingestion().failed(failure);
+                queued.ingestion().done(queued.students().size());
+                abandoned += queued.students().size();
+            }
+        }
+        if (abandoned > 0) {
+            LOGGER.warn("Write-behind queue shut down with {} students not saved", abandoned);
+        }
+    }
+
+    // Scraped rarely, and a queue holds only queueCapacity / batchSize chunks
+    private int queuedStudents() {
+        int students = 0;
+        for (BlockingQueue<Queued> queue : queues) {
+            for (Queued queued : queue) {
+                students += queued.students() == null ? 0 : queued.students().size();
+            }
+        }
+        return students;
+    }
+
+    private void drain(BlockingQueue<Queued> queue) {
+        List<Queued> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                nextBatch(queue, batch);
+            } catch (InterruptedException e) {
+                // Interrupted only after the shutdown timeout; what is still queued is failed by shutdown()
+                Thread.currentThread().interrupt();
+                abandon(batch);
+                return;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Takes chunks until the batch holds {@code ingest.batchSize} students, waiting at most
+     * {@code ingest.flushInterval} after its oldest chunk. A flush marker ends the batch early, so a sync that is
+     * done never waits out the interval.
+     */
+    private void nextBatch(BlockingQueue<Queued> queue, List<Queued> batch) throws InterruptedException {
+        Queued first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        int batchSize = Math.max(1, ingestProperties.getBatchSize());
+        long deadline = first.queuedNanos() + TimeUnit.MILLISECONDS.toNanos(ingestProperties.getFlushInterval());
+        int students = 0;
+        for (int scanned = 0; ; ) {
+            for (; scanned < batch.size(); scanned++) {
+                if (batch.get(scanned).students() == null) {
+                    return;
+                }
+                students += batch.get(scanned).students().size();
+            }
+            long remaining = deadline - System.nanoTime();
+            // On shutdown, partial batches are committed right away
+            if (students >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            Queued next = queue.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_MILLIS)), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    /**
+     * Students of different syncs are committed separately, so one sync's bad data cannot fail another. Chunks
+     * that together exceed {@code ingest.batchSize} are committed in several transactions.
+     */
+    private void write(List<Queued> batch) {
+        Map<Ingestion, List<StudentResponseDTO>> bySync = new LinkedHashMap<>();
+        long oldestNanos = batch.get(0).queuedNanos();
+        for (Queued queued : batch) {
+            if (queued.students() != null) {
+                bySync.computeIfAbsent(queued.ingestion(), ingestion -> new ArrayList<>()).addAll(queued.students());
+            }
+        }
+
+        int batchSize = Math.max(1, ingestProperties.getBatchSize());
+        try {
+            bySync.forEach((ingestion, students) -> {
+                for (int i = 0; i < students.size(); i += batchSize) {
+                    List<StudentResponseDTO> chunk = students.subList(i, Math.min(i + batchSize, students.size()));
+                    try {
+                        // A cancelled or failed sync stops at its next chunk, like without the queue
+                        if (!ingestion.progress.isCancelled() && ingestion.failure() == null) {
+                            ingestion.save(chunk);
+                        }
+                    } catch (RuntimeException e) {
+                        LOGGER.error("Saving a batch of {} students failed: {}", chunk.size(), e.getMessage(), e);
+                        ingestion.failed(e);
+                    }
+                }
+            });
+            if (!bySync.isEmpty()) {
+                syncMetrics.recordQueueLatency(System.nanoTime() - oldestNanos);
+            }
+        } finally {
+            // Only now may finish() return
+            bySync.forEach((ingestion, students) -> ingestion.done(students.size()));
+        }
+    }
+
+    // Students are routed by email, so each writer sees the updates of a student in order
+    private Map<BlockingQueue<Queued>, List<StudentResponseDTO>> byQueue(List<StudentResponseDTO> students) {
+        if (queues.size() == 1) {
+            return Map.of(queues.get(0), new ArrayList<>(students));
+        }
+        Map<BlockingQueue<Queued>, List<StudentResponseDTO>> byQueue = new LinkedHashMap<>();
+        for (StudentResponseDTO student : students) {
+            BlockingQueue<Queued> queue = queues.get(Math.floorMod(Objects.hashCode(student.getEmail()), queues.size()));
+            byQueue.computeIfAbsent(queue, q -> new ArrayList<>()).add(student);
+        }
+        return byQueue;
+    }
+
+    // A chunk of students waiting for a writer, or a flush marker when students is null
+    private record Queued(List<StudentResponseDTO> students, Ingestion ingestion, long queuedNanos) {
+    }
+
+    /**
+     * The students of one sync run in the queues. {@link #submit} returns once they are queued; {@link #finish}
+     * waits until they are committed and rethrows the first failure, so a sync reports success only for saved data.
+     * {@link #close} ends a sync that stopped before {@code finish}: what it still has queued is dropped, not committed.
+     */
+    public class Ingestion implements AutoCloseable {
+
+        private final SyncProgress progress;
+        private final Set<BlockingQueue<Queued>> used = new HashSet<>();
+        private long pending;
+        private RuntimeException failure;
+        private boolean finished;
+        private volatile long blockedNanos;
+
+        private Ingestion(SyncProgress progress) {
+            this.progress = progress;
+        }
+
+        /**
+         * Queues the students, blocking while the queue is full. Without write-behind they are saved right here, in
+         * chunks of {@code ingest.batchSize}. Throws the failure of an earlier batch, so a failed sync stops fetching.
+         */
+        public void submit(List<StudentResponseDTO> students) {
+            long started = System.nanoTime();
+            try {
+                if (!ingestProperties.isWriteBehind()) {
+                    int batchSize = Math.max(1, ingestProperties.getBatchSize());
+                    for (int i = 0; i < students.size(); i += batchSize) {
+                        progress.checkCancelled();
+                        save(students.subList(i, Math.min(i + batchSize, students.size())));
+                    }
+                    return;
+                }
+                throwIfFailed();
+                if (!students.isEmpty()) {
+                    byQueue(students).forEach(this::enqueue);
+                }
+            } finally {
+                blockedNanos += System.nanoTime() - started;
+            }
+        }
+
+        /**
+         * Flushes the queues this sync used and waits until its students are committed.
+         */
+        public void finish() {
+            if (!ingestProperties.isWriteBehind()) {
+                return;
+            }
+            List<BlockingQueue<Queued>> toFlush;
+            synchronized (this) {
+                toFlush = new ArrayList<>(used);
+            }
+            // After shutdown there is no writer to flush, and shutdown() already settled what was queued
+            if (running) {
+                for (BlockingQueue<Queued> queue : toFlush) {
+                    enqueue(queue, null);
+                }
+            }
+            try {
+                synchronized (this) {
+                    while (pending > 0) {
+                        wait();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Sync was interrupted");
+            }
+            synchronized (this) {
+                finished = true;
+            }
+            throwIfFailed();
+        }
+
+        /**
+         * Unless {@link #finish} got through, marks the sync failed, so the writers skip its chunks still queued
+         * instead of committing them after the sync reported its failure, and waits until they have let go of them,
+         * so a retry never overlaps this sync's writes.
+         */
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+            }
+            failed(new CancellationException("Sync ended before its students were saved"));
+            try {
+                synchronized (this) {
+                    while (pending > 0) {
+                        wait();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Time the submitting thread spent in submit: queue backpressure, or persisting without write-behind
+        public long getBlockedNanos() {
+            return blockedNanos;
+        }
+
+        // students is null for a flush marker
+        private void enqueue(BlockingQueue<Queued> queue, List<StudentResponseDTO> students) {
+            int count = students == null ? 0 : students.size();
+            synchronized (this) {
+                pending += count;
+                used.add(queue);
+            }
+            Queued queued = new Queued(students, this, System.nanoTime());
+            try {
+                while (!queue.offer(queued, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (!running) {
+                        throw new IllegalStateException("Write-behind queue is shut down");
+                    }
+                    progress.checkCancelled();
+                }
+                // Raced with shutdown: unless a writer or shutdown() already took it, nobody will
+                if (!running && count > 0 && queue.remove(queued)) {
+                    throw new IllegalStateException("Write-behind queue is shut down");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                done(count);
+                throw new CancellationException("Sync was interrupted");
+            } catch (RuntimeException e) {
+                done(count);
+                throw e;
+            }
+        }
+
+        private void save(List<StudentResponseDTO> students) {
+            long started = System.nanoTime();
+            int persisted = studentPersistenceService.saveChunk(students);
+            long persistNanos = System.nanoTime() - started;
+            progress.addPersistNanos(persistNanos);
+            syncMetrics.recordPhase(SyncMetrics.Phase.PERSIST, persistNanos);
+            progress.addPersisted(persisted);
+        }
+
+        private synchronized void failed(RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        private synchronized RuntimeException failure() {
+            return failure;
+        }
+
+        private synchronized void done(int count) {
+            pending -= count;
+            if (pending <= 0) {
+                notifyAll();
+            }
+        }
+
+        private void throwIfFailed() {
+            RuntimeException e = failure();
+            if (e != null) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.response.SubjectResponseDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Moves subjects stored per student (the legacy {@code subjects} table with a {@code student_id} column) into the
+ * shared catalog and the {@code student_subjects} link table, then drops the legacy table. Runs at startup after
+ * Hibernate created the new tables; safe to run again if it was interrupted. Loads the interning cache either way.
+ */
+@Component
+public class SubjectCatalogMigration implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubjectCatalogMigration.class);
+
+    private static final String LEGACY_TABLE_EXISTS = "select count(*) from information_schema.columns " +
+            "where upper(table_name) = 'SUBJECTS' and upper(column_name) = 'STUDENT_ID'";
+
+    // Catalog entries match legacy rows on all three fields; description is nullable
+    private static final String INSERT_LINKS = "insert into student_subjects (student_id, subject_id) " +
+            "select distinct l.student_id, c.id from subjects l join subject_catalog c " +
+            "on c.name = l.name and c.credits = l.credits " +
+            "and (c.description = l.description or (c.description is null and l.description is null)) " +
+            "where not exists (select 1 from student_subjects x where x.student_id = l.student_id and x.subject_id = c.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SubjectCatalogService subjectCatalogService;
+
+    public SubjectCatalogMigration(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                   SubjectCatalogService subjectCatalogService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.subjectCatalogService = subjectCatalogService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer legacyTables = jdbcTemplate.queryForObject(LEGACY_TABLE_EXISTS, Integer.class);
+        if (legacyTables != null && legacyTables > 0) {
+            migrate();
+        }
+        subjectCatalogService.reload();
+    }
+
+    private void migrate() {
+        List<SubjectResponseDTO> distinctSubjects = jdbcTemplate.query(
+                "select distinct name, credits, description from subjects",
+                (rs, rowNum) -> new SubjectResponseDTO(rs.getString("name"), rs.getObject("credits", Integer.class),
+                        rs.getString("description")));
+        LOGGER.info("Migrating {} distinct legacy subjects into the subject catalog", distinctSubjects.size());
+
+        // Inserts the missing catalog entries in their own transaction
+        subjectCatalogService.resolve(distinctSubjects);
+        Integer links = transactionTemplate.execute(status -> jdbcTemplate.update(INSERT_LINKS));
+
+        jdbcTemplate.execute("drop table subjects");
+        jdbcTemplate.execute("drop sequence if exists subject_seq");
+        LOGGER.info("Linked {} legacy subject rows to the catalog and dropped the subjects table", links);
+    }
+}
@@ -0,0 +1,14 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.response.SubjectResponseDTO;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface SubjectCatalogService {
+    // Catalog ids of the given subjects, adding the ones that are not in the catalog yet
+    Map<SubjectKey, Long> resolve(Collection<SubjectResponseDTO> subjects);
+
+    // Reload the interning cache from the catalog table, returns the number of entries
+    int reload();
+}
@@ -0,0 +1,122 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.response.SubjectResponseDTO;
+import com.profid.profid.entity.Subject;
+import com.profid.profid.mapper.StudentMapper;
+import com.profid.profid.repository.SubjectRepository;
+import com.profid.profid.repository.projection.SubjectCatalogIdentity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns subjects into the catalog. The whole catalog is small compared to the students referencing it, so its
+ * ids are kept in memory: bulk-loaded once, then filled as new subjects show up.
+ */
+@Service
+public class SubjectCatalogServiceImpl implements SubjectCatalogService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubjectCatalogServiceImpl.class);
+
+    private final SubjectRepository subjectRepository;
+    private final TransactionTemplate newTransaction;
+
+    private final Map<SubjectKey, Long> ids = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public SubjectCatalogServiceImpl(SubjectRepository subjectRepository, PlatformTransactionManager transactionManager) {
+        this.subjectRepository = subjectRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public Map<SubjectKey, Long> resolve(Collection<SubjectResponseDTO> subjects) {
+        if (!loaded) {
+            reload();
+        }
+        Map<SubjectKey, Long> resolved = new HashMap<>();
+        Map<SubjectKey, SubjectResponseDTO> missing = new LinkedHashMap<>();
+        for (SubjectResponseDTO subjectDTO : subjects) {
+            SubjectKey key = SubjectKey.of(subjectDTO);
+            Long id = ids.get(key);
+            if (id != null) {
+                resolved.put(key, id);
+            } else {
+                missing.putIfAbsent(key, subjectDTO);
+            }
+        }
+        if (!missing.isEmpty()) {
+            resolved.putAll(insertMissing(missing));
+        }
+        return resolved;
+    }
+
+    @Override
+    public synchronized int reload() {
+        Map<SubjectKey, Long> loadedIds = new HashMap<>();
+        for (SubjectCatalogIdentity identity : subjectRepository.findAllCatalogIdentities()) {
+            loadedIds.put(keyOf(identity), identity.getId());
+        }
+        ids.clear();
+        ids.putAll(loadedIds);
+        loaded = true;
+        LOGGER.info("Loaded {} subject catalog entries", loadedIds.size());
+        return loadedIds.size();
+    }
+
+    /**
+     * Synchronized so two chunks missing the same subject do not both insert it. The entries are committed in
+     * their own transaction, so the cached ids stay valid even when the chunk that needed them rolls back.
+     */
+    private synchronized Map<SubjectKey, Long> insertMissing(Map<SubjectKey, SubjectResponseDTO> missing) {
+        Map<SubjectKey, Long> resolved = new HashMap<>();
+        Map<String, SubjectResponseDTO> toInsert = new LinkedHashMap<>();
+        for (Map.Entry<SubjectKey, SubjectResponseDTO> entry : missing.entrySet()) {
+            Long id = ids.get(entry.getKey());
+            if (id != null) {
+                resolved.put(entry.getKey(), id);
+            } else {
+                SubjectResponseDTO subjectDTO = entry.getValue();
+                toInsert.put(StudentMapper.subjectKey(subjectDTO.getName(), subjectDTO.getCredits(),
+                        subjectDTO.getDescription()), subjectDTO);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return resolved;
+        }
+
+        Map<SubjectKey, Long> inserted = newTransaction.execute(status -> {
+            Map<SubjectKey, Long> result = new HashMap<>();
+            // Entries another instance added since the cache was loaded
+            for (SubjectCatalogIdentity identity : subjectRepository.findCatalogIdentitiesByCatalogKeyIn(toInsert.keySet())) {
+                result.put(keyOf(identity), identity.getId());
+            }
+            List<Subject> entries = new ArrayList<>();
+            for (SubjectResponseDTO subjectDTO : toInsert.values()) {
+                if (!result.containsKey(SubjectKey.of(subjectDTO))) {
+                    entries.add(StudentMapper.toCatalogEntry(subjectDTO));
+                }
+            }
+            for (Subject subject : subjectRepository.saveAll(entries)) {
+                result.put(new SubjectKey(subject.getName(), subject.getCredits(), subject.getDescription()), subject.getId());
+            }
+            return result;
+        });
+
+        ids.putAll(inserted);
+        resolved.putAll(inserted);
+        LOGGER.debug("Added {} subjects to the catalog", inserted.size());
+        return resolved;
+    }
+
+    private static SubjectKey keyOf(SubjectCatalogIdentity identity) {
+        return new SubjectKey(identity.getName(), identity.getCredits(), identity.getDescription());
+    }
+}
@@ -0,0 +1,14 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.response.SubjectResponseDTO;
+
+/**
+ * In-memory identity of a subject catalog entry. Cheaper to hash than the stored catalog key, which is only
+ * computed when an entry is inserted.
+ */
+public record SubjectKey(String name, Integer credits, String description) {
+
+    public static SubjectKey of(SubjectResponseDTO subjectDTO) {
+        return new SubjectKey(subjectDTO.getName(), subjectDTO.getCredits(), subjectDTO.getDescription());
+    }
+}
@@ -0,0 +1,129 @@
+package com.profid.profid.service;
+
+import com.profid.profid.dto.GeneralResponse;
+
+import java.time.Instant;
+import java.util.concurrent.Future;
+
+/**
+ * One asynchronous sync run. Status transitions are synchronized; counters live in {@link SyncProgress}.
+ */
+public class SyncJob {
+
+    private final String id;
+    private final SyncJobType type;
+    private final String postUrl;
+    private final boolean fullResend;
+    private final Instant createdAt = Instant.now();
+    private final SyncProgress progress = new SyncProgress();
+
+    private SyncJobStatus status = SyncJobStatus.QUEUED;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private GeneralResponse result;
+    private Future<?> future;
+
+    public SyncJob(String id, SyncJobType type, String postUrl) {
+        this(id, type, postUrl, false);
+    }
+
+    public SyncJob(String id, SyncJobType type, String postUrl, boolean fullResend) {
+        this.id = id;
+        this.type = type;
+        this.postUrl = postUrl;
+        this.fullResend = fullResend;
+    }
+
+    // Returns false when the job was cancelled while still queued
+    synchronized boolean markRunning() {
+        if (status != SyncJobStatus.QUEUED) {
+            return false;
+        }
+        status = SyncJobStatus.RUNNING;
+        startedAt = Instant.now();
+        progress.start();
+        return true;
+    }
+
+    synchronized void complete(GeneralResponse result) {
+        this.result = result;
+        if (progress.isCancelled()) {
+            status = SyncJobStatus.CANCELLED;
+        } else if ("SUCCESS".equals(result.getStatus())) {
+            status = SyncJobStatus.SUCCEEDED;
+        } else if ("PARTIAL".equals(result.getStatus())) {
+            status = SyncJobStatus.PARTIAL;
+        } else {
+            status = SyncJobStatus.FAILED;
+            progress.addError(result.getMessage());
+        }
+        finish();
+    }
+
+    synchronized void fail(Throwable error) {
+        status = progress.isCancelled() ? SyncJobStatus.CANCELLED : SyncJobStatus.FAILED;
+        progress.addError(error.getMessage());
+        finish();
+    }
+
+    synchronized void cancel() {
+        progress.cancel();
+        if (status == SyncJobStatus.QUEUED) {
+            status = SyncJobStatus.CANCELLED;
+            finishedAt = Instant.now();
+        }
+        if (future != null) {
+            // Running jobs stop cooperatively at the next chunk or batch so no transaction is torn apart
+            future.cancel(false);
+        }
+    }
+
+    private void finish() {
+        finishedAt = Instant.now();
+        progress.finish();
+    }
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public SyncJobType getType() {
+        return type;
+    }
+
+    public String getPostUrl() {
+        return postUrl;
+    }
+
+    public boolean isFullResend() {
+        return fullResend;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public SyncProgress getProgress() {
+        return progress;
+    }
+
+    public synchronized SyncJobStatus getStatus() {
+        return status;
+    }
+
+    public synchronized Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized GeneralResponse getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,16 @@
+package com.profid.profid.service;
+
+import java.util.Optional;
+
+public interface SyncJobService {
+    // Queue a sync run and return immediately, throws RejectedExecutionException when the queue is full
+    SyncJob submit(SyncJobType type, String postUrl);
+
+    // fullResend makes POST_* jobs post every student instead of only those changed since the last export
+    SyncJob submit(SyncJobType type, String postUrl, boolean fullResend);
+
+    Optional<SyncJob> findById(String id);
+
+    // Cancel a queued job, or ask a running one to stop at its next chunk or batch
+    Optional<SyncJob> cancel(String id);
+}
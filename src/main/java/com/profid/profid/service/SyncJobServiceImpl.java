@@ -0,0 +1,110 @@
+package com.profid.profid.service;
+
+import com.profid.profid.config.SyncJobProperties;
+import com.profid.profid.dto.GeneralResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Service
+public class SyncJobServiceImpl implements SyncJobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SyncJobServiceImpl.class);
+
+    private final StudentSyncService studentSyncService;
+    private final ThreadPoolExecutor syncJobExecutor;
+    private final SyncJobProperties syncJobProperties;
+
+    private final Map<String, SyncJob> jobs = new ConcurrentHashMap<>();
+
+    public SyncJobServiceImpl(StudentSyncService studentSyncService, ThreadPoolExecutor syncJobExecutor,
+                              SyncJobProperties syncJobProperties) {
+        this.studentSyncService = studentSyncService;
+        this.syncJobExecutor = syncJobExecutor;
+        this.syncJobProperties = syncJobProperties;
+    }
+
+    @Override
+    public SyncJob submit(SyncJobType type, String postUrl) {
+        return submit(type, postUrl, false);
+    }
+
+    @Override
+    public SyncJob submit(SyncJobType type, String postUrl, boolean fullResend) {
+        if (type.requiresPostUrl() && (postUrl == null || postUrl.isBlank())) {
+            throw new IllegalArgumentException("postUrl is required for " + type + " jobs");
+        }
+
+        SyncJob job = new SyncJob(UUID.randomUUID().toString(), type, postUrl, fullResend);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(syncJobExecutor.submit(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            LOGGER.warn("Rejected {} job, {} jobs already queued", type, syncJobExecutor.getQueue().size());
+            throw e;
+        }
+
+        LOGGER.info("Queued {} job {}", type, job.getId());
+        evictFinishedJobs();
+        return job;
+    }
+
+    @Override
+    public Optional<SyncJob> findById(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    @Override
+    public Optional<SyncJob> cancel(String id) {
+        SyncJob job = jobs.get(id);
+        if (job != null) {
+            job.cancel();
+            LOGGER.info("Cancellation requested for {} job {}", job.getType(), id);
+        }
+        return Optional.ofNullable(job);
+    }
+
+    private void run(SyncJob job) {
+        if (!job.markRunning()) {
+            return;
+        }
+
+        SyncProgress progress = job.getProgress();
+        try {
+            GeneralResponse result = switch (job.getType()) {
+                case FETCH_WEBCLIENT -> studentSyncService.fetchAndSaveUsingWebClient(progress);
+                case FETCH_HTTPCLIENT -> studentSyncService.fetchAndSaveUsingHttpClient(progress);
+                case POST_WEBCLIENT -> studentSyncService.postStudentsUsingWebClient(job.getPostUrl(), job.isFullResend(), progress);
+                case POST_HTTPCLIENT -> studentSyncService.postStudentsUsingHttpClient(job.getPostUrl(), job.isFullResend(), progress);
+            };
+            job.complete(result);
+        } catch (Exception e) {
+            LOGGER.error("{} job {} failed: {}", job.getType(), job.getId(), e.getMessage(), e);
+            job.fail(e);
+        }
+
+        LOGGER.info("{} job {} finished with status {} in {} ms", job.getType(), job.getId(), job.getStatus(),
+                progress.getElapsedMillis());
+    }
+
+    private void evictFinishedJobs() {
+        int excess = jobs.size() - syncJobProperties.getMaxRetainedJobs();
+        if (excess <= 0) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.getStatus().isFinished())
+                .sorted(Comparator.comparing(SyncJob::getCreatedAt))
+                .limit(excess)
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.profid.profid.service;
+
+public enum SyncJobType {
+    FETCH_WEBCLIENT(false),
+    FETCH_HTTPCLIENT(false),
+    POST_WEBCLIENT(true),
+    POST_HTTPCLIENT(true);
+
+    private final boolean requiresPostUrl;
+
+    SyncJobType(boolean requiresPostUrl) {
+        this.requiresPostUrl = requiresPostUrl;
+    }
+
+    public boolean requiresPostUrl() {
+        return requiresPostUrl;
+    }
+}
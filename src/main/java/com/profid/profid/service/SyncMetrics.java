@@ -0,0 +1,81 @@
+package com.profid.profid.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the sync pipeline: one timer per phase, recorded per page, chunk or batch, the number of
+ * records each fetch or export run handled, and the depth and latency of the write-behind queues.
+ */
+@Component
+public class SyncMetrics {
+
+    public static final String PHASE = "profid.sync.phase";
+    public static final String RECORDS = "profid.sync.records";
+    public static final String QUEUE_DEPTH = "profid.ingest.queue.depth";
+    public static final String QUEUE_LATENCY = "profid.ingest.queue.latency";
+
+    public enum Phase {
+        // Waiting for upstream responses
+        FETCH,
+        // Turning response bodies into DTOs
+        PARSE,
+        // DTOs to entities, content hashes and subject links; part of PERSIST
+        MAP,
+        // One ingest transaction per chunk, including MAP
+        PERSIST,
+        // One export batch, including retries
+        POST
+    }
+
+    private final MeterRegistry registry;
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Timer queueLatency;
+
+    public SyncMetrics(MeterRegistry meterRegistry) {
+        this.registry = meterRegistry;
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder(PHASE)
+                    .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        this.queueLatency = Timer.builder(QUEUE_LATENCY)
+                .description("Time from queuing the oldest student of a write-behind batch to its commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void recordPhase(Phase phase, long nanos) {
+        phaseTimers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // operation is fetch or post; status is the status of the run's response
+    public void recordRun(String operation, String client, String status, long records) {
+        DistributionSummary.builder(RECORDS)
+                .description("Records handled per sync run")
+                .tags("operation", operation, "client", client.toLowerCase(Locale.ROOT), "status", status)
+                .register(registry)
+                .record(records);
+    }
+
+    public void gaugeQueueDepth(Supplier<Number> depth) {
+        Gauge.builder(QUEUE_DEPTH, depth)
+                .description("Students waiting in the write-behind queues")
+                .strongReference(true)
+                .register(registry);
+    }
+
+    public void recordQueueLatency(long nanos) {
+        queueLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
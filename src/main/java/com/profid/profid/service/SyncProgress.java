@@ -0,0 +1,198 @@
+package com.profid.profid.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Live counters of one sync run. Updated by {@link StudentSyncService} while it works and read concurrently
+ * by whoever polls the run, e.g. the job subsystem. Also carries the cancellation flag of the run.
+ * <p>
+ * A run that waits for a shared one, e.g. a coalesced fetch, {@linkplain #follow follows} its progress: the
+ * getters then add the shared counters to this run's own ones as they grow.
+ */
+public class SyncProgress {
+
+    private static final int MAX_ERRORS = 100;
+
+    private final AtomicLong recordsFetched = new AtomicLong();
+    private final AtomicLong recordsPersisted = new AtomicLong();
+    private final AtomicLong recordsPosted = new AtomicLong();
+    // Time spent per phase of a fetch, to show whether the network, parsing or the database is the bottleneck
+    private final AtomicLong networkNanos = new AtomicLong();
+    private final AtomicLong parseNanos = new AtomicLong();
+    private final AtomicLong persistNanos = new AtomicLong();
+    private final List<String> errors = new ArrayList<>();
+    private final List<Runnable> cancelListeners = new CopyOnWriteArrayList<>();
+
+    // The shared run this one waits for, read through by the getters
+    private volatile SyncProgress followed;
+
+    private volatile long startedNanos = System.nanoTime();
+    private volatile long finishedNanos;
+    private volatile boolean cancelled;
+
+    public void start() {
+        startedNanos = System.nanoTime();
+    }
+
+    public void finish() {
+        finishedNanos = System.nanoTime();
+    }
+
+    public void cancel() {
+        cancelled = true;
+        cancelListeners.forEach(Runnable::run);
+    }
+
+    // Runs the listener on cancellation, at once if the run already is cancelled; it may run more than once
+    public void onCancel(Runnable listener) {
+        cancelListeners.add(listener);
+        if (cancelled) {
+            listener.run();
+        }
+    }
+
+    public void removeCancelListener(Runnable listener) {
+        cancelListeners.remove(listener);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Called between units of work so a cancelled run stops at the next chunk or batch
+    public void checkCancelled() {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Sync was cancelled");
+        }
+    }
+
+    public void addFetched(long count) {
+        recordsFetched.addAndGet(count);
+    }
+
+    public void addPersisted(long count) {
+        recordsPersisted.addAndGet(count);
+    }
+
+    public void addPosted(long count) {
+        recordsPosted.addAndGet(count);
+    }
+
+    public void addNetworkNanos(long nanos) {
+        networkNanos.addAndGet(nanos);
+    }
+
+    public void addParseNanos(long nanos) {
+        parseNanos.addAndGet(nanos);
+    }
+
+    public void addPersistNanos(long nanos) {
+        persistNanos.addAndGet(nanos);
+    }
+
+    public void addError(String error) {
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+
+    // Shows the counters, phase times and errors of a shared run on top of this run's own; elapsed time stays this run's own
+    public void follow(SyncProgress shared) {
+        followed = shared;
+    }
+
+    // Stops following the shared run, keeping what it had counted so far
+    public void unfollow() {
+        SyncProgress shared = followed;
+        if (shared != null) {
+            followed = shared.copy();
+        }
+    }
+
+    public long getRecordsFetched() {
+        return recordsFetched.get() + followedOr(SyncProgress::getRecordsFetched);
+    }
+
+    public long getRecordsPersisted() {
+        return recordsPersisted.get() + followedOr(SyncProgress::getRecordsPersisted);
+    }
+
+    public long getRecordsPosted() {
+        return recordsPosted.get() + followedOr(SyncProgress::getRecordsPosted);
+    }
+
+    public long getNetworkMillis() {
+        return getNetworkNanos() / 1_000_000;
+    }
+
+    public long getParseMillis() {
+        return getParseNanos() / 1_000_000;
+    }
+
+    public long getPersistMillis() {
+        return getPersistNanos() / 1_000_000;
+    }
+
+    public List<String> getErrors() {
+        List<String> own;
+        synchronized (errors) {
+            own = List.copyOf(errors);
+        }
+        SyncProgress shared = followed;
+        if (shared == null) {
+            return own;
+        }
+        List<String> all = new ArrayList<>(own);
+        shared.getErrors().stream().limit(Math.max(MAX_ERRORS - all.size(), 0)).forEach(all::add);
+        return List.copyOf(all);
+    }
+
+    public long getElapsedMillis() {
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        return Math.max(end - startedNanos, 0) / 1_000_000;
+    }
+
+    // Persisted plus posted records per second of elapsed time
+    public double getRecordsPerSecond() {
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        long elapsedNanos = Math.max(end - startedNanos, 1);
+        return (getRecordsPersisted() + getRecordsPosted()) * 1_000_000_000d / elapsedNanos;
+    }
+
+    private long getNetworkNanos() {
+        return networkNanos.get() + followedOr(SyncProgress::getNetworkNanos);
+    }
+
+    private long getParseNanos() {
+        return parseNanos.get() + followedOr(SyncProgress::getParseNanos);
+    }
+
+    private long getPersistNanos() {
+        return persistNanos.get() + followedOr(SyncProgress::getPersistNanos);
+    }
+
+    private long followedOr(ToLongFunction<SyncProgress> counter) {
+        SyncProgress shared = followed;
+        return shared != null ? counter.applyAsLong(shared) : 0;
+    }
+
+    // A frozen copy of the counters, phase times and errors, without cancellation state
+    private SyncProgress copy() {
+        SyncProgress copy = new SyncProgress();
+        copy.addFetched(getRecordsFetched());
+        copy.addPersisted(getRecordsPersisted());
+        copy.addPosted(getRecordsPosted());
+        copy.addNetworkNanos(getNetworkNanos());
+        copy.addParseNanos(getParseNanos());
+        copy.addPersistNanos(getPersistNanos());
+        getErrors().forEach(copy::addError);
+        return copy;
+    }
+}
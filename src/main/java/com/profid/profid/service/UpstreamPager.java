@@ -0,0 +1,109 @@
+package com.profid.profid.service;
+
+import com.profid.profid.config.FetchProperties;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.utils.RawResponse;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the page URLs of a paged upstream feed for the configured {@link FetchProperties.PaginationStyle}.
+ */
+final class UpstreamPager {
+
+    private final FetchProperties properties;
+
+    UpstreamPager(FetchProperties properties) {
+        this.properties = properties;
+    }
+
+    String firstPageUrl() {
+        return pageUrl(0);
+    }
+
+    /**
+     * @return the URL of the page after {@code pageIndex}, or null when that page was the last one
+     */
+    String nextPageUrl(String currentUrl, int pageIndex, RawResponse response, int elementCount) {
+        if (properties.getPaginationStyle() == FetchProperties.PaginationStyle.NEXT_LINK) {
+            String next = nextLink(response.getHeader("Link"));
+            if (next == null) {
+                return null;
+            }
+            String resolved = URI.create(currentUrl).resolve(next).toString();
+            // A server pointing back at the same page would otherwise keep us looping forever
+            return resolved.equals(currentUrl) ? null : resolved;
+        }
+        // Offset and page number APIs signal the end with a short or empty page
+        return elementCount < properties.getPageSize() ? null : pageUrl(pageIndex + 1);
+    }
+
+    private String pageUrl(int pageIndex) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(properties.getUrl())
+                .replaceQueryParam(properties.getLimitParam(), properties.getPageSize());
+        switch (properties.getPaginationStyle()) {
+            case OFFSET -> builder.replaceQueryParam(properties.getOffsetParam(), (long) pageIndex * properties.getPageSize());
+            case PAGE -> builder.replaceQueryParam(properties.getPageParam(), properties.getFirstPage() + pageIndex);
+            default -> {
+                // NEXT_LINK: only the first URL is ours, later ones come from the server
+            }
+        }
+        return builder.build().toUriString();
+    }
+
+    // Picks the rel="next" target out of an RFC 8288 header such as: <https://host/students?cursor=abc>; rel="next"
+    static String nextLink(String linkHeader) {
+        if (linkHeader == null) {
+            return null;
+        }
+        for (String link : linkHeader.split(",(?=\\s*<)")) {
+            int start = link.indexOf('<');
+            int end = link.indexOf('>', start + 1);
+            if (start < 0 || end < 0) {
+                continue;
+            }
+            for (String param : link.substring(end + 1).split(";")) {
+                String[] keyValue = param.trim().split("=", 2);
+                if (keyValue.length == 2 && keyValue[0].trim().equalsIgnoreCase("rel")
+                        && Arrays.asList(keyValue[1].replace("\"", "").trim().split("\\s+")).contains("next")) {
+                    return link.substring(start + 1, end).trim();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One parsed page of the feed, handed from the fetching side to the persisting side.
+     */
+    static final class Page {
+
+        // Marks the end of the feed in the prefetch queue
+        static final Page END = new Page(-1, List.of(), null);
+
+        private final int index;
+        private final List<StudentResponseDTO> students;
+        private final String nextUrl;
+
+        Page(int index, List<StudentResponseDTO> students, String nextUrl) {
+            this.index = index;
+            this.students = students;
+            this.nextUrl = nextUrl;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        List<StudentResponseDTO> getStudents() {
+            return students;
+        }
+
+        String getNextUrl() {
+            return nextUrl;
+        }
+    }
+}
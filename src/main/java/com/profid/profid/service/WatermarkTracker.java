@@ -0,0 +1,85 @@
+package com.profid.profid.service;
+
+import com.profid.profid.repository.projection.StudentExportRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves the export watermark of one run forward as batches are acknowledged.
+ * <p>
+ * Every run is bounded by a cutoff taken when it starts (see {@code export.watermarkSafetyLag}) and the watermark
+ * never moves past it. Delta runs send students in (updatedAt, id) order up to the cutoff, but concurrent posts may
+ * be acknowledged out of order, so the watermark only advances over the contiguous prefix of acknowledged batches.
+ * A failed batch pins the watermark before it and its students are sent again by the next delta export. A full
+ * resend goes in id order, which says nothing about updatedAt: a student read early may change while the run goes
+ * on. Once every batch was acknowledged its watermark is therefore the cutoff itself, never the newest student seen.
+ */
+class WatermarkTracker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WatermarkTracker.class);
+
+    private final String targetUrl;
+    private final boolean fullResend;
+    private final Instant cutoff;
+    private final ExportWatermarkService exportWatermarkService;
+
+    private final Map<Long, StudentExportRow> acknowledgedOutOfOrder = new HashMap<>();
+    private long registered;
+    private long acknowledged;
+    private long prefixEnd;
+    private boolean failed;
+
+    WatermarkTracker(String targetUrl, boolean fullResend, Instant cutoff, ExportWatermarkService exportWatermarkService) {
+        this.targetUrl = targetUrl;
+        this.fullResend = fullResend;
+        this.cutoff = cutoff;
+        this.exportWatermarkService = exportWatermarkService;
+    }
+
+    // Must be called in the order batches are read from the database
+    synchronized long register() {
+        return registered++;
+    }
+
+    synchronized void acknowledged(long sequence, List<StudentExportRow> batch) {
+        acknowledged++;
+        if (fullResend) {
+            return;
+        }
+
+        acknowledgedOutOfOrder.put(sequence, batch.get(batch.size() - 1));
+        StudentExportRow last = null;
+        while (acknowledgedOutOfOrder.containsKey(prefixEnd)) {
+            last = acknowledgedOutOfOrder.remove(prefixEnd++);
+        }
+        if (last != null) {
+            advanceTo(last.updatedAt(), last.id());
+        }
+    }
+
+    synchronized void failed() {
+        failed = true;
+    }
+
+    // Called once the run has read and posted everything, i.e. not after a cancellation
+    synchronized void completed() {
+        // Every student changed up to the cutoff was committed before the run read it, so all of them were sent
+        if (fullResend && !failed && acknowledged == registered) {
+            advanceTo(cutoff, Long.MAX_VALUE);
+        }
+    }
+
+    // A failed write only leaves the watermark behind, so more students are resent next time; never worth failing the run
+    private void advanceTo(Instant updatedAt, long studentId) {
+        try {
+            exportWatermarkService.advance(targetUrl, updatedAt, studentId);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not advance the export watermark for {}: {}", targetUrl, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.profid.profid.utils;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Validators of one conditional GET. The caller fills in the {@code ETag}/{@code Last-Modified} values of its
+ * cached copy; the client sends them as {@code If-None-Match}/{@code If-Modified-Since} and records either a
+ * {@code 304 Not Modified} or the validators of the new representation.
+ */
+public class ConditionalRequest {
+
+    private final String etag;
+    private final String lastModified;
+
+    private volatile boolean notModified;
+    private volatile String responseEtag;
+    private volatile String responseLastModified;
+
+    public ConditionalRequest(String etag, String lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public void applyTo(BiConsumer<String, String> addHeader) {
+        if (etag != null) {
+            addHeader.accept("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            addHeader.accept("If-Modified-Since", lastModified);
+        }
+    }
+
+    public void markNotModified() {
+        notModified = true;
+    }
+
+    public void captureValidators(Function<String, String> responseHeader) {
+        responseEtag = responseHeader.apply("ETag");
+        responseLastModified = responseHeader.apply("Last-Modified");
+    }
+
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+
+    public boolean isNotModified() {
+        return notModified;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public String getResponseEtag() {
+        return responseEtag;
+    }
+
+    public String getResponseLastModified() {
+        return responseLastModified;
+    }
+}
@@ -0,0 +1,88 @@
+package com.profid.profid.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request metrics shared by both HTTP client stacks, so they can be compared on one dashboard.
+ * Tags are client, method, target host and status; never the URL, whose paths and query strings are unbounded.
+ */
+public final class HttpClientMetrics {
+
+    public static final String REQUESTS = "profid.http.client.requests";
+    public static final String REQUEST_SIZE = "profid.http.client.request.size";
+    public static final String RESPONSE_SIZE = "profid.http.client.response.size";
+    public static final String HEDGES = "profid.http.client.hedges";
+    public static final String CIRCUIT_TRANSITIONS = "profid.http.client.circuit.transitions";
+    public static final String CIRCUIT_REJECTIONS = "profid.http.client.circuit.rejections";
+
+    // Status tag of requests that got no response at all (connect failures, timeouts, cancellations)
+    public static final String NO_RESPONSE = "IO_ERROR";
+
+    private final MeterRegistry registry;
+    private final String client;
+
+    public HttpClientMetrics(MeterRegistry registry, String client) {
+        this.registry = registry;
+        this.client = client;
+    }
+
+    public void recordRequest(String method, String host, String status, long nanos) {
+        Timer.builder(REQUESTS)
+                .description("Time until the response headers arrived")
+                .tags("client", client, "method", method, "host", host, "status", status)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Body bytes as written by / handed to the application, i.e. before compression on the way out
+    public void recordRequestSize(String method, String host, long bytes) {
+        size(REQUEST_SIZE, method, host).record(bytes);
+    }
+
+    public void recordResponseSize(String method, String host, long bytes) {
+        size(RESPONSE_SIZE, method, host).record(bytes);
+    }
+
+    // outcome is sent, won (answered before the original request) or skipped (hedge budget exhausted)
+    public void recordHedge(String host, String outcome) {
+        Counter.builder(HEDGES)
+                .tags("client", client, "host", host, "outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordCircuitTransition(String host, String from, String to) {
+        Counter.builder(CIRCUIT_TRANSITIONS)
+                .tags("client", client, "host", host, "from", from, "to", to)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordCircuitRejection(String host) {
+        Counter.builder(CIRCUIT_REJECTIONS)
+                .description("Requests failed fast while the host's circuit was open")
+                .tags("client", client, "host", host)
+                .register(registry)
+                .increment();
+    }
+
+    private DistributionSummary size(String name, String method, String host) {
+        return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tags("client", client, "method", method, "host", host)
+                .register(registry);
+    }
+
+    public static String hostOf(URI uri) {
+        String host = uri.getHost();
+        return host != null ? host.toLowerCase(Locale.ROOT) : "none";
+    }
+}
@@ -0,0 +1,41 @@
+package com.profid.profid.utils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An unparsed response body with its status and headers, so callers can time the download separately
+ * from deserialization and read paging headers such as {@code Link}.
+ */
+public class RawResponse {
+
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final byte[] body;
+
+    public RawResponse(int statusCode, Map<String, String> headers, byte[] body) {
+        Map<String, String> caseInsensitive = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        caseInsensitive.putAll(headers);
+        this.statusCode = statusCode;
+        this.headers = Collections.unmodifiableMap(caseInsensitive);
+        this.body = body != null ? body : new byte[0];
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    // First value of each header, looked up case-insensitively
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+}
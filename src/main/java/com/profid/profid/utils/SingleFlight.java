@@ -0,0 +1,126 @@
+package com.profid.profid.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent executions per key: the first caller starts the work, callers arriving while it runs join it
+ * and share its result (or failure). A result accepted by {@code reusable} is also handed to callers arriving
+ * within the cooldown after it finished.
+ * <p>
+ * Every execution carries state of type {@code S}, created when it starts and handed to the work and to each caller,
+ * e.g. to count the callers still waiting. {@code attach} admits a caller to a running execution; an execution that
+ * refuses one, because every earlier caller has left it, is replaced by a new one.
+ */
+public class SingleFlight<K, S, V> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final ConcurrentMap<K, Flight<S, V>> flights = new ConcurrentHashMap<>();
+    private final Supplier<S> newState;
+    private final Predicate<S> attach;
+    private final Predicate<V> reusable;
+
+    public SingleFlight(Supplier<S> newState, Predicate<S> attach, Predicate<V> reusable) {
+        this.newState = newState;
+        this.attach = attach;
+        this.reusable = reusable;
+    }
+
+    /**
+     * Joins the execution for the key, starting the work on the scheduler when none is running or reusable. No
+     * caller runs the work itself, so the one that started it may leave like any other.
+     */
+    public Flight<S, V> join(K key, Duration cooldown, Function<S, V> work, Scheduler scheduler) {
+        Flight<S, V> own = new Flight<>(newState.get());
+        Flight<S, V> flight = join(key, own, cooldown);
+        if (flight == own) {
+            scheduler.schedule(() -> {
+                try {
+                    complete(key, flight, cooldown, work.apply(flight.state));
+                } catch (RuntimeException | Error e) {
+                    fail(key, flight, e);
+                }
+            });
+        }
+        return flight;
+    }
+
+    /**
+     * Non-blocking variant: the work is subscribed once, when an execution starts, and shared with every caller
+     * of the key, also those that joined through {@link #join(Object, Duration, Function, Scheduler)}.
+     */
+    public Flight<S, V> joinReactive(K key, Duration cooldown, Function<S, Mono<V>> work) {
+        Flight<S, V> own = new Flight<>(newState.get());
+        Flight<S, V> flight = join(key, own, cooldown);
+        if (flight == own) {
+            Mono.defer(() -> work.apply(flight.state))
+                    .switchIfEmpty(Mono.error(() -> new IllegalStateException("Execution for key " + key + " had no result")))
+                    .subscribe(value -> complete(key, flight, cooldown, value), e -> fail(key, flight, e));
+        }
+        return flight;
+    }
+
+    private Flight<S, V> join(K key, Flight<S, V> own, Duration cooldown) {
+        Flight<S, V> flight = flights.compute(key, (k, current) -> {
+            if (current != null && current.result.isDone()
+                    && System.nanoTime() - current.finishedAt < cooldown.toNanos()) {
+                return current;
+            }
+            if (current != null && !current.result.isDone() && attach.test(current.state)) {
+                return current;
+            }
+            attach.test(own.state);
+            return own;
+        });
+        if (flight != own) {
+            LOGGER.info("Joining {} execution for key: {}", flight.result.isDone() ? "recent" : "in-flight", key);
+        }
+        return flight;
+    }
+
+    private void complete(K key, Flight<S, V> flight, Duration cooldown, V value) {
+        flight.finishedAt = System.nanoTime();
+        if (cooldown.isZero() || cooldown.isNegative() || !reusable.test(value)) {
+            flights.remove(key, flight);
+        }
+        flight.result.complete(value);
+    }
+
+    private void fail(K key, Flight<S, V> flight, Throwable e) {
+        flights.remove(key, flight);
+        flight.result.completeExceptionally(e);
+    }
+
+    /**
+     * One execution as its callers see it: the shared state and the result, which callers wait on.
+     */
+    public static final class Flight<S, V> {
+
+        private final S state;
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private volatile long finishedAt;
+
+        private Flight(S state) {
+            this.state = state;
+        }
+
+        public S getState() {
+            return state;
+        }
+
+        public CompletableFuture<V> getResult() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.profid.profid.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The Jackson data formats the HTTP clients read and write. Smile and CBOR carry the same data model as JSON in a
+ * binary encoding, so the same DTOs bind to all three; only the parser and generator differ.
+ */
+public enum WireFormat {
+
+    JSON("application/json", new ObjectMapper()),
+    SMILE("application/x-jackson-smile", new SmileMapper()),
+    CBOR("application/cbor", new CBORMapper());
+
+    private final String mediaType;
+    private final ObjectMapper objectMapper;
+
+    WireFormat(String mediaType, ObjectMapper objectMapper) {
+        this.mediaType = mediaType;
+        this.objectMapper = objectMapper;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    /**
+     * The format of a {@code Content-Type} header value; anything that is not Smile or CBOR, including a missing
+     * header, is read as JSON as before.
+     */
+    public static WireFormat fromContentType(String contentType) {
+        if (contentType == null) {
+            return JSON;
+        }
+        int parameters = contentType.indexOf(';');
+        String mimeType = (parameters >= 0 ? contentType.substring(0, parameters) : contentType).trim().toLowerCase(Locale.ROOT);
+        for (WireFormat format : values()) {
+            if (format.mediaType.equals(mimeType)) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+
+    // One reader per format, for callers that parse the same type out of responses of any format
+    public static Map<WireFormat, ObjectReader> readersFor(TypeReference<?> type) {
+        Map<WireFormat, ObjectReader> readers = new EnumMap<>(WireFormat.class);
+        for (WireFormat format : values()) {
+            readers.put(format, format.objectMapper.readerFor(type));
+        }
+        return Collections.unmodifiableMap(readers);
+    }
+}
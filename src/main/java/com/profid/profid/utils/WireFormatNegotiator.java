@@ -0,0 +1,70 @@
+package com.profid.profid.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks the wire format per host for one HTTP client. Request bodies go out in the format configured for the host,
+ * JSON otherwise; the {@code Accept} header asks for the configured format or, with negotiation on, for Smile or CBOR
+ * before JSON, and the response is decoded by whatever {@code Content-Type} the host chose. A host that answers
+ * {@code 415} to a binary body is sent JSON bodies from then on.
+ */
+public class WireFormatNegotiator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WireFormatNegotiator.class);
+
+    private static final String NEGOTIATED_ACCEPT = WireFormat.SMILE.getMediaType() + ", "
+            + WireFormat.CBOR.getMediaType() + ";q=0.9, " + WireFormat.JSON.getMediaType() + ";q=0.8";
+
+    // Spring's CBOR decoder cannot split a body into a stream of elements, so streamed GETs never ask for CBOR
+    private static final String NEGOTIATED_STREAMING_ACCEPT = WireFormat.SMILE.getMediaType() + ", "
+            + WireFormat.JSON.getMediaType() + ";q=0.9";
+
+    private final boolean negotiate;
+    private final Map<String, WireFormat> hostFormats = new HashMap<>();
+    private final Set<String> jsonBodyHosts = ConcurrentHashMap.newKeySet();
+
+    public WireFormatNegotiator(boolean negotiate, Map<String, WireFormat> hostFormats) {
+        this.negotiate = negotiate;
+        hostFormats.forEach((host, format) -> this.hostFormats.put(host.toLowerCase(Locale.ROOT), format));
+    }
+
+    public WireFormat requestFormat(String host) {
+        WireFormat format = hostFormats.getOrDefault(host, WireFormat.JSON);
+        return jsonBodyHosts.contains(host) ? WireFormat.JSON : format;
+    }
+
+    /**
+     * The {@code Accept} value for a GET or POST to the host, or null to send none, as before negotiation existed.
+     */
+    public String accept(String host) {
+        return accept(host, false);
+    }
+
+    public String accept(String host, boolean streaming) {
+        WireFormat configured = hostFormats.get(host);
+        if (configured == WireFormat.JSON || (configured == WireFormat.CBOR && streaming)) {
+            return WireFormat.JSON.getMediaType();
+        }
+        if (configured != null) {
+            return configured.getMediaType() + ", " + WireFormat.JSON.getMediaType() + ";q=0.9";
+        }
+        if (!negotiate) {
+            return null;
+        }
+        return streaming ? NEGOTIATED_STREAMING_ACCEPT : NEGOTIATED_ACCEPT;
+    }
+
+    // RFC 7231: 415 means the target does not take the body's media type, so stop sending it
+    public void rejected(String host, WireFormat format) {
+        if (format.isBinary() && jsonBodyHosts.add(host)) {
+            LOGGER.warn("{} rejected a {} request body, sending JSON bodies to it from now on", host, format);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.profid.profid.utils.v1;
+
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker of one upstream host. It opens after {@code failureThreshold} consecutive failures and rejects
+ * requests for {@code openNanos}. After that, up to {@code trialRequests} requests are let through (half-open): the
+ * first failure opens the circuit again, and {@code trialRequests} successes close it.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int trialRequests;
+    private final LongSupplier clock;
+    private final BiConsumer<State, State> onTransition;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    public CircuitBreaker(int failureThreshold, long openNanos, int trialRequests, LongSupplier clock,
+                          BiConsumer<State, State> onTransition) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openNanos;
+        this.trialRequests = Math.max(1, trialRequests);
+        this.clock = clock;
+        this.onTransition = onTransition;
+    }
+
+    /**
+     * Returns the state the request was admitted in, to be handed back to {@link #onSuccess}, {@link #onFailure}
+     * or {@link #onCancel}, or {@code null} if the circuit rejects it.
+     */
+    public synchronized State tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                return null;
+            }
+            trialsInFlight = 0;
+            trialSuccesses = 0;
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsInFlight + trialSuccesses >= trialRequests) {
+                return null;
+            }
+            trialsInFlight++;
+        }
+        return state;
+    }
+
+    public synchronized void onSuccess(State admittedIn) {
+        if (state == State.CLOSED) {
+            consecutiveFailures = 0;
+        } else if (state == State.HALF_OPEN && admittedIn == State.HALF_OPEN) {
+            trialsInFlight--;
+            if (++trialSuccesses >= trialRequests) {
+                consecutiveFailures = 0;
+                transitionTo(State.CLOSED);
+            }
+        }
+    }
+
+    public synchronized void onFailure(State admittedIn) {
+        if (state == State.CLOSED) {
+            if (++consecutiveFailures >= failureThreshold) {
+                open();
+            }
+        } else if (state == State.HALF_OPEN && admittedIn == State.HALF_OPEN) {
+            open();
+        }
+    }
+
+    // A cancelled trial tells nothing about the host and frees its slot
+    public synchronized void onCancel(State admittedIn) {
+        if (state == State.HALF_OPEN && admittedIn == State.HALF_OPEN) {
+            trialsInFlight--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void open() {
+        openedAt = clock.getAsLong();
+        transitionTo(State.OPEN);
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        state = next;
+        onTransition.accept(previous, next);
+    }
+}
@@ -1,42 +1,183 @@
 package com.profid.profid.utils.v1;
 
+import com.profid.profid.config.WebClientProperties;
+import com.profid.profid.exception.CircuitOpenException;
+import com.profid.profid.utils.ConditionalRequest;
+import com.profid.profid.utils.HttpClientMetrics;
+import com.profid.profid.utils.RawResponse;
+import com.profid.profid.utils.WireFormat;
+import com.profid.profid.utils.WireFormatNegotiator;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.net.URI;
 import java.time.Duration;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * GETs are idempotent, so they can be hedged ({@code webclient.hedgingEnabled}) and are guarded by a per-host
+ * {@link CircuitBreaker} that fails fast with {@link CircuitOpenException} while the host is unhealthy.
+ * POSTs are neither hedged nor guarded; the export retries them itself. Bodies are JSON unless the target is
+ * configured for, or answers in, Smile or CBOR ({@link WireFormatNegotiator}); the codecs decode by Content-Type.
+ */
 @Component
 public class GenericWebClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GenericWebClient.class);
 
-    private final WebClient.Builder webClientBuilder;
+    // Ends the hedge's turn without a value; never surfaces, since the original's outcome is reported instead
+    private static final Exception HEDGE_NOT_SENT = new IllegalStateException("Hedge not sent");
 
-    public GenericWebClient() {
-        this.webClientBuilder = WebClient.builder()
-                .defaultHeaders(headers -> headers.add("Content-Type", "application/json"));
+    private final WebClient webClient;
+    private final WebClientProperties properties;
+    private final HttpClientMetrics metrics;
+    private final HedgePolicy hedgePolicy;
+    private final WireFormatNegotiator wireFormats;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public GenericWebClient(WebClient pooledWebClient, WebClientProperties properties, MeterRegistry meterRegistry) {
+        this.webClient = pooledWebClient;
+        this.properties = properties;
+        this.metrics = new HttpClientMetrics(meterRegistry, "webclient");
+        this.hedgePolicy = new HedgePolicy(TimeUnit.MILLISECONDS.toNanos(properties.getHedgeDelay()),
+                properties.getHedgePercentile(), properties.getHedgeMinSamples(), properties.getMaxHedgeRatio());
+        this.wireFormats = new WireFormatNegotiator(properties.isNegotiateBinaryFormats(), properties.getHostFormats());
     }
 
     public <T> Mono<T> get(String url, Map<String, String> headers, ParameterizedTypeReference<T> responseType, long timeoutSeconds) {
-        WebClient webClient = webClientBuilder.baseUrl(url).build();
+        return get(url, headers, responseType, timeoutSeconds, null);
+    }
+
+    /**
+     * Conditional variant of {@link #get}: on {@code 304 Not Modified} the conditional request is marked and the
+     * returned Mono completes empty without decoding a body.
+     */
+    public <T> Mono<T> get(String url, Map<String, String> headers, ParameterizedTypeReference<T> responseType, long timeoutSeconds,
+                           ConditionalRequest conditional) {
+        // A hedge revalidates the same resource, so whichever attempt answers leaves the same validators behind
+        String accept = wireFormats.accept(HttpClientMetrics.hostOf(URI.create(url)));
+        Mono<T> attempt = webClient.get()
+                .uri(url)
+                .headers(httpHeaders -> {
+                    headers.forEach(httpHeaders::add);
+                    applyAccept(httpHeaders, accept);
+                    if (conditional != null) {
+                        conditional.applyTo(httpHeaders::add);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (conditional != null && response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                        LOGGER.info("GET request to URL: {} returned 304 Not Modified", url);
+                        conditional.markNotModified();
+                        return response.releaseBody().then(Mono.<T>empty());
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.createError();
+                    }
+                    if (conditional != null) {
+                        conditional.captureValidators(name -> response.headers().asHttpHeaders().getFirst(name));
+                    }
+                    return response.bodyToMono(responseType);
+                });
 
-        return webClient.get()
-                .headers(httpHeaders -> headers.forEach(httpHeaders::add))
+        return guarded(url, attempt, timeoutSeconds)
+                .doOnSuccess(response -> LOGGER.info("GET request successful for URL: {}", url))
+                .doOnError(WebClientResponseException.class, ex -> {
+                    LOGGER.error("Error in GET request to URL: {}. Status Code: {}, Response Body: {}",
+                            url, ex.getStatusCode(), ex.getResponseBodyAsString(), ex);
+                })
+                .doOnError(CircuitOpenException.class, ex -> LOGGER.warn("GET request to URL: {} failed fast: {}", url, ex.getMessage()))
+                .doOnError(ex -> !(ex instanceof CircuitOpenException),
+                        ex -> LOGGER.error("Unexpected error during GET request to URL: {}", url, ex));
+    }
+
+    /**
+     * Downloads a response body without parsing it. Non-2xx statuses fail with {@link WebClientResponseException}.
+     * The body may be Smile or CBOR when negotiated; {@link WireFormat#fromContentType} tells which.
+     */
+    public Mono<RawResponse> getRaw(String url, Map<String, String> headers, long timeoutSeconds) {
+        String accept = wireFormats.accept(HttpClientMetrics.hostOf(URI.create(url)));
+        Mono<RawResponse> attempt = webClient.get()
+                .uri(url)
+                .headers(httpHeaders -> {
+                    headers.forEach(httpHeaders::add);
+                    applyAccept(httpHeaders, accept);
+                })
                 .retrieve()
-                .bodyToMono(responseType)
-                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .toEntity(byte[].class)
+                .map(entity -> new RawResponse(entity.getStatusCode().value(),
+                        entity.getHeaders().toSingleValueMap(), entity.getBody()));
+
+        return guarded(url, attempt, timeoutSeconds)
                 .doOnSuccess(response -> LOGGER.info("GET request successful for URL: {}", url))
                 .doOnError(WebClientResponseException.class, ex -> {
                     LOGGER.error("Error in GET request to URL: {}. Status Code: {}, Response Body: {}",
                             url, ex.getStatusCode(), ex.getResponseBodyAsString(), ex);
                 })
-                .doOnError(ex -> LOGGER.error("Unexpected error during GET request to URL: {}", url, ex));
+                .doOnError(CircuitOpenException.class, ex -> LOGGER.warn("GET request to URL: {} failed fast: {}", url, ex.getMessage()))
+                .doOnError(ex -> !(ex instanceof CircuitOpenException),
+                        ex -> LOGGER.error("Unexpected error during GET request to URL: {}", url, ex));
+    }
+
+    /**
+     * Streams the elements of a JSON or Smile array body as they are decoded, so no thread waits for the whole body and
+     * only the elements not yet consumed are held in memory. Guarded by the circuit breaker but never hedged: a
+     * hedge would download the stream a second time. The timeout bounds the wait for each element.
+     */
+    public <T> Flux<T> getFlux(String url, Map<String, String> headers, Class<T> elementType, long timeoutSeconds) {
+        String host = HttpClientMetrics.hostOf(URI.create(url));
+        String accept = wireFormats.accept(host, true);
+        Flux<T> request = webClient.get()
+                .uri(url)
+                .headers(httpHeaders -> {
+                    headers.forEach(httpHeaders::add);
+                    applyAccept(httpHeaders, accept);
+                })
+                .retrieve()
+                .bodyToFlux(elementType)
+                .timeout(Duration.ofSeconds(timeoutSeconds));
+
+        Flux<T> admitted = !properties.isCircuitBreakerEnabled() ? request : Flux.defer(() -> {
+            CircuitBreaker circuitBreaker = circuitBreakerFor(host);
+            CircuitBreaker.State admittedIn = circuitBreaker.tryAcquire();
+            if (admittedIn == null) {
+                metrics.recordCircuitRejection(host);
+                return Flux.error(new CircuitOpenException(host));
+            }
+            return request
+                    .doOnComplete(() -> circuitBreaker.onSuccess(admittedIn))
+                    .doOnError(e -> recordOutcome(circuitBreaker, admittedIn, e))
+                    .doOnCancel(() -> circuitBreaker.onCancel(admittedIn));
+        });
+
+        return admitted
+                .doOnComplete(() -> LOGGER.info("GET request successful for URL: {}", url))
+                .doOnError(WebClientResponseException.class, ex -> {
+                    LOGGER.error("Error in GET request to URL: {}. Status Code: {}, Response Body: {}",
+                            url, ex.getStatusCode(), ex.getResponseBodyAsString(), ex);
+                })
+                .doOnError(CircuitOpenException.class, ex -> LOGGER.warn("GET request to URL: {} failed fast: {}", url, ex.getMessage()))
+                .doOnError(ex -> !(ex instanceof CircuitOpenException),
+                        ex -> LOGGER.error("Unexpected error during GET request to URL: {}", url, ex));
     }
 
     public <T, R> Mono<T> post(String url, Map<String, String> headers, R requestBody, Class<T> responseType, long timeoutSeconds) {
@@ -44,15 +185,156 @@ public class GenericWebClient {
             return Mono.error(new IllegalArgumentException("URL cannot be null or empty"));
         }
 
-        WebClient webClient = webClientBuilder.baseUrl(url).build();
+        String host = HttpClientMetrics.hostOf(URI.create(url));
+        WireFormat format = wireFormats.requestFormat(host);
+        Mono<T> request = post(url, headers, requestBody, responseType, format, wireFormats.accept(host));
+        if (format.isBinary()) {
+            request = request.onErrorResume(WebClientResponseException.UnsupportedMediaType.class, ex -> {
+                wireFormats.rejected(host, format);
+                return post(url, headers, requestBody, responseType, WireFormat.JSON, wireFormats.accept(host));
+            });
+        }
 
-        return webClient.post()
-                .headers(httpHeaders -> headers.forEach(httpHeaders::add))
-                .bodyValue(requestBody)
-                .retrieve()
-                .bodyToMono(responseType)
+        return request
                 .timeout(Duration.ofSeconds(timeoutSeconds))
                 .doOnSuccess(response -> LOGGER.info("POST request successful for URL: {}", url))
                 .doOnError(ex -> LOGGER.error("Error during POST request to URL: {}", url, ex));
     }
-}
\ No newline at end of file
+
+    private <T, R> Mono<T> post(String url, Map<String, String> headers, R requestBody, Class<T> responseType,
+                                WireFormat format, String accept) {
+        if (!format.isBinary()) {
+            return send(url, headers, requestBody, responseType, format, accept);
+        }
+        // Spring's CBOR encoder cannot encode a single value, so binary bodies are serialized by the format's own mapper
+        return Mono.fromCallable(() -> format.getObjectMapper().writeValueAsBytes(requestBody))
+                .flatMap(body -> send(url, headers, body, responseType, format, accept));
+    }
+
+    private <T> Mono<T> send(String url, Map<String, String> headers, Object body, Class<T> responseType, WireFormat format,
+                             String accept) {
+        return webClient.post()
+                .uri(url)
+                .headers(httpHeaders -> {
+                    headers.forEach(httpHeaders::add);
+                    applyAccept(httpHeaders, accept);
+                })
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(responseType);
+    }
+
+    // Callers' own Accept header wins; null leaves the request without one
+    private static void applyAccept(HttpHeaders httpHeaders, String accept) {
+        if (accept != null && !httpHeaders.containsKey(HttpHeaders.ACCEPT)) {
+            httpHeaders.set(HttpHeaders.ACCEPT, accept);
+        }
+    }
+
+    public CircuitBreaker.State getCircuitState(String host) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(host);
+        return circuitBreaker != null ? circuitBreaker.getState() : CircuitBreaker.State.CLOSED;
+    }
+
+    // The timeout covers the original request and its hedge; the circuit breaker sees it as a failure
+    private <T> Mono<T> guarded(String url, Mono<T> attempt, long timeoutSeconds) {
+        String host = HttpClientMetrics.hostOf(URI.create(url));
+        Mono<T> request = hedged(host, attempt).timeout(Duration.ofSeconds(timeoutSeconds));
+        if (!properties.isCircuitBreakerEnabled()) {
+            return request;
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerFor(host);
+        return Mono.defer(() -> {
+            CircuitBreaker.State admittedIn = circuitBreaker.tryAcquire();
+            if (admittedIn == null) {
+                metrics.recordCircuitRejection(host);
+                return Mono.error(new CircuitOpenException(host));
+            }
+            return request
+                    .doOnSuccess(response -> circuitBreaker.onSuccess(admittedIn))
+                    .doOnError(e -> recordOutcome(circuitBreaker, admittedIn, e))
+                    .doOnCancel(() -> circuitBreaker.onCancel(admittedIn));
+        });
+    }
+
+    /**
+     * Subscribes to the attempt again once the hedge delay has passed without an answer, budget and circuit
+     * permitting, and takes the first successful answer; the other request is cancelled. A failure only wins once
+     * both attempts failed, or when the original fails before the hedge was sent, which then never is. An empty
+     * answer (304) counts as a success.
+     */
+    private <T> Mono<T> hedged(String host, Mono<T> attempt) {
+        Mono<T> timedAttempt = Mono.defer(() -> {
+            long started = System.nanoTime();
+            return attempt.doOnSuccess(response -> hedgePolicy.recordLatency(host, System.nanoTime() - started));
+        });
+        if (!properties.isHedgingEnabled()) {
+            return timedAttempt;
+        }
+
+        return Mono.defer(() -> {
+            hedgePolicy.onRequest();
+            AtomicReference<Throwable> originalFailure = new AtomicReference<>();
+            Sinks.Empty<Void> originalFailed = Sinks.empty();
+            Mono<Optional<T>> original = timedAttempt.map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .doOnError(e -> {
+                        originalFailure.set(e);
+                        originalFailed.tryEmitEmpty();
+                    });
+            Mono<Optional<T>> hedge = Mono.delay(hedgePolicy.delayFor(host))
+                    .takeUntilOther(originalFailed.asMono())
+                    .switchIfEmpty(Mono.error(HEDGE_NOT_SENT))
+                    .flatMap(tick -> {
+                        if (!mayHedge(host)) {
+                            metrics.recordHedge(host, "skipped");
+                            return Mono.error(HEDGE_NOT_SENT);
+                        }
+                        metrics.recordHedge(host, "sent");
+                        LOGGER.debug("Hedging slow GET request to host: {}", host);
+                        return timedAttempt.map(Optional::of)
+                                .defaultIfEmpty(Optional.empty())
+                                .doOnSuccess(response -> metrics.recordHedge(host, "won"));
+                    });
+            // Both failed: report the original's failure, which the circuit breaker and callers classify
+            return Mono.firstWithValue(original, hedge)
+                    .onErrorMap(NoSuchElementException.class, e -> originalFailure.get() != null ? originalFailure.get() : e)
+                    .flatMap(Mono::justOrEmpty);
+        });
+    }
+
+    // Half-open trials are not hedged, so a recovering host sees exactly the trial requests
+    private boolean mayHedge(String host) {
+        if (properties.isCircuitBreakerEnabled() && circuitBreakerFor(host).getState() != CircuitBreaker.State.CLOSED) {
+            return false;
+        }
+        return hedgePolicy.tryAcquireHedge();
+    }
+
+    private CircuitBreaker circuitBreakerFor(String host) {
+        return circuitBreakers.computeIfAbsent(host, h -> new CircuitBreaker(properties.getCircuitFailureThreshold(),
+                TimeUnit.MILLISECONDS.toNanos(properties.getCircuitOpenDuration()), properties.getCircuitHalfOpenRequests(),
+                System::nanoTime, (from, to) -> {
+                    LOGGER.warn("Circuit breaker for host: {} changed from {} to {}", h, from, to);
+                    metrics.recordCircuitTransition(h, from.name(), to.name());
+                }));
+    }
+
+    private static void recordOutcome(CircuitBreaker circuitBreaker, CircuitBreaker.State admittedIn, Throwable e) {
+        if (isHostFailure(e)) {
+            circuitBreaker.onFailure(admittedIn);
+        } else {
+            circuitBreaker.onSuccess(admittedIn);
+        }
+    }
+
+    // 4xx answers and decoding errors mean the host is up; only missing or 5xx answers count against it
+    private static boolean isHostFailure(Throwable e) {
+        if (e instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is5xxServerError();
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+}
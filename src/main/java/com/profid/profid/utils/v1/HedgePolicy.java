@@ -0,0 +1,93 @@
+package com.profid.profid.utils.v1;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decides when a GET gets a second (hedge) request. The delay is the configured percentile of the host's recent
+ * latencies, or the fixed delay until enough of them were observed. Hedges are paid from a budget that grows by
+ * {@code maxHedgeRatio} per request, so they never exceed that share of the traffic, even when a host is slow.
+ */
+public final class HedgePolicy {
+
+    // Latencies kept per host; the percentile is recomputed every RECOMPUTE_INTERVAL samples
+    private static final int WINDOW_SIZE = 256;
+    private static final int RECOMPUTE_INTERVAL = 32;
+
+    // Budget cap: an idle period saves up hedges for at most this many requests
+    private static final int BUDGET_WINDOW = 100;
+
+    private final long fixedDelayNanos;
+    private final double percentile;
+    private final int minSamples;
+    private final double maxHedgeRatio;
+    private final double maxBudget;
+    private final ConcurrentMap<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    private double budget;
+
+    public HedgePolicy(long fixedDelayNanos, double percentile, int minSamples, double maxHedgeRatio) {
+        this.fixedDelayNanos = fixedDelayNanos;
+        this.percentile = percentile;
+        this.minSamples = Math.max(1, minSamples);
+        this.maxHedgeRatio = maxHedgeRatio;
+        this.maxBudget = Math.max(1, maxHedgeRatio * BUDGET_WINDOW);
+    }
+
+    public Duration delayFor(String host) {
+        LatencyWindow window = windows.get(host);
+        if (percentile <= 0 || window == null) {
+            return Duration.ofNanos(fixedDelayNanos);
+        }
+        long observed = window.percentile(percentile, minSamples);
+        return Duration.ofNanos(observed > 0 ? observed : fixedDelayNanos);
+    }
+
+    public void recordLatency(String host, long nanos) {
+        windows.computeIfAbsent(host, h -> new LatencyWindow()).record(nanos);
+    }
+
+    public synchronized void onRequest() {
+        budget = Math.min(maxBudget, budget + maxHedgeRatio);
+    }
+
+    public synchronized boolean tryAcquireHedge() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    private static final class LatencyWindow {
+
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int count;
+        private long recorded;
+        private long cachedPercentile;
+        private long cachedAt = -1;
+
+        synchronized void record(long nanos) {
+            samples[(int) (recorded % WINDOW_SIZE)] = nanos;
+            recorded++;
+            count = Math.min(count + 1, WINDOW_SIZE);
+        }
+
+        // 0 until minSamples latencies were recorded
+        synchronized long percentile(double percentile, int minSamples) {
+            if (count < minSamples) {
+                return 0;
+            }
+            if (cachedAt < 0 || recorded - cachedAt >= RECOMPUTE_INTERVAL) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(Math.min(percentile, 1.0) * count) - 1;
+                cachedPercentile = sorted[Math.max(0, index)];
+                cachedAt = recorded;
+            }
+            return cachedPercentile;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.profid.profid.utils.v1;
+
+import com.profid.profid.utils.HttpClientMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Times every WebClient exchange until its response headers arrive and counts the body bytes going out and
+ * coming back, with the same meters and tags as the Apache client's {@code HttpClientMetricsHandler}.
+ */
+public class WebClientMetricsFilter implements ExchangeFilterFunction {
+
+    private final HttpClientMetrics metrics;
+
+    public WebClientMetricsFilter(HttpClientMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String method = request.method().name();
+        String host = HttpClientMetrics.hostOf(request.url());
+
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return next.exchange(countingRequestBody(request, method, host))
+                    .doOnNext(response -> metrics.recordRequest(method, host,
+                            String.valueOf(response.statusCode().value()), System.nanoTime() - started))
+                    .doOnError(e -> metrics.recordRequest(method, host, HttpClientMetrics.NO_RESPONSE,
+                            System.nanoTime() - started))
+                    .map(response -> countingResponseBody(response, method, host));
+        });
+    }
+
+    private ClientRequest countingRequestBody(ClientRequest request, String method, String host) {
+        BodyInserter<?, ? super ClientHttpRequest> body = request.body();
+        return ClientRequest.from(request)
+                .body((outputMessage, context) -> body.insert(new ClientHttpRequestDecorator(outputMessage) {
+                    @Override
+                    public Mono<Void> writeWith(Publisher<? extends DataBuffer> buffers) {
+                        AtomicLong written = new AtomicLong();
+                        return super.writeWith(Flux.from(buffers)
+                                .doOnNext(buffer -> written.addAndGet(buffer.readableByteCount())))
+                                .doOnSuccess(done -> metrics.recordRequestSize(method, host, written.get()));
+                    }
+                }, context))
+                .build();
+    }
+
+    private ClientResponse countingResponseBody(ClientResponse response, String method, String host) {
+        AtomicLong read = new AtomicLong();
+        // exchangeToMono releases the body again after it was read, which must not count as a second response
+        AtomicBoolean recorded = new AtomicBoolean();
+        return response.mutate()
+                .body(buffers -> buffers
+                        .doOnNext(buffer -> read.addAndGet(buffer.readableByteCount()))
+                        .doFinally(signal -> {
+                            if (recorded.compareAndSet(false, true)) {
+                                metrics.recordResponseSize(method, host, read.get());
+                            }
+                        }))
+                .build();
+    }
+}
@@ -1,60 +1,132 @@
 package com.profid.profid.utils.v2;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.profid.profid.config.HttpClientProperties;
+import com.profid.profid.exception.HttpStatusException;
+import com.profid.profid.utils.ConditionalRequest;
+import com.profid.profid.utils.RawResponse;
+import com.profid.profid.utils.WireFormat;
+import com.profid.profid.utils.WireFormatNegotiator;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpMessage;
+import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.pool.PoolStats;
 import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+/**
+ * Blocking counterpart of {@code GenericWebClient} on the pooled Apache client. Bodies are JSON unless the target is
+ * configured for, or answers in, Smile or CBOR ({@link WireFormatNegotiator}).
+ */
 @Component
 public class GenericHttpClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GenericHttpClient.class);
 
     private final CloseableHttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final Map<WireFormat, ObjectWriter> requestWriters = new EnumMap<>(WireFormat.class);
+    private final WireFormatNegotiator wireFormats;
 
-    public GenericHttpClient() {
-        this.httpClient = HttpClients.custom().build();
-        this.objectMapper = new ObjectMapper();
+    private final Set<String> gzipHosts;
+    private final boolean logRequestBodies;
+    private final int maxLoggedBodyBytes;
+
+    // Writers for list bodies of a single element class, built once per format and class so the element serializer is resolved up front
+    private final Map<WireFormat, ConcurrentMap<Class<?>, ObjectWriter>> listWriters = new EnumMap<>(WireFormat.class);
+
+    // One RequestConfig per timeout profile instead of a new one per request
+    private final ConcurrentMap<Integer, RequestConfig> requestConfigs = new ConcurrentHashMap<>();
+
+    public GenericHttpClient(CloseableHttpClient pooledHttpClient, PoolingHttpClientConnectionManager httpClientConnectionManager,
+                             HttpClientProperties httpClientProperties) {
+        this.httpClient = pooledHttpClient;
+        this.connectionManager = httpClientConnectionManager;
+        for (WireFormat format : WireFormat.values()) {
+            // Request bodies are written into the connection's stream, which the client closes, not the generator
+            requestWriters.put(format, format.getObjectMapper().writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+            listWriters.put(format, new ConcurrentHashMap<>());
+        }
+        this.wireFormats = new WireFormatNegotiator(httpClientProperties.isNegotiateBinaryFormats(),
+                httpClientProperties.getHostFormats());
+        this.gzipHosts = ConcurrentHashMap.newKeySet();
+        httpClientProperties.getGzipRequestHosts().forEach(host -> gzipHosts.add(host.toLowerCase(Locale.ROOT)));
+        this.logRequestBodies = httpClientProperties.isLogRequestBodies();
+        this.maxLoggedBodyBytes = httpClientProperties.getMaxLoggedBodyBytes();
 
         LOGGER.info("GenericHttpClient initialized");
     }
 
     public <T> T get(String url, Map<String, String> headers, TypeReference<T> responseType, int timeoutInSeconds) throws IOException {
-        LOGGER.info("Executing GET request to URL: {}", url);
+        return get(url, headers, responseType, timeoutInSeconds, null);
+    }
 
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectionRequestTimeout(Timeout.ofSeconds(timeoutInSeconds))
-                .setResponseTimeout(Timeout.ofSeconds(timeoutInSeconds))
-                .build();
+    /**
+     * Conditional variant of {@link #get}: on {@code 304 Not Modified} the conditional request is marked and
+     * null is returned without reading a body.
+     */
+    public <T> T get(String url, Map<String, String> headers, TypeReference<T> responseType, int timeoutInSeconds,
+                     ConditionalRequest conditional) throws IOException {
+        LOGGER.info("Executing GET request to URL: {}", url);
 
         HttpGet httpGet = new HttpGet(url);
-        httpGet.setConfig(requestConfig);
+        httpGet.setConfig(buildRequestConfig(timeoutInSeconds));
         headers.forEach(httpGet::addHeader);
+        applyAccept(httpGet, wireFormats.accept(hostOf(url)));
+        if (conditional != null) {
+            conditional.applyTo(httpGet::addHeader);
+        }
 
         HttpClientResponseHandler<T> responseHandler = response -> {
             int statusCode = response.getCode();
-            String responseBody = EntityUtils.toString(response.getEntity());
+            if (isNotModified(url, response, conditional)) {
+                return null;
+            }
+            HttpEntity entity = response.getEntity();
 
             LOGGER.info("GET request to URL: {} returned status code: {}", url, statusCode);
 
             if (statusCode >= 200 && statusCode < 300) {
-                return objectMapper.readValue(responseBody, responseType);
+                return readBody(entity, format -> format.getObjectMapper().readerFor(responseType));
             } else {
+                String responseBody = entity != null ? EntityUtils.toString(entity) : null;
                 LOGGER.error("GET request failed with status code: {} and response: {}", statusCode, responseBody);
-                throw new IOException("GET request failed with status code: " + statusCode);
+                throw new HttpStatusException(statusCode, "GET request failed with status code: " + statusCode);
             }
         };
 
@@ -66,41 +138,282 @@ public class GenericHttpClient {
         }
     }
 
+    /**
+     * Downloads a response body without parsing it. Non-2xx statuses fail with {@link HttpStatusException}.
+     * The body may be Smile or CBOR when negotiated; {@link WireFormat#fromContentType} tells which.
+     */
+    public RawResponse getRaw(String url, Map<String, String> headers, int timeoutInSeconds) throws IOException {
+        LOGGER.info("Executing raw GET request to URL: {}", url);
+
+        HttpGet httpGet = new HttpGet(url);
+        httpGet.setConfig(buildRequestConfig(timeoutInSeconds));
+        headers.forEach(httpGet::addHeader);
+        applyAccept(httpGet, wireFormats.accept(hostOf(url)));
+
+        HttpClientResponseHandler<RawResponse> responseHandler = response -> {
+            int statusCode = response.getCode();
+            HttpEntity entity = response.getEntity();
+
+            LOGGER.info("GET request to URL: {} returned status code: {}", url, statusCode);
+
+            if (statusCode < 200 || statusCode >= 300) {
+                String responseBody = entity != null ? EntityUtils.toString(entity) : null;
+                LOGGER.error("GET request failed with status code: {} and response: {}", statusCode, responseBody);
+                throw new HttpStatusException(statusCode, "GET request failed with status code: " + statusCode);
+            }
+
+            Map<String, String> responseHeaders = new HashMap<>();
+            for (Header header : response.getHeaders()) {
+                responseHeaders.putIfAbsent(header.getName(), header.getValue());
+            }
+            return new RawResponse(statusCode, responseHeaders, entity != null ? EntityUtils.toByteArray(entity) : null);
+        };
+
+        try {
+            return httpClient.execute(httpGet, responseHandler);
+        } catch (IOException e) {
+            LOGGER.error("Error executing raw GET request to URL: {}", url, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Streams an array response (JSON, Smile or CBOR) element by element instead of buffering the whole body.
+     * Elements are handed to {@code chunkConsumer} in chunks of at most {@code chunkSize},
+     * so memory stays bounded by the chunk size rather than the payload size.
+     *
+     * @return the number of elements read
+     */
+    public <T> long getAsStream(String url, Map<String, String> headers, Class<T> elementType, int chunkSize,
+                                Consumer<List<T>> chunkConsumer, int timeoutInSeconds) throws IOException {
+        return getAsStream(url, headers, elementType, chunkSize, chunkConsumer, timeoutInSeconds, null);
+    }
+
+    /**
+     * Conditional variant of {@link #getAsStream}: on {@code 304 Not Modified} the conditional request is marked,
+     * the consumer is never called and 0 is returned.
+     */
+    public <T> long getAsStream(String url, Map<String, String> headers, Class<T> elementType, int chunkSize,
+                                Consumer<List<T>> chunkConsumer, int timeoutInSeconds,
+                                ConditionalRequest conditional) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+
+        LOGGER.info("Executing streaming GET request to URL: {}", url);
+
+        HttpGet httpGet = new HttpGet(url);
+        httpGet.setConfig(buildRequestConfig(timeoutInSeconds));
+        headers.forEach(httpGet::addHeader);
+        applyAccept(httpGet, wireFormats.accept(hostOf(url)));
+        if (conditional != null) {
+            conditional.applyTo(httpGet::addHeader);
+        }
+
+        HttpClientResponseHandler<Long> responseHandler = response -> {
+            int statusCode = response.getCode();
+            if (isNotModified(url, response, conditional)) {
+                return 0L;
+            }
+            HttpEntity entity = response.getEntity();
+
+            LOGGER.info("GET request to URL: {} returned status code: {}", url, statusCode);
+
+            if (statusCode < 200 || statusCode >= 300) {
+                String responseBody = entity != null ? EntityUtils.toString(entity) : null;
+                LOGGER.error("GET request failed with status code: {} and response: {}", statusCode, responseBody);
+                throw new HttpStatusException(statusCode, "GET request failed with status code: " + statusCode);
+            }
+            if (entity == null) {
+                return 0L;
+            }
+
+            try (InputStream inputStream = entity.getContent()) {
+                return readArray(inputStream, WireFormat.fromContentType(entity.getContentType()), elementType, chunkSize,
+                        chunkConsumer);
+            }
+        };
+
+        try {
+            long count = httpClient.execute(httpGet, responseHandler);
+            LOGGER.info("Streamed {} elements from URL: {}", count, url);
+            return count;
+        } catch (IOException e) {
+            LOGGER.error("Error executing streaming GET request to URL: {}", url, e);
+            throw e;
+        }
+    }
 
     public <T, R> T post(String url, Map<String, String> headers, R requestBody, Class<T> responseType, int timeoutInSeconds) throws IOException {
         if (url == null || url.isEmpty()) {
             throw new IllegalArgumentException("URL cannot be null or empty");
         }
 
+        String host = hostOf(url);
+        WireFormat format = requestBody != null ? wireFormats.requestFormat(host) : WireFormat.JSON;
+        boolean gzip = requestBody != null && gzipHosts.contains(host);
+        try {
+            return post(url, headers, requestBody, responseType, timeoutInSeconds, format, gzip);
+        } catch (HttpStatusException e) {
+            if (e.getStatusCode() != HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE || (!gzip && !format.isBinary())) {
+                throw e;
+            }
+            // 415 does not say whether the media type or the encoding was refused, so both fall back at once
+            if (gzip) {
+                // RFC 7694: 415 to a compressed body means the target does not take that encoding, so stop sending it
+                gzipHosts.remove(host);
+                LOGGER.warn("{} rejected a gzip request body, sending uncompressed bodies to it from now on", host);
+            }
+            wireFormats.rejected(host, format);
+            return post(url, headers, requestBody, responseType, timeoutInSeconds, WireFormat.JSON, false);
+        }
+    }
+
+    private <T, R> T post(String url, Map<String, String> headers, R requestBody, Class<T> responseType, int timeoutInSeconds,
+                          WireFormat format, boolean gzip) throws IOException {
         HttpPost httpPost = new HttpPost(url);
         httpPost.setConfig(buildRequestConfig(timeoutInSeconds));
         headers.forEach(httpPost::addHeader);
+        applyAccept(httpPost, wireFormats.accept(hostOf(url)));
 
+        JsonStreamingEntity entity = null;
         if (requestBody != null) {
-            String requestJson = objectMapper.writeValueAsString(requestBody);
-            httpPost.setEntity(new org.apache.hc.core5.http.io.entity.StringEntity(requestJson, org.apache.hc.core5.http.ContentType.APPLICATION_JSON));
-            LOGGER.debug("POST request body: {}", requestJson);
+            // Binary bodies would log as noise, so only JSON is previewed
+            boolean logBody = logRequestBodies && !format.isBinary() && LOGGER.isDebugEnabled();
+            entity = new JsonStreamingEntity(requestBody, writerFor(format, requestBody), ContentType.create(format.getMediaType()),
+                    gzip, logBody ? maxLoggedBodyBytes : 0);
+            httpPost.setEntity(entity);
         }
 
         HttpClientResponseHandler<T> responseHandler = response -> {
             int statusCode = response.getCode();
-            String responseBody = EntityUtils.toString(response.getEntity());
+            HttpEntity responseEntity = response.getEntity();
 
             if (statusCode >= 200 && statusCode < 300) {
-                return objectMapper.readValue(responseBody, responseType);
+                return readBody(responseEntity, responseFormat -> responseFormat.getObjectMapper().readerFor(responseType));
             } else {
+                String responseBody = responseEntity != null ? EntityUtils.toString(responseEntity) : null;
                 LOGGER.error("POST request failed with status code: {} and response: {}", statusCode, responseBody);
-                throw new IOException("POST request failed with status code: " + statusCode);
+                throw new HttpStatusException(statusCode, "POST request failed with status code: " + statusCode);
             }
         };
 
-        return httpClient.execute(httpPost, responseHandler);
+        try {
+            return httpClient.execute(httpPost, responseHandler);
+        } finally {
+            // The preview is only filled while the body is written, so it is logged afterwards
+            if (entity != null && entity.getPreview() != null) {
+                LOGGER.debug("POST request body to URL: {}{}: {}", url, gzip ? " (gzip)" : "", entity.getPreview());
+            }
+        }
+    }
+
+    // Typed writer for homogeneous lists (e.g. export batches), the untyped one for anything else
+    private ObjectWriter writerFor(WireFormat format, Object body) {
+        ObjectWriter requestWriter = requestWriters.get(format);
+        if (!(body instanceof List<?> list) || list.isEmpty() || list.get(0) == null) {
+            return requestWriter;
+        }
+        Class<?> elementType = list.get(0).getClass();
+        for (Object element : list) {
+            if (element == null || element.getClass() != elementType) {
+                return requestWriter;
+            }
+        }
+        ObjectMapper objectMapper = format.getObjectMapper();
+        return listWriters.get(format).computeIfAbsent(elementType, type ->
+                requestWriter.forType(objectMapper.getTypeFactory().constructCollectionType(List.class, type)));
+    }
+
+    // Callers' own Accept header wins; null leaves the request without one
+    private static void applyAccept(HttpMessage request, String accept) {
+        if (accept != null && !request.containsHeader(HttpHeaders.ACCEPT)) {
+            request.addHeader(HttpHeaders.ACCEPT, accept);
+        }
+    }
+
+    // Decodes straight from the connection's stream in the format the response declares
+    private static <T> T readBody(HttpEntity entity, Function<WireFormat, ObjectReader> readerFor) throws IOException {
+        if (entity == null) {
+            throw new IOException("Response has no body");
+        }
+        ObjectReader reader = readerFor.apply(WireFormat.fromContentType(entity.getContentType()));
+        try (InputStream inputStream = entity.getContent()) {
+            return reader.readValue(inputStream);
+        }
+    }
+
+    private static String hostOf(String url) {
+        String host = URI.create(url).getHost();
+        return host != null ? host.toLowerCase(Locale.ROOT) : "";
+    }
+
+    // Records the outcome of a conditional request; true when the cached copy is still current
+    private static boolean isNotModified(String url, ClassicHttpResponse response, ConditionalRequest conditional) {
+        if (conditional == null) {
+            return false;
+        }
+        if (response.getCode() == HttpStatus.SC_NOT_MODIFIED) {
+            LOGGER.info("GET request to URL: {} returned 304 Not Modified", url);
+            conditional.markNotModified();
+            return true;
+        }
+        conditional.captureValidators(name -> {
+            Header header = response.getFirstHeader(name);
+            return header != null ? header.getValue() : null;
+        });
+        return false;
+    }
+
+    private <T> long readArray(InputStream inputStream, WireFormat format, Class<T> elementType, int chunkSize,
+                               Consumer<List<T>> chunkConsumer) throws IOException {
+        ObjectMapper objectMapper = format.getObjectMapper();
+        ObjectReader reader = objectMapper.readerFor(elementType);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return 0;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a " + format + " array but found: " + token);
+            }
+
+            long count = 0;
+            List<T> chunk = new ArrayList<>(chunkSize);
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Unexpected end of " + format + " array after " + count + " elements");
+                }
+                chunk.add(reader.readValue(parser));
+                count++;
+
+                if (chunk.size() == chunkSize) {
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+            }
+            return count;
+        }
+    }
+
+    public PoolStats getTotalPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    public Map<String, PoolStats> getRoutePoolStats() {
+        Map<String, PoolStats> stats = new TreeMap<>();
+        connectionManager.getRoutes().forEach(route -> stats.put(route.getTargetHost().toURI(), connectionManager.getStats(route)));
+        return stats;
     }
 
     private RequestConfig buildRequestConfig(int timeoutInSeconds) {
-        return RequestConfig.custom()
-                .setConnectionRequestTimeout(Timeout.ofSeconds(timeoutInSeconds))
-                .setResponseTimeout(Timeout.ofSeconds(timeoutInSeconds))
-                .build();
+        return requestConfigs.computeIfAbsent(timeoutInSeconds, timeout -> RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofSeconds(timeout))
+                .setResponseTimeout(Timeout.ofSeconds(timeout))
+                .build());
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.profid.profid.utils.v2;
+
+import com.profid.profid.utils.HttpClientMetrics;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * First handler of the Apache client's exec chain: times every exchange until its response headers arrive and
+ * counts the body bytes going out and coming back. Retries and redirects run further down the chain, so one
+ * call of {@code execute} is one sample.
+ */
+public class HttpClientMetricsHandler implements ExecChainHandler {
+
+    private final HttpClientMetrics metrics;
+
+    public HttpClientMetricsHandler(HttpClientMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, ExecChain.Scope scope, ExecChain chain)
+            throws IOException, HttpException {
+        String method = request.getMethod();
+        String host = scope.route.getTargetHost().getHostName().toLowerCase(Locale.ROOT);
+        if (request.getEntity() != null) {
+            request.setEntity(new CountingRequestEntity(request.getEntity(), method, host));
+        }
+
+        long started = System.nanoTime();
+        ClassicHttpResponse response;
+        try {
+            response = chain.proceed(request, scope);
+        } catch (IOException | HttpException | RuntimeException e) {
+            metrics.recordRequest(method, host, HttpClientMetrics.NO_RESPONSE, System.nanoTime() - started);
+            throw e;
+        }
+        metrics.recordRequest(method, host, String.valueOf(response.getCode()), System.nanoTime() - started);
+
+        if (response.getEntity() != null) {
+            response.setEntity(new CountingResponseEntity(response.getEntity(), method, host));
+        }
+        return response;
+    }
+
+    private final class CountingRequestEntity extends HttpEntityWrapper {
+
+        private final String method;
+        private final String host;
+
+        private CountingRequestEntity(HttpEntity entity, String method, String host) {
+            super(entity);
+            this.method = method;
+            this.host = host;
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            long[] written = new long[1];
+            super.writeTo(new FilterOutputStream(outputStream) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    written[0]++;
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    out.write(bytes, offset, length);
+                    written[0] += length;
+                }
+
+                // The connection's stream is closed by the client, not by the entity
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            });
+            metrics.recordRequestSize(method, host, written[0]);
+        }
+    }
+
+    private final class CountingResponseEntity extends HttpEntityWrapper {
+
+        private final String method;
+        private final String host;
+
+        private CountingResponseEntity(HttpEntity entity, String method, String host) {
+            super(entity);
+            this.method = method;
+            this.host = host;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                private long read;
+                private boolean recorded;
+
+                @Override
+                public int read() throws IOException {
+                    int b = in.read();
+                    if (b >= 0) {
+                        read++;
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) throws IOException {
+                    int n = in.read(bytes, offset, length);
+                    if (n > 0) {
+                        read += n;
+                    }
+                    return n;
+                }
+
+                // Recorded once, whether the body was read to the end or abandoned
+                @Override
+                public void close() throws IOException {
+                    try {
+                        in.close();
+                    } finally {
+                        if (!recorded) {
+                            recorded = true;
+                            metrics.recordResponseSize(method, host, read);
+                        }
+                    }
+                }
+            };
+        }
+    }
+}
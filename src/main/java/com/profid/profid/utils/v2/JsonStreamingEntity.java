@@ -0,0 +1,135 @@
+package com.profid.profid.utils.v2;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializes a value as JSON, or Smile/CBOR when the writer is for those, straight into the connection's output
+ * stream, optionally through gzip, instead of building the body as a String first. The body is sent chunked because its length is unknown up front.
+ * Repeatable: every write serializes the value again, so retries of the same request work.
+ */
+final class JsonStreamingEntity extends AbstractHttpEntity {
+
+    private final Object value;
+    private final ObjectWriter writer;
+    private final boolean gzip;
+
+    // Receives the first previewLimit bytes of the uncompressed body when body logging is on, otherwise null
+    private final ByteArrayOutputStream preview;
+    private final int previewLimit;
+
+    JsonStreamingEntity(Object value, ObjectWriter writer, ContentType contentType, boolean gzip, int previewLimit) {
+        super(contentType, gzip ? "gzip" : null, true);
+        this.value = value;
+        this.writer = writer;
+        this.gzip = gzip;
+        this.previewLimit = previewLimit;
+        this.preview = previewLimit > 0 ? new ByteArrayOutputStream(previewLimit) : null;
+    }
+
+    @Override
+    public void writeTo(OutputStream outputStream) throws IOException {
+        if (gzip) {
+            GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, 8192);
+            writeJson(gzipStream);
+            // finish() rather than close(): the connection's stream belongs to the client
+            gzipStream.finish();
+        } else {
+            writeJson(outputStream);
+        }
+        outputStream.flush();
+    }
+
+    private void writeJson(OutputStream target) throws IOException {
+        if (preview != null) {
+            preview.reset();
+            target = new PreviewOutputStream(target, preview, previewLimit);
+        }
+        writer.writeValue(target, value);
+    }
+
+    // Only for callers that want the body as a stream; the client itself uses writeTo
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        writeTo(buffer);
+        return new ByteArrayInputStream(buffer.toByteArray());
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    String getPreview() {
+        if (preview == null) {
+            return null;
+        }
+        String text = preview.toString(StandardCharsets.UTF_8);
+        return preview.size() >= previewLimit ? text + "..." : text;
+    }
+
+    // Passes everything through and copies the first bytes aside for the debug log
+    private static final class PreviewOutputStream extends OutputStream {
+
+        private final OutputStream delegate;
+        private final ByteArrayOutputStream preview;
+        private final int limit;
+
+        private PreviewOutputStream(OutputStream delegate, ByteArrayOutputStream preview, int limit) {
+            this.delegate = delegate;
+            this.preview = preview;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (preview.size() < limit) {
+                preview.write(b);
+            }
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            int room = limit - preview.size();
+            if (room > 0) {
+                preview.write(bytes, offset, Math.min(room, length));
+            }
+            delegate.write(bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        // The generator does not close its target (AUTO_CLOSE_TARGET is off); nothing to release here
+        @Override
+        public void close() {
+        }
+    }
+}
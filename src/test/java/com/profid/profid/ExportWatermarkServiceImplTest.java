@@ -0,0 +1,51 @@
+package com.profid.profid;
+
+import com.profid.profid.entity.ExportWatermark;
+import com.profid.profid.repository.ExportWatermarkRepository;
+import com.profid.profid.service.ExportWatermarkService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ExportWatermarkServiceImplTest {
+
+    private static final String TARGET_URL = "https://example.org/students";
+
+    @Autowired
+    private ExportWatermarkService exportWatermarkService;
+
+    @Autowired
+    private ExportWatermarkRepository exportWatermarkRepository;
+
+    @AfterEach
+    void tearDown() {
+        exportWatermarkRepository.deleteAll();
+    }
+
+    @Test
+    void advance_NeverMovesTheWatermarkBack() {
+        Instant earlier = Instant.parse("2026-01-01T10:00:00Z");
+        Instant later = earlier.plus(1, ChronoUnit.MINUTES);
+
+        exportWatermarkService.advance(TARGET_URL, earlier, 5L);
+        exportWatermarkService.advance(TARGET_URL, later, 3L);
+        // An export that finished after a newer one acknowledged an older position
+        exportWatermarkService.advance(TARGET_URL, earlier, 9L);
+        exportWatermarkService.advance(TARGET_URL, later, 2L);
+
+        ExportWatermark watermark = exportWatermarkService.findByTargetUrl(TARGET_URL).orElseThrow();
+        assertEquals(later, watermark.getUpdatedAt());
+        assertEquals(3L, watermark.getStudentId());
+
+        exportWatermarkService.advance(TARGET_URL, later, 4L);
+
+        assertEquals(4L, exportWatermarkService.findByTargetUrl(TARGET_URL).orElseThrow().getStudentId());
+    }
+}
@@ -0,0 +1,274 @@
+package com.profid.profid;
+
+import com.profid.profid.config.HttpClientConfig;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.profid.profid.config.HttpClientProperties;
+import com.profid.profid.dto.GeneralResponse;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.repository.projection.StudentExportRow;
+import com.profid.profid.repository.projection.SubjectExportRow;
+import com.profid.profid.utils.ConditionalRequest;
+import com.profid.profid.utils.HttpClientMetrics;
+import com.profid.profid.utils.WireFormat;
+import com.profid.profid.utils.v2.GenericHttpClient;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenericHttpClientTest {
+
+    private HttpServer server;
+    private String baseUrl;
+
+    private final List<String> acceptHeaders = new ArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private GenericHttpClient genericHttpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        HttpClientConfig httpClientConfig = new HttpClientConfig();
+        HttpClientProperties properties = new HttpClientProperties();
+        connectionManager = httpClientConfig.httpClientConnectionManager(properties);
+        meterRegistry = new SimpleMeterRegistry();
+        httpClient = httpClientConfig.pooledHttpClient(connectionManager, properties, meterRegistry);
+        properties.setGzipRequestHosts(List.of("localhost"));
+        genericHttpClient = new GenericHttpClient(httpClient, connectionManager, properties);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/students", exchange -> {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = 0; i < 5; i++) {
+                if (i > 0) {
+                    body.append(',');
+                }
+                body.append("{\"name\":\"Student ").append(i).append("\",\"email\":\"s").append(i)
+                        .append("@example.com\",\"age\":20,\"subjects\":[{\"name\":\"Math\",\"credits\":3}]}");
+            }
+            body.append(']');
+            respond(exchange, 200, body.toString());
+        });
+        server.createContext("/versioned", exchange -> {
+            if ("\"v2\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", "\"v2\"");
+            respond(exchange, 200, "[{\"name\":\"Student 0\",\"email\":\"s0@example.com\",\"age\":20}]");
+        });
+        server.createContext("/receive", exchange -> {
+            boolean gzip = "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            InputStream body = gzip ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody();
+            String json = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            respond(exchange, 200, "{\"message\":\"" + (gzip ? "gzip " : "plain ") + json.length() + "\",\"status\":\"SUCCESS\"}");
+        });
+        server.createContext("/plain-only", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            if (exchange.getRequestHeaders().containsKey("Content-Encoding")) {
+                respond(exchange, 415, "gzip not supported");
+                return;
+            }
+            respond(exchange, 200, "{\"message\":\"plain\",\"status\":\"SUCCESS\"}");
+        });
+        server.createContext("/broken", exchange -> respond(exchange, 503, "unavailable"));
+        // Smile for clients that ask for it, JSON for everyone else
+        server.createContext("/negotiated", exchange -> {
+            String accept = exchange.getRequestHeaders().getFirst("Accept");
+            acceptHeaders.add(accept);
+            WireFormat format = accept != null && accept.startsWith(WireFormat.SMILE.getMediaType()) ? WireFormat.SMILE : WireFormat.JSON;
+            List<StudentResponseDTO> students = List.of(
+                    new StudentResponseDTO("Ann", "ann@example.com", 20, "F", null, null, List.of()),
+                    new StudentResponseDTO("Bob", "bob@example.com", 21, "M", null, null, List.of()));
+            respond(exchange, 200, format.getMediaType(), format.getObjectMapper().writeValueAsBytes(students));
+        });
+        // Echoes the media type and element count of the body; 415 for anything but JSON
+        server.createContext("/json-only", exchange -> receiveFormat(exchange, false));
+        server.createContext("/any-format", exchange -> receiveFormat(exchange, true));
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void getAsStream_DeliversElementsInChunks() throws IOException {
+        List<List<StudentResponseDTO>> chunks = new ArrayList<>();
+
+        long count = genericHttpClient.getAsStream(baseUrl + "/students", Map.of(), StudentResponseDTO.class, 2,
+                chunks::add, 5);
+
+        assertEquals(5, count);
+        assertEquals(List.of(2, 2, 1), chunks.stream().map(List::size).toList());
+        assertEquals("Student 4", chunks.get(2).get(0).getName());
+        assertEquals("Math", chunks.get(0).get(0).getSubjects().get(0).getName());
+        assertEquals(0, genericHttpClient.getTotalPoolStats().getLeased());
+        assertEquals(1, genericHttpClient.getTotalPoolStats().getAvailable());
+    }
+
+    @Test
+    void getAsStream_FailsOnErrorStatus() {
+        IOException exception = assertThrows(IOException.class, () -> genericHttpClient.getAsStream(
+                baseUrl + "/broken", Map.of(), StudentResponseDTO.class, 2, chunk -> fail("No chunk expected"), 5));
+
+        assertTrue(exception.getMessage().contains("503"));
+    }
+
+    @Test
+    void getAsStream_RevalidatesWithEtag() throws IOException {
+        ConditionalRequest first = new ConditionalRequest(null, null);
+        long count = genericHttpClient.getAsStream(baseUrl + "/versioned", Map.of(), StudentResponseDTO.class, 2,
+                chunk -> {
+                }, 5, first);
+
+        assertEquals(1, count);
+        assertFalse(first.isNotModified());
+        assertEquals("\"v2\"", first.getResponseEtag());
+
+        ConditionalRequest second = new ConditionalRequest(first.getResponseEtag(), null);
+        long revalidated = genericHttpClient.getAsStream(baseUrl + "/versioned", Map.of(), StudentResponseDTO.class, 2,
+                chunk -> fail("No chunk expected"), 5, second);
+
+        assertEquals(0, revalidated);
+        assertTrue(second.isNotModified());
+    }
+
+    @Test
+    void post_StreamsGzipBodyToConfiguredHost() throws IOException {
+        List<StudentResponseDTO> students = List.of(
+                new StudentResponseDTO("John", "john@example.com", 20, "Male", "1234567890", "Address 1", List.of()));
+        String json = new ObjectMapper().writeValueAsString(students);
+
+        GeneralResponse response = genericHttpClient.post(baseUrl + "/receive", Map.of(), students, GeneralResponse.class, 5);
+
+        assertEquals("gzip " + json.length(), response.getMessage());
+    }
+
+    @Test
+    void post_WritesExportRowsWithoutInternalFields() throws IOException {
+        StudentExportRow student = new StudentExportRow(1L, "John", "john@example.com", 20, "Male", "1234567890",
+                "Address 1", Instant.now());
+        student.subjects().add(new SubjectExportRow(1L, 5L, "Math", 3, "Mathematics"));
+        String json = "[{\"id\":1,\"name\":\"John\",\"email\":\"john@example.com\",\"age\":20,\"gender\":\"Male\","
+                + "\"phoneNumber\":\"1234567890\",\"address\":\"Address 1\","
+                + "\"subjects\":[{\"id\":5,\"name\":\"Math\",\"credits\":3,\"description\":\"Mathematics\"}]}]";
+
+        GeneralResponse response = genericHttpClient.post(baseUrl + "/receive", Map.of(), List.of(student), GeneralResponse.class, 5);
+
+        assertEquals("gzip " + json.length(), response.getMessage());
+    }
+
+    @Test
+    void post_RecordsRequestMetricsByHost() throws IOException {
+        genericHttpClient.post(baseUrl + "/receive", Map.of(), List.of("a", "b"), GeneralResponse.class, 5);
+        assertThrows(IOException.class, () -> genericHttpClient.getRaw(baseUrl + "/broken", Map.of(), 5));
+
+        Timer posts = meterRegistry.get(HttpClientMetrics.REQUESTS)
+                .tags("client", "httpclient", "method", "POST", "host", "localhost", "status", "200").timer();
+        Timer failures = meterRegistry.get(HttpClientMetrics.REQUESTS).tags("method", "GET", "status", "503").timer();
+        assertEquals(1, posts.count());
+        assertEquals(1, failures.count());
+        assertTrue(meterRegistry.get(HttpClientMetrics.REQUEST_SIZE).tags("method", "POST").summary().totalAmount() > 0);
+        assertEquals("unavailable".length(),
+                meterRegistry.get(HttpClientMetrics.RESPONSE_SIZE).tags("method", "GET").summary().totalAmount());
+    }
+
+    @Test
+    void post_FallsBackToPlainBodyAfter415() throws IOException {
+        List<String> body = List.of("a", "b");
+
+        GeneralResponse first = genericHttpClient.post(baseUrl + "/plain-only", Map.of(), body, GeneralResponse.class, 5);
+        GeneralResponse second = genericHttpClient.post(baseUrl + "/receive", Map.of(), body, GeneralResponse.class, 5);
+
+        assertEquals("plain", first.getMessage());
+        assertTrue(second.getMessage().startsWith("plain "));
+    }
+
+    @Test
+    void get_DecodesTheFormatTheHostNegotiated() throws IOException {
+        List<StudentResponseDTO> students = genericHttpClient.get(baseUrl + "/negotiated", Map.of(),
+                new TypeReference<List<StudentResponseDTO>>() {
+                }, 5);
+        List<StudentResponseDTO> streamed = new ArrayList<>();
+        genericHttpClient.getAsStream(baseUrl + "/negotiated", Map.of(), StudentResponseDTO.class, 10, streamed::addAll, 5);
+        // The caller's own Accept header is left alone
+        List<StudentResponseDTO> json = genericHttpClient.get(baseUrl + "/negotiated", Map.of("Accept", "application/json"),
+                new TypeReference<List<StudentResponseDTO>>() {
+                }, 5);
+
+        assertEquals(List.of("Ann", "Bob"), students.stream().map(StudentResponseDTO::getName).toList());
+        assertEquals(List.of("Ann", "Bob"), streamed.stream().map(StudentResponseDTO::getName).toList());
+        assertEquals(List.of("Ann", "Bob"), json.stream().map(StudentResponseDTO::getName).toList());
+        assertEquals("application/x-jackson-smile, application/cbor;q=0.9, application/json;q=0.8", acceptHeaders.get(0));
+        assertEquals("application/json", acceptHeaders.get(2));
+    }
+
+    @Test
+    void post_SendsConfiguredFormatAndFallsBackToJsonAfter415() throws IOException {
+        HttpClientProperties properties = new HttpClientProperties();
+        properties.setHostFormats(Map.of("localhost", WireFormat.CBOR));
+        GenericHttpClient cborClient = new GenericHttpClient(httpClient, connectionManager, properties);
+        List<String> body = List.of("a", "b");
+
+        GeneralResponse cbor = cborClient.post(baseUrl + "/any-format", Map.of(), body, GeneralResponse.class, 5);
+        GeneralResponse rejected = cborClient.post(baseUrl + "/json-only", Map.of(), body, GeneralResponse.class, 5);
+        GeneralResponse json = cborClient.post(baseUrl + "/any-format", Map.of(), body, GeneralResponse.class, 5);
+
+        // The acknowledgement comes back as CBOR too, as the client asked for it first
+        assertEquals("application/cbor 2", cbor.getMessage());
+        assertEquals("application/json 2", rejected.getMessage());
+        assertEquals("application/json 2", json.getMessage());
+    }
+
+    private static void receiveFormat(com.sun.net.httpserver.HttpExchange exchange, boolean anyFormat) throws IOException {
+        WireFormat format = WireFormat.fromContentType(exchange.getRequestHeaders().getFirst("Content-Type"));
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (format.isBinary() && !anyFormat) {
+            respond(exchange, 415, "JSON only");
+            return;
+        }
+        GeneralResponse response = new GeneralResponse(format.getMediaType() + " " + format.getObjectMapper().readTree(body).size(),
+                "SUCCESS");
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        WireFormat responseFormat = WireFormat.fromContentType(accept != null ? accept.split(",")[0] : null);
+        respond(exchange, 200, responseFormat.getMediaType(), responseFormat.getObjectMapper().writeValueAsBytes(response));
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, String body) throws IOException {
+        respond(exchange, status, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, String contentType,
+                                byte[] bytes) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
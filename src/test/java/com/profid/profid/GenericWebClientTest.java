@@ -0,0 +1,256 @@
+package com.profid.profid;
+
+import com.profid.profid.config.WebClientConfig;
+import com.profid.profid.config.WebClientProperties;
+import com.profid.profid.dto.GeneralResponse;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.exception.CircuitOpenException;
+import com.profid.profid.utils.HttpClientMetrics;
+import com.profid.profid.utils.RawResponse;
+import com.profid.profid.utils.WireFormat;
+import com.profid.profid.utils.v1.CircuitBreaker;
+import com.profid.profid.utils.v1.GenericWebClient;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenericWebClientTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+
+    private final AtomicInteger slowRequests = new AtomicInteger();
+    private final AtomicInteger failingFirstRequests = new AtomicInteger();
+    private final AtomicInteger flakyRequests = new AtomicInteger();
+    private final AtomicBoolean flakyHealthy = new AtomicBoolean();
+
+    private WebClientProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // The first request stalls, every later one answers at once
+        server.createContext("/slow", exchange -> {
+            if (slowRequests.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(3000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            respond(exchange, 200, "[]");
+        });
+        // The first request fails after a while, the next one succeeds after as long again
+        server.createContext("/failing-first", exchange -> {
+            boolean first = failingFirstRequests.incrementAndGet() == 1;
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, first ? 503 : 200, first ? "unavailable" : "[]");
+        });
+        server.createContext("/flaky", exchange -> {
+            flakyRequests.incrementAndGet();
+            respond(exchange, flakyHealthy.get() ? 200 : 503, flakyHealthy.get() ? "[]" : "unavailable");
+        });
+        // Smile or CBOR for clients that ask for it first, JSON for everyone else
+        server.createContext("/negotiated", exchange -> {
+            WireFormat format = preferredFormat(exchange);
+            List<StudentResponseDTO> students = List.of(
+                    new StudentResponseDTO("Ann", "ann@example.com", 20, "F", null, null, List.of()),
+                    new StudentResponseDTO("Bob", "bob@example.com", 21, "M", null, null, List.of()));
+            respond(exchange, 200, format.getMediaType(), format.getObjectMapper().writeValueAsBytes(students));
+        });
+        // Echoes the media type and element count of the body; 415 for anything but JSON
+        server.createContext("/json-only", exchange -> receiveFormat(exchange, false));
+        server.createContext("/any-format", exchange -> receiveFormat(exchange, true));
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        properties = new WebClientProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void getRaw_HedgedRequestAnswersBeforeSlowOriginal() {
+        properties.setHedgingEnabled(true);
+        properties.setHedgeDelay(100);
+        properties.setHedgePercentile(0);
+        properties.setMaxHedgeRatio(1.0);
+        GenericWebClient genericWebClient = genericWebClient();
+
+        long started = System.nanoTime();
+        RawResponse response = genericWebClient.getRaw(baseUrl + "/slow", Map.of(), 10).block();
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(200, response.getStatusCode());
+        assertTrue(elapsedMillis < 2000, "Expected the hedge to answer, took " + elapsedMillis + " ms");
+        assertEquals(2, slowRequests.get());
+        assertEquals(1, meterRegistry.get(HttpClientMetrics.HEDGES).tag("outcome", "sent").counter().count());
+        assertEquals(1, meterRegistry.get(HttpClientMetrics.HEDGES).tag("outcome", "won").counter().count());
+    }
+
+    @Test
+    void getRaw_HedgedRequestAnswersAfterOriginalFailed() {
+        properties.setHedgingEnabled(true);
+        properties.setHedgeDelay(500);
+        properties.setHedgePercentile(0);
+        properties.setMaxHedgeRatio(1.0);
+        GenericWebClient genericWebClient = genericWebClient();
+
+        RawResponse response = genericWebClient.getRaw(baseUrl + "/failing-first", Map.of(), 10).block();
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(2, failingFirstRequests.get());
+        assertEquals(1, meterRegistry.get(HttpClientMetrics.HEDGES).tag("outcome", "won").counter().count());
+    }
+
+    @Test
+    void getRaw_FailsWithoutHedgingWhenOriginalFailsBeforeHedgeDelay() {
+        properties.setHedgingEnabled(true);
+        properties.setHedgeDelay(2000);
+        properties.setHedgePercentile(0);
+        properties.setMaxHedgeRatio(1.0);
+        GenericWebClient genericWebClient = genericWebClient();
+
+        long started = System.nanoTime();
+        assertThrows(WebClientResponseException.class,
+                () -> genericWebClient.getRaw(baseUrl + "/flaky", Map.of(), 10).block());
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertTrue(elapsedMillis < 1500, "Expected the original's failure at once, took " + elapsedMillis + " ms");
+        assertEquals(1, flakyRequests.get());
+    }
+
+    @Test
+    void getRaw_OpensCircuitAfterFailuresAndClosesAfterTrialRequest() throws InterruptedException {
+        properties.setCircuitFailureThreshold(2);
+        properties.setCircuitOpenDuration(200);
+        properties.setCircuitHalfOpenRequests(1);
+        GenericWebClient genericWebClient = genericWebClient();
+        String url = baseUrl + "/flaky";
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(WebClientResponseException.class, () -> genericWebClient.getRaw(url, Map.of(), 5).block());
+        }
+        assertThrows(CircuitOpenException.class, () -> genericWebClient.getRaw(url, Map.of(), 5).block());
+        assertEquals(2, flakyRequests.get());
+        assertEquals(CircuitBreaker.State.OPEN, genericWebClient.getCircuitState("localhost"));
+
+        flakyHealthy.set(true);
+        Thread.sleep(300);
+        RawResponse response = genericWebClient.getRaw(url, Map.of(), 5).block();
+
+        assertEquals(200, response.getStatusCode());
+        assertEquals(CircuitBreaker.State.CLOSED, genericWebClient.getCircuitState("localhost"));
+        assertEquals(1, meterRegistry.get(HttpClientMetrics.CIRCUIT_REJECTIONS).counter().count());
+        assertEquals(1, meterRegistry.get(HttpClientMetrics.CIRCUIT_TRANSITIONS)
+                .tags("from", "HALF_OPEN", "to", "CLOSED").counter().count());
+    }
+
+    @Test
+    void get_DecodesTheFormatTheHostNegotiated() {
+        GenericWebClient genericWebClient = genericWebClient();
+        String url = baseUrl + "/negotiated";
+
+        List<StudentResponseDTO> students = genericWebClient.get(url, Map.of(),
+                new ParameterizedTypeReference<List<StudentResponseDTO>>() {
+                }, 5).block();
+        List<StudentResponseDTO> streamed = genericWebClient.getFlux(url, Map.of(), StudentResponseDTO.class, 5)
+                .collectList().block();
+        RawResponse raw = genericWebClient.getRaw(url, Map.of(), 5).block();
+
+        assertEquals(List.of("Ann", "Bob"), students.stream().map(StudentResponseDTO::getName).toList());
+        assertEquals(List.of("Ann", "Bob"), streamed.stream().map(StudentResponseDTO::getName).toList());
+        assertEquals(WireFormat.SMILE, WireFormat.fromContentType(raw.getHeader("Content-Type")));
+    }
+
+    @Test
+    void post_SendsConfiguredFormatAndFallsBackToJsonAfter415() {
+        properties.setHostFormats(Map.of("localhost", WireFormat.CBOR));
+        GenericWebClient genericWebClient = genericWebClient();
+        List<String> body = List.of("a", "b");
+
+        GeneralResponse cbor = genericWebClient.post(baseUrl + "/any-format", Map.of(), body, GeneralResponse.class, 5).block();
+        GeneralResponse rejected = genericWebClient.post(baseUrl + "/json-only", Map.of(), body, GeneralResponse.class, 5).block();
+        GeneralResponse json = genericWebClient.post(baseUrl + "/any-format", Map.of(), body, GeneralResponse.class, 5).block();
+
+        // The acknowledgement comes back as CBOR too, as the client asked for it first
+        assertEquals("application/cbor 2", cbor.getMessage());
+        assertEquals("application/json 2", rejected.getMessage());
+        assertEquals("application/json 2", json.getMessage());
+    }
+
+    private GenericWebClient genericWebClient() {
+        WebClientConfig webClientConfig = new WebClientConfig();
+        connectionProvider = webClientConfig.webClientConnectionProvider(properties);
+        WebClient webClient = webClientConfig.pooledWebClient(WebClient.builder(), connectionProvider, properties,
+                meterRegistry);
+        return new GenericWebClient(webClient, properties, meterRegistry);
+    }
+
+    private static void receiveFormat(com.sun.net.httpserver.HttpExchange exchange, boolean anyFormat) throws IOException {
+        WireFormat format = WireFormat.fromContentType(exchange.getRequestHeaders().getFirst("Content-Type"));
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (format.isBinary() && !anyFormat) {
+            respond(exchange, 415, "JSON only");
+            return;
+        }
+        GeneralResponse response = new GeneralResponse(format.getMediaType() + " " + format.getObjectMapper().readTree(body).size(),
+                "SUCCESS");
+        WireFormat responseFormat = preferredFormat(exchange);
+        respond(exchange, 200, responseFormat.getMediaType(), responseFormat.getObjectMapper().writeValueAsBytes(response));
+    }
+
+    private static WireFormat preferredFormat(com.sun.net.httpserver.HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        return WireFormat.fromContentType(accept != null ? accept.split(",")[0] : null);
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, String body) throws IOException {
+        respond(exchange, status, "application/json", body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, String contentType,
+                                byte[] bytes) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.profid.profid;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.profid.profid.dto.ExportResponse;
+import com.profid.profid.dto.GeneralResponse;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.dto.response.SubjectResponseDTO;
+import com.profid.profid.repository.StudentRepository;
+import com.profid.profid.repository.projection.StudentExportRow;
+import com.profid.profid.repository.projection.SubjectExportRow;
+import com.profid.profid.service.ReactiveStudentSyncService;
+import com.profid.profid.service.StudentPersistenceService;
+import com.profid.profid.service.StudentSyncService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles({"local", "reactive"})
+class ReactiveStudentSyncServiceImplTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static HttpServer server;
+    private static final AtomicReference<byte[]> upstreamBody = new AtomicReference<>();
+    private static final AtomicInteger upstreamGets = new AtomicInteger();
+    // Counted down by a GET, which then waits for the gate before answering, when a test sets both
+    private static volatile CountDownLatch upstreamReached;
+    private static volatile CountDownLatch upstreamGate;
+    private static final List<JsonNode> postedStudents = new ArrayList<>();
+
+    @Autowired
+    private ReactiveStudentSyncService reactiveStudentSyncService;
+
+    @Autowired
+    private StudentSyncService studentSyncService;
+
+    @Autowired
+    private StudentPersistenceService studentPersistenceService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/students", exchange -> {
+            byte[] body = upstreamBody.get();
+            if ("GET".equals(exchange.getRequestMethod())) {
+                upstreamGets.incrementAndGet();
+                if (upstreamGate != null) {
+                    upstreamReached.countDown();
+                    try {
+                        upstreamGate.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            if ("POST".equals(exchange.getRequestMethod())) {
+                try (InputStream inputStream = exchange.getRequestBody()) {
+                    JsonNode batch = OBJECT_MAPPER.readTree(inputStream);
+                    synchronized (postedStudents) {
+                        batch.forEach(postedStudents::add);
+                    }
+                }
+                body = "{\"message\":\"OK\",\"status\":\"SUCCESS\"}".getBytes();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        registry.add("fetch.url", () -> "http://localhost:" + server.getAddress().getPort() + "/students");
+        registry.add("ingest.batchSize", () -> 2);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+        upstreamGate = null;
+        synchronized (postedStudents) {
+            postedStudents.clear();
+        }
+    }
+
+    @Test
+    void fetchAndSave_UpsertsStudentsVisibleToTheJpaPath() throws IOException {
+        SubjectResponseDTO math = new SubjectResponseDTO("Math", 3, "Mathematics");
+        SubjectResponseDTO physics = new SubjectResponseDTO("Physics", 4, null);
+        serve(List.of(student("ann@example.com", 20, List.of(math)), student("bob@example.com", 21, List.of(math, physics)),
+                student("cat@example.com", 22, List.of())));
+
+        GeneralResponse first = reactiveStudentSyncService.fetchAndSave().block();
+
+        assertEquals("SUCCESS", first.getStatus());
+        List<StudentExportRow> stored = studentPersistenceService.findPageAfter(0L, 10);
+        assertEquals(3, stored.size());
+        assertEquals(Set.of("Math", "Physics"), subjectNames(stored.get(1)));
+        // Both students reference the same catalog entry
+        assertEquals(stored.get(0).subjects().get(0).id(), stored.get(1).subjects().get(0).id());
+
+        // Bob changed, Ann did not, Cat is gone from the feed but stays stored
+        serve(List.of(student("ann@example.com", 20, List.of(math)), student("bob@example.com", 30, List.of(physics))));
+        Long bobVersion = versionOf("bob@example.com");
+
+        assertEquals("SUCCESS", reactiveStudentSyncService.fetchAndSave().block().getStatus());
+
+        List<StudentExportRow> updated = studentPersistenceService.findPageAfter(0L, 10);
+        assertEquals(3, updated.size());
+        assertEquals(30, updated.get(1).age());
+        assertEquals(Set.of("Physics"), subjectNames(updated.get(1)));
+        assertEquals(bobVersion + 1, versionOf("bob@example.com"));
+
+        // Ids come from the same pooled sequence blocks, so the JPA path can insert next to them
+        studentPersistenceService.saveChunk(List.of(student("dan@example.com", 23, List.of(math))));
+        assertEquals(4, studentRepository.count());
+    }
+
+    @Test
+    void fetchAndSave_ReservesIdsInTheBlocksOfTheJpaPath() throws IOException {
+        long sequenceValue = jdbcTemplate.queryForObject("select next value for student_seq", Long.class);
+        serve(List.of(student("ann@example.com", 20, List.of()), student("bob@example.com", 21, List.of())));
+
+        assertEquals("SUCCESS", reactiveStudentSyncService.fetchAndSave().block().getStatus());
+        // More than one block, so the JPA path takes sequence values after the reactive one
+        List<StudentResponseDTO> jpaStudents = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            jpaStudents.add(student("jpa" + i + "@example.com", 20, List.of()));
+        }
+        studentPersistenceService.saveChunk(jpaStudents);
+
+        // The next sequence value owns the 50 ids from it on, which the JPA path leaves alone
+        assertEquals(sequenceValue + 50, idOf("ann@example.com"));
+        assertEquals(sequenceValue + 51, idOf("bob@example.com"));
+        List<Long> jpaIds = jdbcTemplate.queryForList("select id from students where email like 'jpa%'", Long.class);
+        assertEquals(60, jpaIds.size());
+        assertTrue(jpaIds.stream().allMatch(id -> id < sequenceValue || id >= sequenceValue + 100),
+                "JPA took ids from the reactive block: " + jpaIds);
+    }
+
+    @Test
+    void fetchAndSave_JoinsAFetchOfTheBlockingImplementation() throws Exception {
+        serve(List.of(student("ann@example.com", 20, List.of())));
+        upstreamReached = new CountDownLatch(1);
+        upstreamGate = new CountDownLatch(1);
+        int getsBefore = upstreamGets.get();
+
+        CompletableFuture<GeneralResponse> reactive = reactiveStudentSyncService.fetchAndSave().toFuture();
+        assertTrue(upstreamReached.await(5, TimeUnit.SECONDS));
+        CompletableFuture<GeneralResponse> blocking = studentSyncService.fetchAndSaveUsingWebClientAsync().toFuture();
+        upstreamGate.countDown();
+
+        GeneralResponse response = reactive.get(5, TimeUnit.SECONDS);
+        assertEquals("SUCCESS", response.getStatus());
+        assertSame(response, blocking.get(5, TimeUnit.SECONDS));
+        assertEquals(getsBefore + 1, upstreamGets.get());
+        assertEquals(1, studentRepository.count());
+    }
+
+    @Test
+    void postStudents_PostsEveryStoredStudentWithSubjects() throws IOException {
+        List<StudentResponseDTO> students = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            students.add(student("student" + i + "@example.com", 20 + i % 5,
+                    List.of(new SubjectResponseDTO("Subject " + i % 3, 3, null))));
+        }
+        studentPersistenceService.saveChunk(students);
+        serve(List.of());
+
+        ExportResponse response = reactiveStudentSyncService.postStudents(
+                "http://localhost:" + server.getAddress().getPort() + "/students").block();
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(25, response.getRecordsSucceeded());
+        assertEquals(3, response.getBatchesSucceeded());
+        synchronized (postedStudents) {
+            assertEquals(25, postedStudents.size());
+            assertTrue(postedStudents.stream().allMatch(student -> student.get("subjects").size() == 1));
+        }
+    }
+
+    private static void serve(List<StudentResponseDTO> students) throws IOException {
+        upstreamBody.set(OBJECT_MAPPER.writeValueAsBytes(students));
+    }
+
+    private long idOf(String email) {
+        return jdbcTemplate.queryForObject("select id from students where email = ?", Long.class, email);
+    }
+
+    private Long versionOf(String email) {
+        return jdbcTemplate.queryForObject("select version from students where email = ?", Long.class, email);
+    }
+
+    private static Set<String> subjectNames(StudentExportRow student) {
+        return student.subjects().stream().map(SubjectExportRow::name).collect(Collectors.toSet());
+    }
+
+    private static StudentResponseDTO student(String email, int age, List<SubjectResponseDTO> subjects) {
+        StudentResponseDTO student = new StudentResponseDTO();
+        student.setName(email.substring(0, email.indexOf('@')));
+        student.setEmail(email);
+        student.setAge(age);
+        student.setGender("F");
+        student.setSubjects(subjects);
+        return student;
+    }
+}
@@ -0,0 +1,111 @@
+package com.profid.profid;
+
+import com.profid.profid.dto.ImportResponse;
+import com.profid.profid.entity.Student;
+import com.profid.profid.entity.Subject;
+import com.profid.profid.repository.StudentRepository;
+import com.profid.profid.service.ImportFormat;
+import com.profid.profid.service.StudentImportService;
+import com.profid.profid.service.StudentQueryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StudentImportServiceImplTest {
+
+    @Autowired
+    private StudentImportService studentImportService;
+
+    @Autowired
+    private StudentQueryService studentQueryService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void importStudents_CsvStoresValidLinesAndReportsRejectedOnes() throws IOException {
+        String csv = """
+                name,email,age,subjects
+                Ann,ann@example.com,20,Math|3|Mathematics;Art|1|"Drawing, painting"
+                "Smith, Bob",bob@example.com,abc,
+                ,nobody@example.com,30,
+                Cid,cid@example.com,22,
+                """;
+
+        ImportResponse result = importStudents(csv, ImportFormat.CSV);
+
+        assertEquals("PARTIAL", result.getStatus());
+        assertEquals(4, result.getRecordsRead());
+        assertEquals(2, result.getRecordsImported());
+        assertEquals(List.of(3L, 4L), result.getRejectedLines().stream().map(ImportResponse.RejectedLine::getLine).toList());
+        assertEquals(Set.of("Math", "Art"), subjectNames("ann@example.com"));
+        assertEquals(2, studentRepository.count());
+    }
+
+    @Test
+    void importStudents_NdjsonStoresValidLinesAndReportsRejectedOnes() throws IOException {
+        String ndjson = """
+                {"name":"Dee","email":"dee@example.com","age":21,"subjects":[{"name":"Math","credits":3,"description":"Mathematics"}]}
+                {"name":"Eve","email":
+                {"name":"Dee","email":"dee@example.com","age":23}
+                null
+                {"name":"Fay","email":"fay@example.com","age":24,"subjects":[null]}
+                """;
+
+        ImportResponse result = importStudents(ndjson, ImportFormat.NDJSON);
+
+        assertEquals("PARTIAL", result.getStatus());
+        assertEquals(5, result.getRecordsRead());
+        assertEquals(2, result.getRecordsImported());
+        assertEquals(List.of(2L, 4L, 5L), result.getRejectedLines().stream().map(ImportResponse.RejectedLine::getLine).toList());
+        // The later line for the same email wins
+        assertEquals(23, studentQueryService.findStudents(0L, 10, null, "dee@example.com", false).getStudents().get(0).age());
+        assertEquals(1, studentRepository.count());
+    }
+
+    @Test
+    void importStudents_RejectsSubjectsWithoutCreditsAlone() throws IOException {
+        String csv = """
+                name,email,age,subjects
+                Ann,ann@example.com,20,Math|3|Mathematics
+                Bob,bob@example.com,21,Math
+                Cid,cid@example.com,22,Art|
+                Dee,dee@example.com,23,Art|1|Drawing
+                """;
+
+        ImportResponse result = importStudents(csv, ImportFormat.CSV);
+
+        assertEquals("PARTIAL", result.getStatus());
+        assertEquals(2, result.getRecordsImported());
+        assertEquals(List.of(3L, 4L), result.getRejectedLines().stream().map(ImportResponse.RejectedLine::getLine).toList());
+        assertEquals(Set.of("Math"), subjectNames("ann@example.com"));
+        assertEquals(Set.of("Art"), subjectNames("dee@example.com"));
+        assertEquals(2, studentRepository.count());
+    }
+
+    private ImportResponse importStudents(String content, ImportFormat format) throws IOException {
+        return studentImportService.importStudents(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    private Set<String> subjectNames(String email) {
+        Long id = studentRepository.findFingerprintsByEmailIn(List.of(email)).get(0).getId();
+        Student student = studentRepository.findAllWithSubjectsByIdIn(List.of(id)).get(0);
+        return student.getSubjects().stream().map(Subject::getName).collect(Collectors.toSet());
+    }
+}
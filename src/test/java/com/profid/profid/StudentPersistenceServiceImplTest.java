@@ -0,0 +1,184 @@
+package com.profid.profid;
+
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.dto.response.SubjectResponseDTO;
+import com.profid.profid.entity.Student;
+import com.profid.profid.entity.Subject;
+import com.profid.profid.repository.StudentRepository;
+import com.profid.profid.repository.SubjectRepository;
+import com.profid.profid.repository.projection.StudentExportRow;
+import com.profid.profid.service.StudentPersistenceService;
+import com.profid.profid.service.SubjectCatalogMigration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StudentPersistenceServiceImplTest {
+
+    @Autowired
+    private StudentPersistenceService studentPersistenceService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SubjectRepository subjectRepository;
+
+    @Autowired
+    private SubjectCatalogMigration subjectCatalogMigration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void saveChunk_RepeatedSyncDoesNotDuplicateStudents() {
+        List<StudentResponseDTO> students = List.of(
+                student("john@example.com", List.of(new SubjectResponseDTO("Math", 3, "Mathematics"))),
+                student("jane@example.com", List.of(new SubjectResponseDTO("Science", 4, "Physics")))
+        );
+
+        studentPersistenceService.saveChunk(students);
+        studentPersistenceService.saveChunk(students);
+
+        assertEquals(2, studentRepository.count());
+    }
+
+    @Test
+    void saveChunk_DiffsSubjectsOfChangedStudents() {
+        studentPersistenceService.saveChunk(List.of(student("john@example.com", List.of(
+                new SubjectResponseDTO("Math", 3, "Mathematics"),
+                new SubjectResponseDTO("History", 2, "World history")
+        ))));
+        Map<String, Long> before = subjectIds("john@example.com");
+
+        studentPersistenceService.saveChunk(List.of(student("john@example.com", List.of(
+                new SubjectResponseDTO("Math", 3, "Mathematics"),
+                new SubjectResponseDTO("Art", 1, "Drawing")
+        ))));
+        Map<String, Long> after = subjectIds("john@example.com");
+
+        assertEquals(1, studentRepository.count());
+        assertEquals(before.get("Math"), after.get("Math"));
+        assertFalse(after.containsKey("History"));
+        assertTrue(after.containsKey("Art"));
+    }
+
+    @Test
+    void saveChunk_SharesCatalogEntriesBetweenStudents() {
+        long catalogSize = subjectRepository.count();
+
+        studentPersistenceService.saveChunk(List.of(
+                student("a@example.com", List.of(new SubjectResponseDTO("Chemistry", 4, "Lab"))),
+                student("b@example.com", List.of(new SubjectResponseDTO("Chemistry", 4, "Lab")))
+        ));
+        studentPersistenceService.saveChunk(List.of(
+                student("c@example.com", List.of(new SubjectResponseDTO("Chemistry", 4, "Lab"),
+                        new SubjectResponseDTO("Chemistry", 5, "Lab")))
+        ));
+
+        assertEquals(catalogSize + 2, subjectRepository.count());
+        assertEquals(subjectIds("a@example.com").get("Chemistry"), subjectIds("b@example.com").get("Chemistry"));
+        assertEquals(2, studentPersistenceService.findPageAfter(0L, 10).get(2).subjects().size());
+    }
+
+    @Test
+    void findPageAfter_WalksTableInKeysetPages() {
+        studentPersistenceService.saveChunk(List.of(
+                student("a@example.com", List.of(new SubjectResponseDTO("Math", 3, "Mathematics"))),
+                student("b@example.com", List.of()),
+                student("c@example.com", List.of(new SubjectResponseDTO("Art", 1, "Drawing")))
+        ));
+
+        List<StudentExportRow> firstPage = studentPersistenceService.findPageAfter(0L, 2);
+        List<StudentExportRow> secondPage = studentPersistenceService.findPageAfter(firstPage.get(1).id(), 2);
+
+        assertEquals(2, firstPage.size());
+        assertEquals(1, secondPage.size());
+        assertTrue(firstPage.get(1).id() < secondPage.get(0).id());
+        assertEquals("Math", firstPage.get(0).subjects().get(0).name());
+        assertEquals("Art", secondPage.get(0).subjects().get(0).name());
+    }
+
+    @Test
+    void findChangedPageAfter_ReturnsOnlyStudentsChangedAfterWatermark() {
+        studentPersistenceService.saveChunk(List.of(
+                student("a@example.com", List.of(new SubjectResponseDTO("Math", 3, "Mathematics"))),
+                student("b@example.com", List.of())
+        ));
+        List<StudentExportRow> all = studentPersistenceService.findChangedPageAfter(Instant.EPOCH, 0L, Instant.now(), 10);
+        StudentExportRow watermark = all.get(all.size() - 1);
+
+        studentPersistenceService.saveChunk(List.of(
+                student("a@example.com", List.of(new SubjectResponseDTO("Math", 4, "Mathematics")))
+        ));
+        List<StudentExportRow> changed = studentPersistenceService.findChangedPageAfter(watermark.updatedAt(), watermark.id(),
+                Instant.now(), 10);
+
+        assertEquals(2, all.size());
+        assertEquals(1, changed.size());
+        assertEquals("a@example.com", changed.get(0).email());
+        assertEquals(4, changed.get(0).subjects().get(0).credits());
+        assertTrue(changed.get(0).updatedAt().isAfter(watermark.updatedAt()));
+    }
+
+    @Test
+    void findChangedPageAfter_LeavesStudentsChangedAfterTheCutoff() {
+        studentPersistenceService.saveChunk(List.of(student("a@example.com", List.of())));
+        Instant cutoff = studentPersistenceService.findChangedPageAfter(Instant.EPOCH, 0L, Instant.now(), 10).get(0).updatedAt();
+        studentPersistenceService.saveChunk(List.of(student("b@example.com", List.of())));
+
+        List<StudentExportRow> bounded = studentPersistenceService.findChangedPageAfter(Instant.EPOCH, 0L, cutoff, 10);
+
+        assertEquals(List.of("a@example.com"), bounded.stream().map(StudentExportRow::email).toList());
+    }
+
+    @Test
+    void subjectCatalogMigration_MovesLegacySubjectsIntoCatalog() {
+        studentPersistenceService.saveChunk(List.of(student("legacy@example.com", List.of())));
+        Long studentId = studentRepository.findFingerprintsByEmailIn(List.of("legacy@example.com")).get(0).getId();
+        jdbcTemplate.execute("create table subjects (id bigint primary key, name varchar(255) not null, " +
+                "credits integer not null, description varchar(255), student_id bigint not null)");
+        jdbcTemplate.update("insert into subjects values (1, 'Geology', 3, 'Rocks', ?), (2, 'Geology', 3, 'Rocks', ?), " +
+                "(3, 'Latin', 2, null, ?)", studentId, studentId, studentId);
+
+        subjectCatalogMigration.run(null);
+
+        Map<String, Long> migrated = subjectIds("legacy@example.com");
+        assertEquals(Set.of("Geology", "Latin"), migrated.keySet());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from information_schema.tables " +
+                "where upper(table_name) = 'SUBJECTS'", Integer.class));
+        // The interning cache was reloaded, so ingesting the same subject links the migrated entry
+        studentPersistenceService.saveChunk(List.of(student("new@example.com", List.of(new SubjectResponseDTO("Geology", 3, "Rocks")))));
+        assertEquals(migrated.get("Geology"), subjectIds("new@example.com").get("Geology"));
+    }
+
+    private Map<String, Long> subjectIds(String email) {
+        Long id = studentRepository.findFingerprintsByEmailIn(List.of(email)).get(0).getId();
+        Student student = studentRepository.findAllWithSubjectsByIdIn(List.of(id)).get(0);
+        return student.getSubjects().stream().collect(Collectors.toMap(Subject::getName, Subject::getId));
+    }
+
+    private static StudentResponseDTO student(String email, List<SubjectResponseDTO> subjects) {
+        return named("John", email, subjects);
+    }
+
+    private static StudentResponseDTO named(String name, String email, List<SubjectResponseDTO> subjects) {
+        return new StudentResponseDTO(name, email, 20, "Male", "1234567890", "Address 1", subjects);
+    }
+}
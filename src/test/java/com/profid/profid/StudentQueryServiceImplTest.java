@@ -0,0 +1,110 @@
+package com.profid.profid;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.profid.profid.config.ExportProperties;
+import com.profid.profid.dto.response.StudentPageResponseDTO;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.dto.response.SubjectResponseDTO;
+import com.profid.profid.repository.StudentRepository;
+import com.profid.profid.repository.projection.StudentView;
+import com.profid.profid.service.StudentPersistenceService;
+import com.profid.profid.service.StudentQueryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StudentQueryServiceImplTest {
+
+    @Autowired
+    private StudentQueryService studentQueryService;
+
+    @Autowired
+    private StudentPersistenceService studentPersistenceService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private ExportProperties exportProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void findStudents_FiltersByNamePrefixAndEmailInKeysetPages() {
+        studentPersistenceService.saveChunk(List.of(
+                named("Ann", "ann@example.com", List.of(new SubjectResponseDTO("Math", 3, "Mathematics"))),
+                named("Anna", "anna@example.com", List.of()),
+                named("An_x", "anx@example.com", List.of()),
+                named("Bob", "bob@example.com", List.of())));
+
+        StudentPageResponseDTO first = studentQueryService.findStudents(0L, 1, "Ann", null, true);
+        StudentPageResponseDTO second = studentQueryService.findStudents(first.getNextAfterId(), 1, "Ann", null, false);
+        StudentPageResponseDTO literal = studentQueryService.findStudents(0L, 10, "An_", null, false);
+        StudentPageResponseDTO byEmail = studentQueryService.findStudents(0L, 10, null, "bob@example.com", false);
+
+        assertEquals("Ann", first.getStudents().get(0).name());
+        assertEquals("Math", first.getStudents().get(0).subjects().get(0).name());
+        assertEquals("Anna", second.getStudents().get(0).name());
+        assertNull(second.getStudents().get(0).subjects());
+        assertNull(second.getNextAfterId());
+        assertEquals(List.of("An_x"), literal.getStudents().stream().map(StudentView::name).toList());
+        assertEquals(List.of("Bob"), byEmail.getStudents().stream().map(StudentView::name).toList());
+        assertThrows(IllegalArgumentException.class, () -> studentQueryService.findStudents(0L, 5000, null, null, false));
+    }
+
+    @Test
+    void writeNdjson_StreamsStudentsWithSubjectsInFlushedChunks() throws IOException {
+        studentPersistenceService.saveChunk(List.of(
+                named("Ann", "ann@example.com", List.of(new SubjectResponseDTO("Math", 3, "Mathematics"))),
+                named("Bob", "bob@example.com", List.of()),
+                named("Cid", "cid@example.com", List.of())));
+        List<Integer> flushedLines = new ArrayList<>();
+        ByteArrayOutputStream output = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushedLines.add((int) toString(StandardCharsets.UTF_8).chars().filter(c -> c == '\n').count());
+            }
+        };
+        int pageSize = exportProperties.getPageSize();
+        exportProperties.setPageSize(2);
+        long written;
+        try {
+            written = studentQueryService.writeNdjson(output);
+        } finally {
+            exportProperties.setPageSize(pageSize);
+        }
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        assertEquals(3, written);
+        assertEquals(List.of("Ann", "Bob", "Cid"), lines.stream().map(line -> line.get("name").asText()).toList());
+        assertEquals("Math", lines.get(0).get("subjects").get(0).get("name").asText());
+        assertTrue(lines.get(1).get("subjects").isEmpty());
+        assertTrue(lines.get(0).has("updated_at"));
+        // The first chunk left before the rest was read
+        assertEquals(2, flushedLines.get(0));
+    }
+
+    private static StudentResponseDTO named(String name, String email, List<SubjectResponseDTO> subjects) {
+        return new StudentResponseDTO(name, email, 20, "Male", "1234567890", "Address 1", subjects);
+    }
+}
@@ -1,15 +1,32 @@
 package com.profid.profid;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.profid.profid.config.ExportProperties;
+import com.profid.profid.config.FetchProperties;
+import com.profid.profid.config.HttpClientProperties;
+import com.profid.profid.config.IngestProperties;
+import com.profid.profid.dto.ExportResponse;
 import com.profid.profid.dto.GeneralResponse;
 import com.profid.profid.dto.response.StudentResponseDTO;
 import com.profid.profid.dto.response.SubjectResponseDTO;
-import com.profid.profid.entity.Student;
-import com.profid.profid.entity.Subject;
-import com.profid.profid.repository.StudentRepository;
+import com.profid.profid.entity.ExportWatermark;
+import com.profid.profid.exception.HttpStatusException;
+import com.profid.profid.repository.projection.StudentExportRow;
+import com.profid.profid.service.ExportWatermarkService;
+import com.profid.profid.service.FetchCoalescer;
+import com.profid.profid.service.HttpCacheService;
+import com.profid.profid.service.StudentPersistenceService;
 import com.profid.profid.service.StudentSyncServiceImpl;
+import com.profid.profid.service.StudentWriteBehind;
+import com.profid.profid.service.SyncJob;
+import com.profid.profid.service.SyncJobType;
+import com.profid.profid.service.SyncMetrics;
+import com.profid.profid.service.SyncProgress;
+import com.profid.profid.utils.ConditionalRequest;
+import com.profid.profid.utils.RawResponse;
 import com.profid.profid.utils.v1.GenericWebClient;
 import com.profid.profid.utils.v2.GenericHttpClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -17,28 +34,69 @@ import org.springframework.core.ParameterizedTypeReference;
 import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class StudentSyncServiceImplTest {
 
-    @InjectMocks
     private StudentSyncServiceImpl studentSyncService;
 
-    @Mock
-    private StudentRepository studentRepository;
-
     @Mock
     private GenericWebClient genericWebClient;
 
     @Mock
     private GenericHttpClient genericHttpClient;
 
+    @Mock
+    private StudentPersistenceService studentPersistenceService;
+
+    @Mock
+    private HttpCacheService httpCacheService;
+
+    @Mock
+    private ExportWatermarkService exportWatermarkService;
+
+    @Spy
+    private FetchProperties fetchProperties = new FetchProperties();
+
+    @Spy
+    private IngestProperties ingestProperties = new IngestProperties();
+
+    @Spy
+    private ExportProperties exportProperties = new ExportProperties();
+
+    @Spy
+    private HttpClientProperties httpClientProperties = new HttpClientProperties();
+
+    @Spy
+    private ExecutorService exportExecutor = Executors.newFixedThreadPool(4);
+
+    @Spy
+    private SyncMetrics syncMetrics = new SyncMetrics(new SimpleMeterRegistry());
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        // Persist on the fetching thread, so saveChunk calls line up with chunks and pages
+        ingestProperties.setWriteBehind(false);
+        studentSyncService = new StudentSyncServiceImpl(genericWebClient, genericHttpClient, studentPersistenceService,
+                new StudentWriteBehind(studentPersistenceService, ingestProperties, syncMetrics),
+                new FetchCoalescer(fetchProperties), httpCacheService,
+                exportWatermarkService, fetchProperties, ingestProperties, exportProperties, httpClientProperties,
+                exportExecutor, syncMetrics);
     }
 
     @Test
@@ -50,7 +108,7 @@ class StudentSyncServiceImplTest {
                 ))
         );
 
-        when(genericWebClient.get(eq(url), anyMap(), any(ParameterizedTypeReference.class), eq(10)))
+        when(genericWebClient.get(eq(url), anyMap(), any(ParameterizedTypeReference.class), eq(10L), any()))
                 .thenReturn(Mono.just(mockStudents));
 
         GeneralResponse response = studentSyncService.fetchAndSaveUsingWebClient();
@@ -58,7 +116,7 @@ class StudentSyncServiceImplTest {
         assertNotNull(response);
         assertEquals("SUCCESS", response.getStatus());
         assertEquals("Data fetched and saved using WebClient", response.getMessage());
-        verify(studentRepository, times(1)).save(any(Student.class));
+        verify(studentPersistenceService, times(1)).saveChunk(anyList());
     }
 
 
@@ -66,7 +124,7 @@ class StudentSyncServiceImplTest {
     void fetchAndSaveUsingWebClient_Error() {
         String url = "https://example.org/students";
 
-        when(genericWebClient.get(eq(url), anyMap(), any(ParameterizedTypeReference.class), eq(10)))
+        when(genericWebClient.get(eq(url), anyMap(), any(ParameterizedTypeReference.class), eq(10L), any()))
                 .thenThrow(new RuntimeException("External API error"));
 
         GeneralResponse response = studentSyncService.fetchAndSaveUsingWebClient();
@@ -74,7 +132,7 @@ class StudentSyncServiceImplTest {
         assertNotNull(response);
         assertEquals("FAILURE", response.getStatus());
         assertTrue(response.getMessage().contains("Error fetching data using WebClient"));
-        verify(studentRepository, never()).save(any(Student.class));
+        verify(studentPersistenceService, never()).saveChunk(anyList());
     }
 
     @Test
@@ -86,15 +144,19 @@ class StudentSyncServiceImplTest {
                 ))
         );
 
-        when(genericHttpClient.get(eq(url), anyMap(), any(TypeReference.class), eq(10)))
-                .thenReturn(mockStudents);
+        when(genericHttpClient.getAsStream(eq(url), anyMap(), eq(StudentResponseDTO.class), anyInt(), any(), eq(10), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<List<StudentResponseDTO>> consumer = invocation.getArgument(4);
+                    consumer.accept(mockStudents);
+                    return (long) mockStudents.size();
+                });
 
         GeneralResponse response = studentSyncService.fetchAndSaveUsingHttpClient();
 
         assertNotNull(response);
         assertEquals("SUCCESS", response.getStatus());
         assertEquals("Data fetched and saved using HttpClient", response.getMessage());
-        verify(studentRepository, times(1)).save(any(Student.class));
+        verify(studentPersistenceService, times(1)).saveChunk(anyList());
     }
 
 
@@ -102,7 +164,7 @@ class StudentSyncServiceImplTest {
     void fetchAndSaveUsingHttpClient_Error() throws IOException {
         String url = "https://example.org/students";
 
-        when(genericHttpClient.get(eq(url), anyMap(), any(TypeReference.class), eq(10)))
+        when(genericHttpClient.getAsStream(eq(url), anyMap(), eq(StudentResponseDTO.class), anyInt(), any(), eq(10), any()))
                 .thenThrow(new IOException("External API error"));
 
         GeneralResponse response = studentSyncService.fetchAndSaveUsingHttpClient();
@@ -110,18 +172,304 @@ class StudentSyncServiceImplTest {
         assertNotNull(response);
         assertEquals("FAILURE", response.getStatus());
         assertTrue(response.getMessage().contains("Error fetching data using HttpClient"));
-        verify(studentRepository, never()).save(any(Student.class));
+        verify(studentPersistenceService, never()).saveChunk(anyList());
+    }
+
+    @Test
+    void fetchAndSaveUsingHttpClient_WriterFailureIsReportedAsFailure() throws IOException {
+        String url = "https://example.org/students";
+        when(genericHttpClient.getAsStream(eq(url), anyMap(), eq(StudentResponseDTO.class), anyInt(), any(), eq(10), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<List<StudentResponseDTO>> consumer = invocation.getArgument(4);
+                    consumer.accept(List.of(new StudentResponseDTO("Jane", "jane@example.com", 22, "Female", null, null, List.of())));
+                    return 1L;
+                });
+        when(studentPersistenceService.saveChunk(anyList())).thenThrow(new IllegalStateException("Database is down"));
+
+        GeneralResponse response = studentSyncService.fetchAndSaveUsingHttpClient();
+
+        assertEquals("FAILURE", response.getStatus());
+        assertEquals("Error fetching data using HttpClient: Database is down", response.getMessage());
+    }
+
+    @Test
+    void fetchAndSaveUsingHttpClient_NotModifiedSkipsSync() throws IOException {
+        String url = "https://example.org/students";
+        ConditionalRequest conditional = new ConditionalRequest("\"v1\"", null);
+        when(httpCacheService.prepare(url)).thenReturn(conditional);
+        when(genericHttpClient.getAsStream(eq(url), anyMap(), eq(StudentResponseDTO.class), anyInt(), any(), eq(10), same(conditional)))
+                .thenAnswer(invocation -> {
+                    conditional.markNotModified();
+                    return 0L;
+                });
+
+        GeneralResponse response = studentSyncService.fetchAndSaveUsingHttpClient();
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals("Upstream data not modified since the last sync", response.getMessage());
+        verify(httpCacheService).recordOutcome(conditional);
+        verify(httpCacheService, never()).commit(anyString(), any());
+        verify(studentPersistenceService, never()).saveChunk(anyList());
+    }
+
+    @Test
+    void fetchAndSaveUsingWebClient_CommitsValidatorsAfterSaving() {
+        String url = "https://example.org/students";
+        ConditionalRequest conditional = new ConditionalRequest(null, null);
+        List<StudentResponseDTO> mockStudents = List.of(
+                new StudentResponseDTO("John", "john@example.com", 20, "Male", "1234567890", "Address 1", List.of()));
+        when(httpCacheService.prepare(url)).thenReturn(conditional);
+        when(genericWebClient.get(eq(url), anyMap(), any(ParameterizedTypeReference.class), eq(10L), same(conditional)))
+                .thenReturn(Mono.just(mockStudents));
+
+        GeneralResponse response = studentSyncService.fetchAndSaveUsingWebClient();
+
+        assertEquals("SUCCESS", response.getStatus());
+        InOrder inOrder = inOrder(studentPersistenceService, httpCacheService);
+        inOrder.verify(studentPersistenceService).saveChunk(anyList());
+        inOrder.verify(httpCacheService).commit(url, conditional);
+    }
+
+    @Test
+    void fetch_ConcurrentRequestsShareOneExecution() throws Exception {
+        String url = "https://example.org/students";
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(genericHttpClient.getAsStream(eq(url), anyMap(), eq(StudentResponseDTO.class), anyInt(), any(), eq(10), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<List<StudentResponseDTO>> consumer = invocation.getArgument(4);
+                    consumer.accept(List.of(student("jane@example.com")));
+                    fetching.countDown();
+                    release.await();
+                    return 1L;
+                });
+
+        CompletableFuture<GeneralResponse> leader = CompletableFuture.supplyAsync(
+                () -> studentSyncService.fetchAndSaveUsingHttpClient());
+        assertTrue(fetching.await(5, TimeUnit.SECONDS));
+        SyncProgress followerProgress = new SyncProgress();
+        CompletableFuture<GeneralResponse> follower = CompletableFuture.supplyAsync(
+                () -> studentSyncService.fetchAndSaveUsingWebClient(followerProgress));
+        // Subscribing joins the in-flight fetch before toFuture returns
+        CompletableFuture<GeneralResponse> asyncFollower = studentSyncService.fetchAndSaveUsingWebClientAsync().toFuture();
+        // The blocking follower shows the shared count once it has joined
+        awaitCount(1, followerProgress::getRecordsFetched);
+        release.countDown();
+
+        GeneralResponse response = leader.get(5, TimeUnit.SECONDS);
+        assertSame(response, follower.get(5, TimeUnit.SECONDS));
+        assertSame(response, asyncFollower.get(5, TimeUnit.SECONDS));
+        assertEquals("Data fetched and saved using HttpClient", response.getMessage());
+        verify(genericHttpClient, times(1)).getAsStream(anyString(), anyMap(), any(), anyInt(), any(), anyInt(), any());
+        verifyNoInteractions(genericWebClient);
+    }
+
+    @Test
+    void fetch_JoinedCallerGetsSharedCountsAndLeavesAloneWhenCancelled() throws Exception {
+        String url = "https://example.org/students";
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(genericHttpClient.getAsStream(eq(url), anyMap(), eq(StudentResponseDTO.class), anyInt(), any(), eq(10), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<List<StudentResponseDTO>> consumer = invocation.getArgument(4);
+                    consumer.accept(List.of(student("jane@example.com")));
+                    fetching.countDown();
+                    release.await();
+                    consumer.accept(List.of(student("john@example.com")));
+                    return 2L;
+                });
+        when(studentPersistenceService.saveChunk(anyList())).thenReturn(1);
+
+        SyncProgress leaderProgress = new SyncProgress();
+        SyncProgress cancelledProgress = new SyncProgress();
+        SyncProgress followerProgress = new SyncProgress();
+        CompletableFuture<GeneralResponse> leader = CompletableFuture.supplyAsync(
+                () -> studentSyncService.fetchAndSaveUsingHttpClient(leaderProgress));
+        assertTrue(fetching.await(5, TimeUnit.SECONDS));
+        CompletableFuture<GeneralResponse> cancelled = CompletableFuture.supplyAsync(
+                () -> studentSyncService.fetchAndSaveUsingWebClient(cancelledProgress));
+        CompletableFuture<GeneralResponse> follower = CompletableFuture.supplyAsync(
+                () -> studentSyncService.fetchAndSaveUsingWebClient(followerProgress));
+        awaitCount(1, cancelledProgress::getRecordsFetched);
+        awaitCount(1, followerProgress::getRecordsFetched);
+        cancelledProgress.cancel();
+        leaderProgress.cancel();
+
+        ExecutionException left = assertThrows(ExecutionException.class, () -> cancelled.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(CancellationException.class, left.getCause());
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        GeneralResponse response = follower.get(5, TimeUnit.SECONDS);
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(2, followerProgress.getRecordsFetched());
+        assertEquals(2, followerProgress.getRecordsPersisted());
+        // A caller that left keeps what was counted until then
+        assertEquals(1, cancelledProgress.getRecordsFetched());
+        verify(studentPersistenceService, times(2)).saveChunk(anyList());
+    }
+
+    @Test
+    void fetch_SharedExecutionStopsOnceEveryCallerCancelled() throws Exception {
+        String url = "https://example.org/students";
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Throwable> sharedOutcome = new CompletableFuture<>();
+        when(genericHttpClient.getAsStream(eq(url), anyMap(), eq(StudentResponseDTO.class), anyInt(), any(), eq(10), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<List<StudentResponseDTO>> consumer = invocation.getArgument(4);
+                    consumer.accept(List.of(student("jane@example.com")));
+                    fetching.countDown();
+                    release.await();
+                    try {
+                        consumer.accept(List.of());
+                        sharedOutcome.complete(null);
+                    } catch (RuntimeException e) {
+                        sharedOutcome.complete(e);
+                        throw e;
+                    }
+                    return 0L;
+                });
+
+        SyncProgress leaderProgress = new SyncProgress();
+        SyncProgress followerProgress = new SyncProgress();
+        CompletableFuture<GeneralResponse> leader = CompletableFuture.supplyAsync(
+                () -> studentSyncService.fetchAndSaveUsingHttpClient(leaderProgress));
+        assertTrue(fetching.await(5, TimeUnit.SECONDS));
+        CompletableFuture<GeneralResponse> follower = CompletableFuture.supplyAsync(
+                () -> studentSyncService.fetchAndSaveUsingHttpClient(followerProgress));
+        awaitCount(1, followerProgress::getRecordsFetched);
+        leaderProgress.cancel();
+        followerProgress.cancel();
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        assertInstanceOf(CancellationException.class, sharedOutcome.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fetch_RunningJobsShowTheSharedCountsWhileTheFetchRuns() throws Exception {
+        String url = "https://example.org/students";
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(genericHttpClient.getAsStream(eq(url), anyMap(), eq(StudentResponseDTO.class), anyInt(), any(), eq(10), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<List<StudentResponseDTO>> consumer = invocation.getArgument(4);
+                    consumer.accept(List.of(student("jane@example.com")));
+                    fetching.countDown();
+                    release.await();
+                    consumer.accept(List.of(student("john@example.com")));
+                    return 2L;
+                });
+        when(studentPersistenceService.saveChunk(anyList())).thenReturn(1);
+
+        SyncJob leaderJob = new SyncJob("leader", SyncJobType.FETCH_HTTPCLIENT, null);
+        SyncJob followerJob = new SyncJob("follower", SyncJobType.FETCH_WEBCLIENT, null);
+        CompletableFuture<GeneralResponse> leader = CompletableFuture.supplyAsync(
+                () -> studentSyncService.fetchAndSaveUsingHttpClient(leaderJob.getProgress()));
+        assertTrue(fetching.await(5, TimeUnit.SECONDS));
+        CompletableFuture<GeneralResponse> follower = CompletableFuture.supplyAsync(
+                () -> studentSyncService.fetchAndSaveUsingWebClient(followerJob.getProgress()));
+
+        // Polled mid-fetch, both jobs show what the shared fetch has done so far
+        awaitCount(1, () -> leaderJob.getProgress().getRecordsPersisted());
+        awaitCount(1, () -> followerJob.getProgress().getRecordsPersisted());
+        assertEquals(1, leaderJob.getProgress().getRecordsFetched());
+        assertEquals(1, followerJob.getProgress().getRecordsFetched());
+        assertFalse(leader.isDone());
+        release.countDown();
+
+        assertEquals("SUCCESS", leader.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals("SUCCESS", follower.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(2, leaderJob.getProgress().getRecordsPersisted());
+        assertEquals(2, followerJob.getProgress().getRecordsPersisted());
+    }
+
+    @Test
+    void fetch_ReusesSuccessfulResultWithinCooldown() throws IOException {
+        String url = "https://example.org/students";
+        fetchProperties.setCoalesceCooldown(60000);
+        when(genericHttpClient.getAsStream(eq(url), anyMap(), eq(StudentResponseDTO.class), anyInt(), any(), eq(10), any()))
+                .thenThrow(new IOException("External API error"))
+                .thenReturn(0L);
+
+        GeneralResponse failed = studentSyncService.fetchAndSaveUsingHttpClient();
+        GeneralResponse first = studentSyncService.fetchAndSaveUsingHttpClient();
+        GeneralResponse reused = studentSyncService.fetchAndSaveUsingHttpClient();
+
+        assertEquals("FAILURE", failed.getStatus());
+        assertEquals("SUCCESS", first.getStatus());
+        assertSame(first, reused);
+        verify(genericHttpClient, times(2)).getAsStream(anyString(), anyMap(), any(), anyInt(), any(), anyInt(), any());
+    }
+
+    @Test
+    void fetchAndSaveUsingHttpClient_OffsetPages() throws IOException {
+        fetchProperties.setPaginationStyle(FetchProperties.PaginationStyle.OFFSET);
+        fetchProperties.setPageSize(2);
+
+        when(genericHttpClient.getRaw(eq("https://example.org/students?limit=2&offset=0"), anyMap(), eq(10)))
+                .thenReturn(rawStudents(Map.of(), "john@example.com", "jane@example.com"));
+        when(genericHttpClient.getRaw(eq("https://example.org/students?limit=2&offset=2"), anyMap(), eq(10)))
+                .thenReturn(rawStudents(Map.of(), "jack@example.com"));
+        when(studentPersistenceService.saveChunk(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        SyncProgress progress = new SyncProgress();
+        GeneralResponse response = studentSyncService.fetchAndSaveUsingHttpClient(progress);
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(3, progress.getRecordsFetched());
+        assertEquals(3, progress.getRecordsPersisted());
+        verify(genericHttpClient, times(2)).getRaw(anyString(), anyMap(), eq(10));
+    }
+
+    @Test
+    void fetchAndSaveUsingWebClient_FollowsNextLink() throws IOException {
+        fetchProperties.setPaginationStyle(FetchProperties.PaginationStyle.NEXT_LINK);
+        fetchProperties.setPageSize(2);
+
+        when(genericWebClient.getRaw(eq("https://example.org/students?limit=2"), anyMap(), eq(10L)))
+                .thenReturn(Mono.just(rawStudents(Map.of("Link", "</students?cursor=abc>; rel=\"next\""),
+                        "john@example.com", "jane@example.com")));
+        when(genericWebClient.getRaw(eq("https://example.org/students?cursor=abc"), anyMap(), eq(10L)))
+                .thenReturn(Mono.just(rawStudents(Map.of(), "jack@example.com")));
+        when(studentPersistenceService.saveChunk(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        SyncProgress progress = new SyncProgress();
+        GeneralResponse response = studentSyncService.fetchAndSaveUsingWebClient(progress);
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(3, progress.getRecordsPersisted());
+        verify(studentPersistenceService, times(2)).saveChunk(anyList());
+    }
+
+    @Test
+    void fetchAndSaveUsingHttpClient_PageFailureStopsSync() throws IOException {
+        fetchProperties.setPaginationStyle(FetchProperties.PaginationStyle.PAGE);
+        fetchProperties.setPageSize(1);
+
+        when(genericHttpClient.getRaw(eq("https://example.org/students?limit=1&page=1"), anyMap(), eq(10)))
+                .thenReturn(rawStudents(Map.of(), "john@example.com"));
+        when(genericHttpClient.getRaw(eq("https://example.org/students?limit=1&page=2"), anyMap(), eq(10)))
+                .thenThrow(new HttpStatusException(500, "GET request failed with status code: 500"));
+
+        GeneralResponse response = studentSyncService.fetchAndSaveUsingHttpClient();
+
+        assertEquals("FAILURE", response.getStatus());
+        assertTrue(response.getMessage().contains("500"));
+        verify(studentPersistenceService, times(1)).saveChunk(anyList());
     }
 
     @Test
     void postStudentsUsingWebClient_Success() {
         String postUrl = "https://example.org/students";
-        List<Student> mockStudents = List.of(
-                new Student("John", "john@example.com", 20, "Male", "1234567890", "Address 1", new ArrayList<>())
+        List<StudentExportRow> mockStudents = List.of(
+                new StudentExportRow(1L, "John", "john@example.com", 20, "Male", "1234567890", "Address 1", null)
         );
 
-        when(studentRepository.findAll()).thenReturn(mockStudents);
-        when(genericWebClient.post(eq(postUrl), anyMap(), anyList(), eq(GeneralResponse.class), eq(10)))
+        when(studentPersistenceService.findChangedPageAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), anyInt())).thenReturn(mockStudents);
+        when(genericWebClient.post(eq(postUrl), anyMap(), anyList(), eq(GeneralResponse.class), eq(10L)))
                 .thenReturn(Mono.just(new GeneralResponse("Data successfully posted using WebClient", "SUCCESS")));
 
         GeneralResponse response = studentSyncService.postStudentsUsingWebClient(postUrl);
@@ -129,18 +477,18 @@ class StudentSyncServiceImplTest {
         assertNotNull(response);
         assertEquals("SUCCESS", response.getStatus());
         assertEquals("Data successfully posted using WebClient", response.getMessage());
-        verify(studentRepository, times(1)).findAll();
+        verify(studentPersistenceService, times(1)).findChangedPageAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), anyInt());
     }
 
 
     @Test
     void postStudentsUsingHttpClient_Success() throws IOException {
         String postUrl = "https://example.org/students";
-        List<Student> mockStudents = List.of(
-                new Student("Jane", "jane@example.com", 22, "Female", "9876543210", "Address 2", new ArrayList<>())
+        List<StudentExportRow> mockStudents = List.of(
+                new StudentExportRow(2L, "Jane", "jane@example.com", 22, "Female", "9876543210", "Address 2", null)
         );
 
-        when(studentRepository.findAll()).thenReturn(mockStudents);
+        when(studentPersistenceService.findChangedPageAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), anyInt())).thenReturn(mockStudents);
         when(genericHttpClient.post(eq(postUrl), anyMap(), anyList(), eq(GeneralResponse.class), eq(10)))
                 .thenReturn(new GeneralResponse("Data successfully posted using HttpClient", "SUCCESS"));
 
@@ -149,21 +497,170 @@ class StudentSyncServiceImplTest {
         assertNotNull(response);
         assertEquals("SUCCESS", response.getStatus());
         assertEquals("Data successfully posted using HttpClient", response.getMessage());
-        verify(studentRepository, times(1)).findAll();
+        verify(studentPersistenceService, times(1)).findChangedPageAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), anyInt());
     }
 
 
     @Test
     void postStudentsUsingHttpClient_NoStudents() throws IOException {
         String postUrl = "https://example.org/students";
-        when(studentRepository.findAll()).thenReturn(Collections.emptyList());
+        when(studentPersistenceService.findChangedPageAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), anyInt())).thenReturn(Collections.emptyList());
 
         GeneralResponse response = studentSyncService.postStudentsUsingHttpClient(postUrl);
 
         assertNotNull(response);
         assertEquals("FAILURE", response.getStatus());
         assertEquals("No students found in the database", response.getMessage());
-        verify(studentRepository, times(1)).findAll();
+        verify(studentPersistenceService, times(1)).findChangedPageAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), anyInt());
         verify(genericHttpClient, never()).post(anyString(), anyMap(), anyList(), eq(GeneralResponse.class), eq(10));
     }
+
+    @Test
+    void postStudentsUsingHttpClient_PartialFailure() throws IOException {
+        String postUrl = "https://example.org/students";
+        StudentExportRow john = new StudentExportRow(1L, "John", "john@example.com", 20, "Male", "1234567890", "Address 1", null);
+        StudentExportRow jane = new StudentExportRow(2L, "Jane", "jane@example.com", 22, "Female", "9876543210", "Address 2", null);
+        exportProperties.setBatchSize(1);
+        exportProperties.setInitialBackoff(1);
+        exportProperties.setMaxBackoff(2);
+
+        when(studentPersistenceService.findChangedPageAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), anyInt())).thenReturn(List.of(john, jane));
+        when(genericHttpClient.post(eq(postUrl), anyMap(), eq(List.of(john)), eq(GeneralResponse.class), eq(10)))
+                .thenThrow(new HttpStatusException(503, "POST request failed with status code: 503"));
+        when(genericHttpClient.post(eq(postUrl), anyMap(), eq(List.of(jane)), eq(GeneralResponse.class), eq(10)))
+                .thenReturn(new GeneralResponse("OK", "SUCCESS"));
+
+        ExportResponse response = studentSyncService.postStudentsUsingHttpClient(postUrl);
+
+        assertEquals("PARTIAL", response.getStatus());
+        assertEquals(1, response.getBatchesSucceeded());
+        assertEquals(1, response.getBatchesFailed());
+        assertEquals(1, response.getBatchesRetried());
+        assertEquals(1, response.getRecordsFailed());
+        assertEquals(1L, response.getFailedBatches().get(0).getFirstId());
+        verify(exportWatermarkService, never()).advance(anyString(), any(), anyLong());
+        verify(genericHttpClient, times(1 + exportProperties.getMaxRetries()))
+                .post(eq(postUrl), anyMap(), eq(List.of(john)), eq(GeneralResponse.class), eq(10));
+    }
+
+    @Test
+    void postStudentsUsingHttpClient_Concurrent() throws IOException {
+        String postUrl = "https://example.org/students";
+        List<StudentExportRow> mockStudents = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            mockStudents.add(new StudentExportRow(id, "Student " + id, "s" + id + "@example.com", 20, "Male", "1234567890", "Address", null));
+        }
+        exportProperties.setHttpClientMode(ExportProperties.Mode.CONCURRENT);
+
+        when(studentPersistenceService.findChangedPageAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), anyInt())).thenReturn(mockStudents);
+        when(genericHttpClient.post(eq(postUrl), anyMap(), anyList(), eq(GeneralResponse.class), eq(10)))
+                .thenReturn(new GeneralResponse("OK", "SUCCESS"));
+
+        ExportResponse response = studentSyncService.postStudentsUsingHttpClient(postUrl);
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(3, response.getBatchesSucceeded());
+        assertEquals(25, response.getRecordsSucceeded());
+        verify(genericHttpClient, times(3)).post(eq(postUrl), anyMap(), anyList(), eq(GeneralResponse.class), eq(10));
+    }
+
+    @Test
+    void postStudentsUsingHttpClient_ResumesFromWatermark() throws IOException {
+        String postUrl = "https://example.org/students";
+        Instant watermark = Instant.parse("2024-05-01T10:00:00Z");
+        StudentExportRow john = changedStudent(7L, watermark.plusSeconds(1));
+        StudentExportRow jane = changedStudent(3L, watermark.plusSeconds(2));
+        exportProperties.setBatchSize(1);
+
+        when(exportWatermarkService.findByTargetUrl(postUrl))
+                .thenReturn(Optional.of(new ExportWatermark(postUrl, watermark, 5L, watermark)));
+        when(studentPersistenceService.findChangedPageAfter(eq(watermark), eq(5L), any(Instant.class), anyInt()))
+                .thenReturn(List.of(john, jane));
+        when(genericHttpClient.post(eq(postUrl), anyMap(), anyList(), eq(GeneralResponse.class), eq(10)))
+                .thenReturn(new GeneralResponse("OK", "SUCCESS"));
+
+        ExportResponse response = studentSyncService.postStudentsUsingHttpClient(postUrl);
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(2, response.getRecordsSucceeded());
+        InOrder inOrder = inOrder(exportWatermarkService);
+        inOrder.verify(exportWatermarkService).advance(postUrl, john.updatedAt(), 7L);
+        inOrder.verify(exportWatermarkService).advance(postUrl, jane.updatedAt(), 3L);
+        verify(studentPersistenceService, never()).findPageAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void postStudentsUsingWebClient_NothingChangedSinceWatermark() {
+        String postUrl = "https://example.org/students";
+        Instant watermark = Instant.parse("2024-05-01T10:00:00Z");
+        when(exportWatermarkService.findByTargetUrl(postUrl))
+                .thenReturn(Optional.of(new ExportWatermark(postUrl, watermark, 5L, watermark)));
+
+        ExportResponse response = studentSyncService.postStudentsUsingWebClient(postUrl);
+
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals("No students changed since the last export", response.getMessage());
+        verify(genericWebClient, never()).post(anyString(), anyMap(), any(), any(), anyLong());
+    }
+
+    @Test
+    void postStudentsUsingHttpClient_FullResendIgnoresWatermark() throws IOException {
+        String postUrl = "https://example.org/students";
+        Instant now = Instant.parse("2024-05-01T10:00:00Z");
+        StudentExportRow newest = changedStudent(1L, now.plusSeconds(60));
+        StudentExportRow older = changedStudent(2L, now);
+
+        when(studentPersistenceService.findPageAfter(0L, exportProperties.getPageSize())).thenReturn(List.of(newest, older));
+        when(genericHttpClient.post(eq(postUrl), anyMap(), anyList(), eq(GeneralResponse.class), eq(10)))
+                .thenReturn(new GeneralResponse("OK", "SUCCESS"));
+
+        ExportResponse response = studentSyncService.postStudentsUsingHttpClient(postUrl, true, new SyncProgress());
+
+        assertEquals("SUCCESS", response.getStatus());
+        verify(exportWatermarkService, never()).findByTargetUrl(anyString());
+        // The run's cutoff, not the newest student: one changed while the run went on may not have been sent
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(exportWatermarkService, times(1)).advance(eq(postUrl), cutoff.capture(), eq(Long.MAX_VALUE));
+        assertFalse(cutoff.getValue().isAfter(Instant.now().minusMillis(exportProperties.getWatermarkSafetyLag())));
+    }
+
+    @Test
+    void postStudentsUsingHttpClient_DeltaIsBoundedBySafetyLag() throws IOException {
+        String postUrl = "https://example.org/students";
+        exportProperties.setWatermarkSafetyLag(30000);
+
+        Instant started = Instant.now();
+        studentSyncService.postStudentsUsingHttpClient(postUrl);
+        Instant finished = Instant.now();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(studentPersistenceService).findChangedPageAfter(eq(Instant.EPOCH), eq(0L), cutoff.capture(), anyInt());
+        assertFalse(cutoff.getValue().isBefore(started.minusMillis(30000).truncatedTo(ChronoUnit.MICROS)));
+        assertFalse(cutoff.getValue().isAfter(finished.minusMillis(30000)));
+    }
+
+    private static StudentExportRow changedStudent(Long id, Instant updatedAt) {
+        return new StudentExportRow(id, "Student " + id, "s" + id + "@example.com", 20, "Male", "1234567890", "Address", updatedAt);
+    }
+
+    private static RawResponse rawStudents(Map<String, String> headers, String... emails) throws IOException {
+        List<StudentResponseDTO> students = new ArrayList<>();
+        for (String email : emails) {
+            students.add(new StudentResponseDTO("Student", email, 20, "Male", "1234567890", "Address", List.of()));
+        }
+        return new RawResponse(200, headers, new ObjectMapper().writeValueAsBytes(students));
+    }
+
+    private static StudentResponseDTO student(String email) {
+        return new StudentResponseDTO("Student", email, 22, "Female", null, null, List.of());
+    }
+
+    // Waits for a counter another thread updates, failing after a few seconds
+    private static void awaitCount(long expected, LongSupplier counter) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter.getAsLong() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, counter.getAsLong());
+    }
 }
@@ -0,0 +1,179 @@
+package com.profid.profid;
+
+import com.profid.profid.config.IngestProperties;
+import com.profid.profid.dto.response.StudentResponseDTO;
+import com.profid.profid.service.StudentPersistenceService;
+import com.profid.profid.service.StudentWriteBehind;
+import com.profid.profid.service.SyncMetrics;
+import com.profid.profid.service.SyncProgress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StudentWriteBehindTest {
+
+    private final StudentPersistenceService studentPersistenceService = mock(StudentPersistenceService.class);
+    private final IngestProperties ingestProperties = new IngestProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StudentWriteBehind studentWriteBehind;
+
+    @BeforeEach
+    void setUp() {
+        ingestProperties.setShutdownTimeout(5000);
+        when(studentPersistenceService.saveChunk(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (studentWriteBehind != null) {
+            studentWriteBehind.shutdown();
+        }
+    }
+
+    @Test
+    void finish_CommitsQueuedStudentsInBatchesAcrossSubmits() {
+        ingestProperties.setBatchSize(3);
+        // Only the batch size or finish() can end a batch
+        ingestProperties.setFlushInterval(60000);
+        start();
+        SyncProgress progress = new SyncProgress();
+
+        StudentWriteBehind.Ingestion ingestion = studentWriteBehind.open(progress);
+        ingestion.submit(students(0, 2));
+        ingestion.submit(students(2, 2));
+        ingestion.finish();
+
+        assertEquals(4, progress.getRecordsPersisted());
+        assertEquals(List.of(3, 1), savedChunkSizes());
+        // Both chunks were taken as one batch, committed as two transactions of at most batchSize
+        assertEquals(1, meterRegistry.get(SyncMetrics.QUEUE_LATENCY).timer().count());
+    }
+
+    @Test
+    void submit_BlocksWhileTheQueueIsFull() throws Exception {
+        ingestProperties.setBatchSize(1);
+        ingestProperties.setQueueCapacity(2);
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(studentPersistenceService.saveChunk(anyList())).thenAnswer(invocation -> {
+            saving.countDown();
+            release.await();
+            return 1;
+        });
+        start();
+        StudentWriteBehind.Ingestion ingestion = studentWriteBehind.open(new SyncProgress());
+
+        CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+            for (StudentResponseDTO student : students(0, 4)) {
+                ingestion.submit(List.of(student));
+            }
+        });
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+        // One student is being saved and two are queued, so the fourth cannot be submitted
+        assertThrows(TimeoutException.class, () -> producer.get(300, TimeUnit.MILLISECONDS));
+        assertEquals(2.0, meterRegistry.get(SyncMetrics.QUEUE_DEPTH).gauge().value());
+
+        release.countDown();
+        producer.get(5, TimeUnit.SECONDS);
+        ingestion.finish();
+        verify(studentPersistenceService, times(4)).saveChunk(anyList());
+    }
+
+    @Test
+    void finish_RethrowsAFailedBatchAndStopsTheSync() {
+        ingestProperties.setBatchSize(2);
+        IllegalStateException failure = new IllegalStateException("Database is down");
+        when(studentPersistenceService.saveChunk(anyList())).thenThrow(failure);
+        start();
+        StudentWriteBehind.Ingestion ingestion = studentWriteBehind.open(new SyncProgress());
+
+        ingestion.submit(students(0, 2));
+
+        assertSame(failure, assertThrows(IllegalStateException.class, ingestion::finish));
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> ingestion.submit(students(2, 2))));
+    }
+
+    @Test
+    void close_DropsWhatAnUnfinishedSyncStillHasQueued() throws Exception {
+        ingestProperties.setBatchSize(1);
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(studentPersistenceService.saveChunk(anyList())).thenAnswer(invocation -> {
+            saving.countDown();
+            release.await();
+            return 1;
+        });
+        start();
+        SyncProgress progress = new SyncProgress();
+        StudentWriteBehind.Ingestion ingestion = studentWriteBehind.open(progress);
+        ingestion.submit(students(0, 3));
+        assertTrue(saving.await(5, TimeUnit.SECONDS));
+
+        // The sync failed while its first student was being saved
+        CompletableFuture<Void> closed = CompletableFuture.runAsync(ingestion::close);
+        assertThrows(TimeoutException.class, () -> closed.get(300, TimeUnit.MILLISECONDS));
+        release.countDown();
+        closed.get(5, TimeUnit.SECONDS);
+
+        verify(studentPersistenceService, times(1)).saveChunk(anyList());
+        assertEquals(1, progress.getRecordsPersisted());
+    }
+
+    @Test
+    void close_AfterFinishKeepsTheSyncSucceeded() {
+        start();
+        SyncProgress progress = new SyncProgress();
+
+        try (StudentWriteBehind.Ingestion ingestion = studentWriteBehind.open(progress)) {
+            ingestion.submit(students(0, 2));
+            ingestion.finish();
+        }
+
+        assertEquals(2, progress.getRecordsPersisted());
+    }
+
+    @Test
+    void shutdown_CommitsWhatIsStillQueued() {
+        ingestProperties.setFlushInterval(60000);
+        start();
+        SyncProgress progress = new SyncProgress();
+        studentWriteBehind.open(progress).submit(students(0, 5));
+
+        studentWriteBehind.shutdown();
+
+        assertEquals(5, progress.getRecordsPersisted());
+        assertThrows(IllegalStateException.class, () -> studentWriteBehind.open(new SyncProgress()).submit(students(5, 1)));
+    }
+
+    private void start() {
+        studentWriteBehind = new StudentWriteBehind(studentPersistenceService, ingestProperties, new SyncMetrics(meterRegistry));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> savedChunkSizes() {
+        ArgumentCaptor<List<StudentResponseDTO>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(studentPersistenceService, atLeastOnce()).saveChunk(chunks.capture());
+        return chunks.getAllValues().stream().map(List::size).toList();
+    }
+
+    private static List<StudentResponseDTO> students(int from, int count) {
+        List<StudentResponseDTO> students = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            students.add(new StudentResponseDTO("Student " + i, "student" + i + "@example.com", 20, "F", null, null, List.of()));
+        }
+        return students;
+    }
+}
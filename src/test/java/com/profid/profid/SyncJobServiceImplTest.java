@@ -0,0 +1,86 @@
+package com.profid.profid;
+
+import com.profid.profid.config.SyncJobConfig;
+import com.profid.profid.config.SyncJobProperties;
+import com.profid.profid.dto.GeneralResponse;
+import com.profid.profid.service.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SyncJobServiceImplTest {
+
+    private final StudentSyncService studentSyncService = mock(StudentSyncService.class);
+
+    private ThreadPoolExecutor syncJobExecutor;
+    private SyncJobService syncJobService;
+
+    @BeforeEach
+    void setUp() {
+        SyncJobProperties properties = new SyncJobProperties();
+        properties.setPoolSize(1);
+        properties.setQueueCapacity(1);
+        syncJobExecutor = new SyncJobConfig().syncJobExecutor(properties);
+        syncJobService = new SyncJobServiceImpl(studentSyncService, syncJobExecutor, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        syncJobExecutor.shutdownNow();
+    }
+
+    @Test
+    void submit_RunsJobAndReportsProgress() throws InterruptedException {
+        when(studentSyncService.fetchAndSaveUsingHttpClient(any(SyncProgress.class))).thenAnswer(invocation -> {
+            SyncProgress progress = invocation.getArgument(0);
+            progress.addFetched(3);
+            progress.addPersisted(3);
+            return new GeneralResponse("Data fetched and saved using HttpClient", "SUCCESS");
+        });
+
+        SyncJob job = syncJobService.submit(SyncJobType.FETCH_HTTPCLIENT, null);
+        awaitFinished(job);
+
+        assertEquals(SyncJobStatus.SUCCEEDED, job.getStatus());
+        assertEquals(3, job.getProgress().getRecordsPersisted());
+        assertSame(job, syncJobService.findById(job.getId()).orElseThrow());
+    }
+
+    @Test
+    void cancel_QueuedJobNeverRuns() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(studentSyncService.fetchAndSaveUsingWebClient(any(SyncProgress.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new GeneralResponse("Data fetched and saved using WebClient", "SUCCESS");
+        });
+
+        SyncJob running = syncJobService.submit(SyncJobType.FETCH_WEBCLIENT, null);
+        SyncJob queued = syncJobService.submit(SyncJobType.POST_HTTPCLIENT, "https://example.org/students");
+        syncJobService.cancel(queued.getId());
+        release.countDown();
+        awaitFinished(running);
+
+        assertEquals(SyncJobStatus.CANCELLED, queued.getStatus());
+        verify(studentSyncService, never()).postStudentsUsingHttpClient(anyString(), anyBoolean(), any(SyncProgress.class));
+    }
+
+    @Test
+    void submit_PostJobRequiresUrl() {
+        assertThrows(IllegalArgumentException.class, () -> syncJobService.submit(SyncJobType.POST_WEBCLIENT, " "));
+    }
+
+    private static void awaitFinished(SyncJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.getStatus().isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.getStatus().isFinished(), "Job did not finish in time");
+    }
+}